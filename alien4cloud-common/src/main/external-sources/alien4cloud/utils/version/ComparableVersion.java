@@ -65,6 +65,19 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
 
     private ListItem items;
 
+    /*
+     * Sort key markers, in the same order as the items: qualifiers (alpha to sp, then unknown ones) < sub-lists < integers. The end of a list is marked as a
+     * release qualifier as missing items are compared as null items (1-alpha < 1 < 1-sp).
+     */
+    private static final char FIRST_QUALIFIER_KEY = 'A';
+    private static final char END_KEY = 'F';
+    /** Greater than any other key character: a key followed by this marker sorts after all the keys that start with it. */
+    private static final char AFTER_KEY = '~';
+    private static final char UNKNOWN_QUALIFIER_KEY = 'H';
+    private static final char UNKNOWN_QUALIFIER_END = '!';
+    private static final char LIST_KEY = 'L';
+    private static final char INTEGER_KEY = 'N';
+
     private interface Item {
         int INTEGER_ITEM = 0;
         int STRING_ITEM = 1;
@@ -75,6 +88,11 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
         int getType();
 
         boolean isNull();
+
+        /**
+         * Append the sort key of the item, see {@link ComparableVersion#getSortKey()}.
+         */
+        void appendSortKey(StringBuilder sortKey);
     }
 
     /**
@@ -126,6 +144,13 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
             }
         }
 
+        @Override
+        public void appendSortKey(StringBuilder sortKey) {
+            // integers are sorted by number of digits first so that 10 > 9
+            String digits = value.toString();
+            sortKey.append(INTEGER_KEY).append(String.format("%02d", digits.length())).append(digits);
+        }
+
         @Override
         public String toString() {
             return value.toString();
@@ -222,6 +247,16 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
             }
         }
 
+        @Override
+        public void appendSortKey(StringBuilder sortKey) {
+            int i = _QUALIFIERS.indexOf(value);
+            if (i == -1) {
+                sortKey.append(UNKNOWN_QUALIFIER_KEY).append(value).append(UNKNOWN_QUALIFIER_END);
+            } else {
+                sortKey.append((char) (FIRST_QUALIFIER_KEY + i));
+            }
+        }
+
         @Override
         public String toString() {
             return value;
@@ -296,6 +331,43 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
             }
         }
 
+        @Override
+        public void appendSortKey(StringBuilder sortKey) {
+            sortKey.append(LIST_KEY);
+            appendItemsSortKey(sortKey);
+        }
+
+        void appendItemsSortKey(StringBuilder sortKey) {
+            for (int i = 0; i < size(); i++) {
+                Item item = get(i);
+                if (item.getType() == STRING_ITEM && item.isNull()) {
+                    appendReleaseSortKey(sortKey, i + 1);
+                } else {
+                    item.appendSortKey(sortKey);
+                }
+            }
+            sortKey.append(END_KEY);
+        }
+
+        /**
+         * A release qualifier (empty, ga or final) is equal to the end of a shorter list, the order is then decided by the next items compared to null
+         * (2.ga-snapshot < 2 < 2.ga-sp). So the key sorts right before the end of a list if the next items are lower than null and right after it if they
+         * are greater, while staying between the snapshot and sp qualifiers.
+         */
+        private void appendReleaseSortKey(StringBuilder sortKey, int nextIndex) {
+            int result = 0;
+            for (int i = nextIndex; i < size() && result == 0; i++) {
+                result = get(i).compareTo(null);
+            }
+            if (result < 0) {
+                sortKey.append((char) (END_KEY - 1)).append(AFTER_KEY);
+            } else if (result > 0) {
+                sortKey.append(END_KEY).append(AFTER_KEY);
+            } else {
+                sortKey.append(END_KEY);
+            }
+        }
+
         @Override
         public String toString() {
             StringBuilder buffer = new StringBuilder("(");
@@ -397,6 +469,22 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
         return items.compareTo(o.items);
     }
 
+    /**
+     * Get a key that sorts lexicographically like the version is ordered, so that versions can be sorted by a database without parsing them. The ordering is
+     * the one of the version except for degenerated versions that cannot be totally ordered:
+     * <ul>
+     * <li>a 0 followed by a pre-release qualifier inside the same list: 1.0.alpha &lt; 1 &lt; 1.sp &lt; 1.0.alpha (the key sorts 1.0.alpha after 1.sp),</li>
+     * <li>a sub-list that starts with a 0: 1-0.1-alpha is equal to 1 (the key sorts it after 1).</li>
+     * </ul>
+     *
+     * @return The sort key of the version.
+     */
+    public String getSortKey() {
+        StringBuilder sortKey = new StringBuilder();
+        items.appendItemsSortKey(sortKey);
+        return sortKey.toString();
+    }
+
     @Override
     public String toString() {
         return value;
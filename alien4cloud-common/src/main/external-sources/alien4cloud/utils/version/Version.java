@@ -62,6 +62,10 @@ public class Version implements Comparable<Version> {
     @StringField(indexType = IndexType.not_analyzed)
     private String qualifier;
 
+    /** Key to sort versions without parsing them, see {@link ComparableVersion#getSortKey()}. */
+    @StringField(indexType = IndexType.not_analyzed)
+    private String sortKey;
+
     @JsonIgnore
     private ComparableVersion comparable;
 
@@ -115,8 +119,17 @@ public class Version implements Comparable<Version> {
         return qualifier;
     }
 
+    public String getSortKey() {
+        if (sortKey == null && comparable != null) {
+            // computed lazily as versions are mostly parsed to be compared
+            sortKey = comparable.getSortKey();
+        }
+        return sortKey;
+    }
+
     public final void parseVersion(String version) {
         comparable = new ComparableVersion(version);
+        sortKey = null;
 
         int index = version.indexOf("-");
 
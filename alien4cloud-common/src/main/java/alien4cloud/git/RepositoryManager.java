@@ -23,11 +23,15 @@ import org.eclipse.jgit.api.TransportCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.NoHeadException;
 import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryState;
 import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.FetchResult;
 import org.eclipse.jgit.transport.PushResult;
 import org.eclipse.jgit.transport.RefSpec;
@@ -35,6 +39,7 @@ import org.eclipse.jgit.transport.RemoteConfig;
 import org.eclipse.jgit.transport.RemoteRefUpdate;
 import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.treewalk.TreeWalk;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -467,6 +472,33 @@ public class RepositoryManager {
         return null;
     }
 
+    /**
+     * Get the id of the git tree of a directory in the last commit of the current branch. The tree id changes if and only if the content of the directory
+     * changes so it can be used to detect the modifications of a sub-tree between two commits.
+     *
+     * @param git The repository from which to get the tree id.
+     * @param path The path of the directory relative to the repository root (using '/' as separator), empty for the root directory.
+     * @return The id of the tree or null if the repository has no commit or if the directory is not in the last commit.
+     */
+    public static String getTreeId(Git git, String path) {
+        Repository repository = git.getRepository();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            ObjectId head = repository.resolve(Constants.HEAD);
+            if (head == null) {
+                return null;
+            }
+            RevTree tree = revWalk.parseCommit(head).getTree();
+            if (path.isEmpty()) {
+                return tree.getName();
+            }
+            try (TreeWalk treeWalk = TreeWalk.forPath(repository, path, tree)) {
+                return treeWalk == null ? null : treeWalk.getObjectId(0).getName();
+            }
+        } catch (IOException e) {
+            throw new GitException("Failed to read the tree of git repository", e);
+        }
+    }
+
     private static void setCredentials(TransportCommand<?, ?> command, String username, String password) {
         if (StringUtils.isNotBlank(username)) {
             if (password == null) {
@@ -8,9 +8,13 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import javax.xml.bind.DatatypeConverter;
@@ -163,6 +167,32 @@ public final class FileUtil {
         }
     }
 
+    /**
+     * Unzip a zip stream to a destination folder while it is read, the zip content does not have to be saved in a file first.
+     *
+     * @param zipStream The stream of the zip content, closed once read.
+     * @param destination The destination folder in which to save the files.
+     * @throws IOException In case something fails or if an entry of the zip is outside of the destination folder.
+     */
+    public static void unzip(final InputStream zipStream, final Path destination) throws IOException {
+        Path root = destination.toAbsolutePath().normalize();
+        try (ZipInputStream zipInputStream = new ZipInputStream(zipStream)) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException("Zip entry <" + entry.getName() + "> is outside of the destination folder.");
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(zipInputStream, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
     public static String relativizePath(Path root, Path child) {
         String childPath = child.toAbsolutePath().toString();
         String rootPath = root.toAbsolutePath().toString();
@@ -369,7 +399,9 @@ public final class FileUtil {
     }
 
     /**
-     * Computes a SHA-1 checksum on a directory. The checksum ignores hidden files.
+     * Computes a SHA-1 checksum on a directory or on the content of a zip file. The checksum ignores hidden files (which name starts with a dot) and files are
+     * digested in the order of their relative paths so that a zip and its expanded content have the same checksum whatever the order of the zip entries or
+     * of the directory listing.
      *
      * @param rootPath The root path for which to compute SHA-1 on every sub files and folders.
      * @return The SHA-1 hash string.
@@ -392,21 +424,27 @@ public final class FileUtil {
     @SneakyThrows({ IOException.class, NoSuchAlgorithmException.class })
     private static String computeDirectoryHash(Path rootPath) {
         MessageDigest digest = MessageDigest.getInstance("SHA1");
-        Files.walk(rootPath).filter(FileUtil::isNotHidden).filter(Files::isRegularFile).forEach(path -> addFileToDigest(digest, path));
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(rootPath)) {
+            files = paths.filter(FileUtil::isNotHidden).filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(path -> rootPath.relativize(path).toString().replace('\\', '/'))).collect(Collectors.toList());
+        }
+        files.forEach(path -> addFileToDigest(digest, path));
         return DatatypeConverter.printHexBinary(digest.digest());
-
     }
 
     @SneakyThrows({ IOException.class })
     private static void addFileToDigest(MessageDigest digest, Path path) {
-        try (InputStream digestInputStream = new DigestInputStream(new BufferedInputStream(Files.newInputStream(path)), digest)) {
-            while (digestInputStream.read() != -1) {
+        try (InputStream digestInputStream = new DigestInputStream(Files.newInputStream(path), digest)) {
+            byte[] buffer = new byte[8192];
+            while (digestInputStream.read(buffer) != -1) {
+                // just compute the digest
             }
         }
     }
 
-    @SneakyThrows({ IOException.class })
     private static boolean isNotHidden(Path path) {
-        return !Files.isHidden(path);
+        // not Files.isHidden as it depends on the file system (files in a zip are never hidden)
+        return path.getFileName() == null || !path.getFileName().toString().startsWith(".");
     }
 }
\ No newline at end of file
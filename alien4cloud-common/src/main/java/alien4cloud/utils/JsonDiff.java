@@ -0,0 +1,97 @@
+package alien4cloud.utils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Lists;
+
+/**
+ * Compute the JSON patch (RFC 6902) that transforms a JSON tree into another one.
+ *
+ * Objects are compared field by field and arrays element by element once their common prefix and suffix are removed so that a modification deep inside a
+ * large tree results in a small patch. The patch is not guaranteed to be minimal.
+ */
+public final class JsonDiff {
+    private JsonDiff() {
+    }
+
+    /**
+     * Compute the patch to apply on the source tree to get the target tree.
+     *
+     * @param source The source tree.
+     * @param target The target tree.
+     * @return The list of operations to apply in order, empty if the trees are equals.
+     */
+    public static List<JsonPatchOperation> diff(JsonNode source, JsonNode target) {
+        List<JsonPatchOperation> operations = Lists.newArrayList();
+        diff("", source, target, operations);
+        return operations;
+    }
+
+    private static void diff(String path, JsonNode source, JsonNode target, List<JsonPatchOperation> operations) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (source.isObject() && target.isObject()) {
+            diffObjects(path, source, target, operations);
+        } else if (source.isArray() && target.isArray()) {
+            diffArrays(path, source, target, operations);
+        } else {
+            operations.add(new JsonPatchOperation(JsonPatchOperation.REPLACE, path, target));
+        }
+    }
+
+    private static void diffObjects(String path, JsonNode source, JsonNode target, List<JsonPatchOperation> operations) {
+        Iterator<String> sourceFields = source.fieldNames();
+        while (sourceFields.hasNext()) {
+            String field = sourceFields.next();
+            String fieldPath = path + "/" + escape(field);
+            if (target.has(field)) {
+                diff(fieldPath, source.get(field), target.get(field), operations);
+            } else {
+                operations.add(new JsonPatchOperation(JsonPatchOperation.REMOVE, fieldPath, null));
+            }
+        }
+        Iterator<Map.Entry<String, JsonNode>> targetFields = target.fields();
+        while (targetFields.hasNext()) {
+            Map.Entry<String, JsonNode> field = targetFields.next();
+            if (!source.has(field.getKey())) {
+                operations.add(new JsonPatchOperation(JsonPatchOperation.ADD, path + "/" + escape(field.getKey()), field.getValue()));
+            }
+        }
+    }
+
+    private static void diffArrays(String path, JsonNode source, JsonNode target, List<JsonPatchOperation> operations) {
+        int minSize = Math.min(source.size(), target.size());
+        int prefix = 0;
+        while (prefix < minSize && source.get(prefix).equals(target.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < minSize - prefix && source.get(source.size() - 1 - suffix).equals(target.get(target.size() - 1 - suffix))) {
+            suffix++;
+        }
+        int sourceMiddle = source.size() - prefix - suffix;
+        int targetMiddle = target.size() - prefix - suffix;
+        // elements at the same position in the middle are patched
+        for (int i = 0; i < Math.min(sourceMiddle, targetMiddle); i++) {
+            diff(path + "/" + (prefix + i), source.get(prefix + i), target.get(prefix + i), operations);
+        }
+        // then extra elements of the source are removed or missing elements of the target are added
+        for (int i = targetMiddle; i < sourceMiddle; i++) {
+            operations.add(new JsonPatchOperation(JsonPatchOperation.REMOVE, path + "/" + (prefix + targetMiddle), null));
+        }
+        for (int i = sourceMiddle; i < targetMiddle; i++) {
+            operations.add(new JsonPatchOperation(JsonPatchOperation.ADD, path + "/" + (prefix + i), target.get(prefix + i)));
+        }
+    }
+
+    /**
+     * Escape a field name to be used in a JSON pointer (RFC 6901).
+     */
+    private static String escape(String field) {
+        return field.replace("~", "~0").replace("/", "~1");
+    }
+}
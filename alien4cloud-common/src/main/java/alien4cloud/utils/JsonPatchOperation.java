@@ -0,0 +1,30 @@
+package alien4cloud.utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An operation of a JSON patch (RFC 6902), only add, remove and replace operations are used.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JsonPatchOperation {
+    public static final String ADD = "add";
+    public static final String REMOVE = "remove";
+    public static final String REPLACE = "replace";
+
+    /** The operation: add, remove or replace. */
+    private String op;
+    /** The JSON pointer (RFC 6901) of the element to patch. */
+    private String path;
+    /** The value to add or replace, null for remove operations. */
+    private JsonNode value;
+}
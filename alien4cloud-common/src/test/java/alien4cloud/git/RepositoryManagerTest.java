@@ -2,9 +2,12 @@ package alien4cloud.git;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import org.eclipse.jgit.api.Git;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -64,4 +67,30 @@ public class RepositoryManagerTest {
         assertThat(RepositoryManager.isOnBranch(localGitPath, "tmp")).isTrue();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void treeIdShouldChangeOnlyForModifiedDirectory() throws Exception {
+        Files.createDirectories(localGitPath.resolve("first"));
+        Files.createDirectories(localGitPath.resolve("second"));
+        Files.write(localGitPath.resolve("first/types.yml"), "first".getBytes(StandardCharsets.UTF_8));
+        Files.write(localGitPath.resolve("second/types.yml"), "second".getBytes(StandardCharsets.UTF_8));
+        RepositoryManager.commitAll(localGitPath, "test", "test@alien4cloud.org", "initial commit");
+        String firstTreeId;
+        String secondTreeId;
+        String rootTreeId;
+        try (Git git = Git.open(localGitPath.toFile())) {
+            firstTreeId = RepositoryManager.getTreeId(git, "first");
+            secondTreeId = RepositoryManager.getTreeId(git, "second");
+            rootTreeId = RepositoryManager.getTreeId(git, "");
+        }
+
+        Files.write(localGitPath.resolve("first/types.yml"), "modified".getBytes(StandardCharsets.UTF_8));
+        RepositoryManager.commitAll(localGitPath, "test", "test@alien4cloud.org", "update first");
+
+        try (Git git = Git.open(localGitPath.toFile())) {
+            assertThat(RepositoryManager.getTreeId(git, "first")).isNotEqualTo(firstTreeId);
+            assertThat(RepositoryManager.getTreeId(git, "second")).isEqualTo(secondTreeId);
+            assertThat(RepositoryManager.getTreeId(git, "")).isNotEqualTo(rootTreeId);
+            assertThat(RepositoryManager.getTreeId(git, "missing")).isNull();
+        }
+    }
+}
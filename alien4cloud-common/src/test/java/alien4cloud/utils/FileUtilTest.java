@@ -0,0 +1,68 @@
+package alien4cloud.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileUtilTest {
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("fileUtilTest");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtil.delete(tempDir);
+    }
+
+    private byte[] zip(String... namesAndContents) throws IOException {
+        ByteArrayOutputStream zipContent = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipContent)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zipOutputStream.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zipOutputStream.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+        }
+        return zipContent.toByteArray();
+    }
+
+    @Test
+    public void unzipStreamShouldExtractFiles() throws IOException {
+        Path destination = tempDir.resolve("expanded");
+        FileUtil.unzip(new ByteArrayInputStream(zip("tosca.yml", "a", "images/icon.png", "b")), destination);
+        Assert.assertEquals("a", new String(Files.readAllBytes(destination.resolve("tosca.yml")), StandardCharsets.UTF_8));
+        Assert.assertEquals("b", new String(Files.readAllBytes(destination.resolve("images/icon.png")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void zipAndExpandedDirectoryShouldHaveSameHashWhateverTheEntriesOrder() throws IOException {
+        Path zipFile = tempDir.resolve("archive.zip");
+        Files.write(zipFile, zip("tosca.yml", "a", "images/icon.png", "b", "scripts/create.sh", "c"));
+        Path reorderedZipFile = tempDir.resolve("reordered.zip");
+        Files.write(reorderedZipFile, zip("scripts/create.sh", "c", "tosca.yml", "a", "images/icon.png", "b"));
+        Path expanded = tempDir.resolve("expanded");
+        FileUtil.unzip(Files.newInputStream(reorderedZipFile), expanded);
+
+        String hash = FileUtil.deepSHA1(zipFile);
+        Assert.assertEquals(hash, FileUtil.deepSHA1(reorderedZipFile));
+        Assert.assertEquals(hash, FileUtil.deepSHA1(expanded));
+    }
+
+    @Test(expected = IOException.class)
+    public void unzipStreamShouldRejectEntriesOutsideOfDestination() throws IOException {
+        FileUtil.unzip(new ByteArrayInputStream(zip("../outside.yml", "a")), tempDir.resolve("expanded"));
+    }
+}
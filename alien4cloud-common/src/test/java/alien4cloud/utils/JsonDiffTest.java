@@ -0,0 +1,89 @@
+package alien4cloud.utils;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class JsonDiffTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode read(String json) throws IOException {
+        return mapper.readTree(json.replace('\'', '"'));
+    }
+
+    @Test
+    public void equalTreesShouldHaveEmptyPatch() throws IOException {
+        Assert.assertTrue(JsonDiff.diff(read("{'a':[1,2,{'b':'c'}]}"), read("{'a':[1,2,{'b':'c'}]}")).isEmpty());
+    }
+
+    @Test
+    public void objectFieldsShouldBePatched() throws IOException {
+        List<JsonPatchOperation> patch = JsonDiff.diff(read("{'a':1,'b':{'c':'d'},'e':true}"), read("{'a':1,'b':{'c':'f'},'g/h':2}"));
+        Assert.assertEquals(3, patch.size());
+        assertOperation(patch.get(0), JsonPatchOperation.REPLACE, "/b/c");
+        Assert.assertEquals("f", patch.get(0).getValue().asText());
+        assertOperation(patch.get(1), JsonPatchOperation.REMOVE, "/e");
+        Assert.assertNull(patch.get(1).getValue());
+        assertOperation(patch.get(2), JsonPatchOperation.ADD, "/g~1h");
+    }
+
+    @Test
+    public void modifiedArrayElementShouldBePatchedInPlace() throws IOException {
+        List<JsonPatchOperation> patch = JsonDiff.diff(read("[{'k':'a','v':1},{'k':'b','v':1},{'k':'c','v':1}]"),
+                read("[{'k':'a','v':1},{'k':'b','v':2},{'k':'c','v':1}]"));
+        Assert.assertEquals(1, patch.size());
+        assertOperation(patch.get(0), JsonPatchOperation.REPLACE, "/1/v");
+    }
+
+    @Test
+    public void arrayPatchShouldTransformSourceToTarget() throws IOException {
+        String[][] cases = { { "[1,2,3,4]", "[1,4]" }, { "[1,4]", "[1,2,3,4]" }, { "[1,2,3]", "[]" }, { "[]", "[1,2]" }, { "[1,2,3]", "[4,2,5,6]" },
+                { "{'a':[1,{'b':[1,2]},3]}", "{'a':[{'b':[2]},3,3]}" } };
+        for (String[] diffCase : cases) {
+            JsonNode source = read(diffCase[0]);
+            JsonNode target = read(diffCase[1]);
+            Assert.assertEquals(target, apply(source.deepCopy(), JsonDiff.diff(source, target)));
+        }
+    }
+
+    private void assertOperation(JsonPatchOperation operation, String op, String path) {
+        Assert.assertEquals(op, operation.getOp());
+        Assert.assertEquals(path, operation.getPath());
+    }
+
+    /** Minimal patch application to check the patch. */
+    private JsonNode apply(JsonNode node, List<JsonPatchOperation> patch) {
+        for (JsonPatchOperation operation : patch) {
+            if (operation.getPath().isEmpty()) {
+                node = operation.getValue();
+                continue;
+            }
+            int lastSeparator = operation.getPath().lastIndexOf('/');
+            JsonNode parent = node.at(operation.getPath().substring(0, lastSeparator));
+            String field = operation.getPath().substring(lastSeparator + 1);
+            if (parent.isArray()) {
+                ArrayNode array = (ArrayNode) parent;
+                int index = Integer.parseInt(field);
+                if (JsonPatchOperation.ADD.equals(operation.getOp())) {
+                    array.insert(index, operation.getValue());
+                } else if (JsonPatchOperation.REMOVE.equals(operation.getOp())) {
+                    array.remove(index);
+                } else {
+                    array.set(index, operation.getValue());
+                }
+            } else if (JsonPatchOperation.REMOVE.equals(operation.getOp())) {
+                ((ObjectNode) parent).remove(field);
+            } else {
+                ((ObjectNode) parent).set(field, operation.getValue());
+            }
+        }
+        return node;
+    }
+}
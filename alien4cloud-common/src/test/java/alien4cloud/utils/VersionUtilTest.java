@@ -31,4 +31,19 @@ public class VersionUtilTest {
         VersionUtil.isQualifierValidOrFail("Dev-SnAPSHoT-toto");
     }
 
+    @Test
+    public void sortKeysShouldBeOrderedAsVersions() throws Exception {
+        String[] versions = { "0.1.0-SNAPSHOT", "1", "1.0.0-SNAPSHOT", "1.0.0-a1", "1.0.0-1", "1.0.0-1.1", "1.0.0-2", "1.0.0-10", "1.0.1", "1.2", "1.2.3-4-SNAPSHOT",
+                "1.2.3-4", "1.2.3.4", "1.9.0", "1.10.0", "2.0.0-alpha1", "2.0.0-beta2", "2.0.0-rc1", "2.0.0", "2.0.0.GA", "2.0.0-sp", "2.0.0-bar", "2.0.0-foo",
+                "2.1.0-rc2", "2.1.0-rc10", "3.0.0-dev-SNAPSHOT", "3.0.0-dev", "10.0.0",
+                // release qualifiers inside a list
+                "2.snapshot", "2.ga-snapshot", "2-final-rc1", "2.final-sp", "2.ga-1", "2.ga.ga-beta", "2-1.ga-snapshot", "2-1.final-sp" };
+        for (String left : versions) {
+            for (String right : versions) {
+                Assert.assertEquals(left + " <> " + right, Integer.signum(VersionUtil.compare(left, right)),
+                        Integer.signum(VersionUtil.parseVersion(left).getSortKey().compareTo(VersionUtil.parseVersion(right).getSortKey())));
+            }
+        }
+    }
+
 }
\ No newline at end of file
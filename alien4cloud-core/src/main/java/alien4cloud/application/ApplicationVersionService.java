@@ -393,10 +393,7 @@ public class ApplicationVersionService {
     }
 
     private void addSort(SearchRequestBuilder searchRequestBuilder) {
-        searchRequestBuilder.addSort(new FieldSortBuilder("nestedVersion.majorVersion").order(SortOrder.DESC))
-                .addSort(new FieldSortBuilder("nestedVersion.minorVersion").order(SortOrder.DESC))
-                .addSort(new FieldSortBuilder("nestedVersion.incrementalVersion").order(SortOrder.DESC))
-                .addSort(new FieldSortBuilder("nestedVersion.qualifier").order(SortOrder.DESC).missing("_first"));
+        searchRequestBuilder.addSort(new FieldSortBuilder("nestedVersion.sortKey").order(SortOrder.DESC).unmappedType("string"));
     }
 
     /**
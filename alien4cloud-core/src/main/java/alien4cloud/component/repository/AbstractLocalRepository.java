@@ -7,9 +7,16 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.UUID;
 
+import javax.annotation.Resource;
+
 import alien4cloud.component.repository.exception.RepositoryIOException;
+import lombok.Setter;
 
 public abstract class AbstractLocalRepository implements IFileRepository {
+    /** Store in which the files content is deduplicated, files are just copied in the repository if not set. */
+    @Setter
+    @Resource
+    private ContentAddressedFileStore contentStore;
 
     @Override
     public String storeFile(InputStream data) {
@@ -41,7 +48,11 @@ public abstract class AbstractLocalRepository implements IFileRepository {
     public void storeFile(String id, InputStream data) {
         try {
             checkRepository();
-            Files.copy(data, resolveFile(id), StandardCopyOption.REPLACE_EXISTING);
+            if (contentStore == null) {
+                Files.copy(data, resolveFile(id), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                contentStore.store(data, resolveFile(id));
+            }
         } catch (IOException e) {
             throw new RepositoryIOException("Could not store file with UID [" + id + "]", e);
         }
@@ -0,0 +1,251 @@
+package alien4cloud.component.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Required;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.google.common.io.BaseEncoding;
+
+import alien4cloud.component.repository.exception.RepositoryIOException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content addressed store for the files of the artifact and archive repositories.
+ *
+ * Every content is stored once as a blob named after it's SHA-256 and the files of the repositories are hard links to the blobs. The number of links of a
+ * blob is it's reference count: copying a file is just adding a link and blobs that are not linked anymore are garbage collected. Files of the store are
+ * shared so they must be replaced and never modified in place.
+ *
+ * When hard links are not supported by the file system, files are copied as before and nothing is stored in the content store.
+ */
+@Slf4j
+@Component
+public class ContentAddressedFileStore {
+    private static final String TMP_DIRECTORY = "tmp";
+    private static final String NLINK_ATTRIBUTE = "unix:nlink";
+
+    @Value("${content_store.gc_grace_period_minutes:10}")
+    private long gcGracePeriodMinutes;
+
+    private Path rootPath;
+    private boolean enabled;
+
+    @Required
+    @Value("${directories.alien}/${directories.content_store:content_store}")
+    public void setRootPath(String path) throws IOException {
+        this.rootPath = Paths.get(path).toAbsolutePath();
+        Files.createDirectories(rootPath.resolve(TMP_DIRECTORY));
+        // the unix view is required to get the links count of the blobs.
+        this.enabled = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+        if (!enabled) {
+            log.info("Hard links count is not available on this file system, content addressed store is disabled.");
+        }
+    }
+
+    /**
+     * Store data in the content store and link the target file to it.
+     *
+     * @param data The data to store (the stream is not closed).
+     * @param target The file that will reference the data, replaced if it already exists.
+     * @throws IOException In case of a failure to read the data or to write the file.
+     */
+    public void store(InputStream data, Path target) throws IOException {
+        if (!enabled) {
+            Files.copy(data, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        Path tmpPath = Files.createTempFile(rootPath.resolve(TMP_DIRECTORY), "blob", null);
+        try {
+            MessageDigest digest = newDigest();
+            Files.copy(new DigestInputStream(data, digest), tmpPath, StandardCopyOption.REPLACE_EXISTING);
+            Path blobPath = getBlobPath(digest);
+            Files.createDirectories(blobPath.getParent());
+            try {
+                Files.createLink(blobPath, tmpPath);
+            } catch (FileAlreadyExistsException e) {
+                // the content is already stored, reference the existing blob.
+                try {
+                    linkOrCopy(blobPath, target);
+                    return;
+                } catch (NoSuchFileException noSuchFileException) {
+                    log.debug("Blob <{}> has been garbage collected meanwhile", blobPath.getFileName());
+                }
+            }
+            // the temporary file is a link to the blob, just move it to the target.
+            Files.move(tmpPath, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+    }
+
+    /**
+     * Move the regular files of a directory to the content store (replacing them by links to the blobs). Files that are already shared are expected to be
+     * stored already and are not read again. Tosca definitions (that are edited in place) and git metadata are ignored.
+     *
+     * @param directory The directory which files must be stored.
+     * @throws IOException In case of a failure to read or replace the files.
+     */
+    public void storeTree(Path directory) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return ".git".equals(dir.getFileName().toString()) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && !isToscaDefinition(file) && getLinksCount(file) == 1) {
+                    storeFile(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void storeFile(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream data = new DigestInputStream(Files.newInputStream(file), digest)) {
+            byte[] buffer = new byte[8192];
+            while (data.read(buffer) != -1) {
+                // just compute the digest
+            }
+        }
+        Path blobPath = getBlobPath(digest);
+        Files.createDirectories(blobPath.getParent());
+        try {
+            // first time the content is stored, the blob is a link to the file.
+            Files.createLink(blobPath, file);
+        } catch (FileAlreadyExistsException e) {
+            // the content is already stored, replace the file with a link to the blob.
+            Path tmpLink = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            try {
+                Files.createLink(tmpLink, blobPath);
+                Files.move(tmpLink, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileSystemException linkException) {
+                Files.deleteIfExists(tmpLink);
+                log.debug("File <{}> cannot be linked to the content store: {}", file, linkException.getMessage());
+            }
+        } catch (FileSystemException e) {
+            // the file is not on the same file system as the content store, it is kept as is.
+            log.debug("File <{}> cannot be linked to the content store: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the blobs that are not referenced anymore.
+     */
+    @Scheduled(fixedDelayString = "${content_store.gc_interval_ms:3600000}", initialDelay = 60000)
+    public void collectGarbage() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long expirationDate = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(gcGracePeriodMinutes);
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.equals(rootPath.resolve(TMP_DIRECTORY)) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                // the grace period prevents deleting a blob which first reference is being replaced.
+                if (getLinksCount(file) == 1 && attrs.lastModifiedTime().toMillis() < expirationDate) {
+                    log.debug("Deleting unreferenced blob <{}>", file.getFileName());
+                    Files.deleteIfExists(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private Path getBlobPath(MessageDigest digest) {
+        String hash = BaseEncoding.base16().lowerCase().encode(digest.digest());
+        return rootPath.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private int getLinksCount(Path file) throws IOException {
+        return (Integer) Files.getAttribute(file, NLINK_ATTRIBUTE);
+    }
+
+    private static boolean isToscaDefinition(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.endsWith(".yml") || fileName.endsWith(".yaml");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RepositoryIOException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Link the target file to the source file (so that they share the same content) or copy the source file if hard links are not supported between the
+     * two paths. The target file is replaced if it already exists.
+     *
+     * @param source The source file.
+     * @param target The target file.
+     * @throws IOException In case of a failure to link or copy the file.
+     */
+    public static void linkOrCopy(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // hard links not supported or source and target on different file systems.
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Link (or copy) all the files of a source directory to a target directory. Tosca definitions are always copied as they are edited in place.
+     *
+     * @param source The source directory.
+     * @param target The target directory, created if it doesn't exist.
+     * @throws IOException In case of a failure to link or copy the files.
+     */
+    public static void linkTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path targetFile = target.resolve(source.relativize(file).toString());
+                if (isToscaDefinition(file)) {
+                    Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    linkOrCopy(file, targetFile);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
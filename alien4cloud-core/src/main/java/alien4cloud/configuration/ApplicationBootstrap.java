@@ -1,8 +1,16 @@
 package alien4cloud.configuration;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.stereotype.Component;
@@ -11,12 +19,14 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.model.application.ApplicationVersion;
 import alien4cloud.model.orchestrators.Orchestrator;
 import alien4cloud.orchestrators.services.OrchestratorStateService;
 import alien4cloud.plugin.Plugin;
 import alien4cloud.plugin.PluginManager;
 import alien4cloud.plugin.model.PluginConfiguration;
 import alien4cloud.repository.services.RepositoryService;
+import alien4cloud.utils.VersionUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -42,6 +52,7 @@ public class ApplicationBootstrap implements ApplicationListener<ContextRefreshe
         // Starting from 1.3.1 version we don't allow multiple versions of a given plugin in a4c. The orchestrator plugin id does not requires version anymore
         // and should be cleaned.
         migration();
+        versionSortKeyMigration();
 
         // try to load plugins from init folder.
         initialLoader.loadPlugins();
@@ -93,6 +104,27 @@ public class ApplicationBootstrap implements ApplicationListener<ContextRefreshe
         log.debug("plugin id migration done.");
     }
 
+    /**
+     * Set the sort key of the versions of the elements indexed before the key was introduced, latest version lookups sort on this key.
+     */
+    private void versionSortKeyMigration() {
+        migrateVersionSortKey(AbstractToscaType.class, element -> element.setArchiveVersion(element.getArchiveVersion()));
+        migrateVersionSortKey(Csar.class, csar -> csar.setVersion(csar.getVersion()));
+        migrateVersionSortKey(Topology.class, topology -> topology.setArchiveVersion(topology.getArchiveVersion()));
+        migrateVersionSortKey(ApplicationVersion.class, version -> version.setNestedVersion(VersionUtil.parseVersion(version.getVersion())));
+    }
+
+    private <T> void migrateVersionSortKey(Class<T> clazz, Consumer<T> versionUpdater) {
+        List<T> elements = alienDAO.customFindAll(clazz,
+                QueryBuilders.filteredQuery(QueryBuilders.matchAllQuery(), FilterBuilders.missingFilter("nestedVersion.sortKey")));
+        if (elements == null) {
+            return;
+        }
+        elements.forEach(versionUpdater);
+        alienDAO.save(elements.toArray());
+        log.info("Version sort key set for {} {}.", elements.size(), clazz.getSimpleName());
+    }
+
     /**
      * This operation unloads all plugin and orchestrator
      */
@@ -17,25 +17,22 @@ import com.google.common.collect.Sets;
 
 import alien4cloud.exception.GitException;
 import alien4cloud.tosca.parser.ToscaArchiveParser;
-import alien4cloud.utils.FileUtil;
 import lombok.SneakyThrows;
 
 /**
- * This service detects TOSCA cloud service archives in a given folder and return an ordered list of archives path to import.
+ * This service detects TOSCA cloud service archives in a given folder and return the list of archives directories to import.
  */
 @Service
 public class CsarFinderService {
 
     /**
-     * Search in the given path for folders that contains CloudServiceArchives and zip them so they.
+     * Search in the given path for folders that contains CloudServiceArchives. Archives are parsed directly from their folder so they are not zipped.
      *
      * @param searchPath The path in which to search for archives.
-     * @return a list of path that contains archives.
+     * @return a list of path of the folders that contains archives.
      */
-    public Set<Path> prepare(Path searchPath, Path zipPath) {
+    public Set<Path> prepare(Path searchPath) {
         ToscaFinderWalker toscaFinderWalker = new ToscaFinderWalker();
-        toscaFinderWalker.zipRootPath = zipPath;
-        toscaFinderWalker.rootPath = searchPath;
         try {
             Files.walkFileTree(searchPath, toscaFinderWalker);
         } catch (IOException e) {
@@ -45,15 +42,12 @@ public class CsarFinderService {
     }
 
     private static class ToscaFinderWalker extends SimpleFileVisitor<Path> {
-        private Path rootPath;
-        private Path zipRootPath;
         private Set<Path> toscaArchives = Sets.newHashSet();
 
         @Override
         public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
             if (ToscaArchiveParser.TOSCA_META_FOLDER_NAME.equals(dir.getFileName())) {
-                // zip parent folder and add the path.
-                addToscaArchive(dir.getParent());
+                toscaArchives.add(dir.getParent());
                 return FileVisitResult.SKIP_SIBLINGS;
             }
             return FileVisitResult.CONTINUE;
@@ -62,26 +56,12 @@ public class CsarFinderService {
         @Override
         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
             if (isToscaFile(file)) {
-                addToscaArchive(file.getParent());
+                toscaArchives.add(file.getParent());
                 return FileVisitResult.SKIP_SIBLINGS;
             }
             return FileVisitResult.CONTINUE;
         }
 
-        private void addToscaArchive(Path path) {
-            Path relativePath = rootPath.relativize(path);
-            Path zipPath = zipRootPath.resolve(relativePath).resolve("archive.zip");
-            try {
-                if (Files.exists(zipPath)) {
-                    FileUtil.delete(zipPath);
-                }
-                FileUtil.zip(path, zipPath);
-                toscaArchives.add(zipPath);
-            } catch (IOException e) {
-                throw new GitException("Failed to zip archives in order to import them.", e);
-            }
-        }
-
         @SneakyThrows
         private boolean isToscaFile(Path path) {
             return isYamlFile(path) && readFirstLine(path).startsWith("tosca_definitions_version");
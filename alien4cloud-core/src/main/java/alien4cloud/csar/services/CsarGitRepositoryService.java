@@ -133,11 +133,12 @@ public class CsarGitRepositoryService {
         }
         repositoryToUpdate.setStoredLocally(isStoredLocally);
 
-        // just merge the existing location hash into new list so that we don't loose this information
+        // just merge the existing location hashes into new list so that we don't loose this information
         for (CsarGitCheckoutLocation location : importLocations) {
             CsarGitCheckoutLocation existingLocation = findLocationIn(location, repositoryToUpdate.getImportLocations());
             if (existingLocation != null) {
                 location.setLastImportedHash(existingLocation.getLastImportedHash());
+                location.setImportedArchiveTreeIds(existingLocation.getImportedArchiveTreeIds());
             }
             if (forbiddenSubPathCharacter.equals(location.getSubPath())) {
                 location.setSubPath(null);
@@ -16,7 +16,11 @@ import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.tosca.parser.impl.ErrorCode;
 import alien4cloud.utils.AlienConstants;
 import alien4cloud.utils.FileUtil;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.catalog.ArchiveUploadService;
 import org.alien4cloud.tosca.catalog.exception.UploadExceptionUtil;
@@ -27,18 +31,29 @@ import org.alien4cloud.tosca.model.CsarDependenciesBean;
 import org.eclipse.jgit.api.Git;
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Slf4j
 @Service
@@ -53,15 +68,28 @@ public class CsarGitService {
     private IGenericSearchDAO alienDAO;
     @Resource
     private CsarService csarService;
+    @Value("${csar_git.import_threadpool_size:4}")
+    private int importThreadPoolSize;
     // TODO store archives that are not 'temp' in another location.
     private Path tempDirPath;
-    private Path tempZipDirPath;
+
+    /** Pool used to parse and import the independent archives of a location in parallel. */
+    private ExecutorService importExecutor;
 
     @Required
     @Value("${directories.alien}/${directories.upload_temp}")
     public void setTempDirPath(String tempDirPath) throws IOException {
         this.tempDirPath = FileUtil.createDirectoryIfNotExists(tempDirPath + "/git");
-        this.tempZipDirPath = FileUtil.createDirectoryIfNotExists(tempDirPath + "/gitzips");
+    }
+
+    @PostConstruct
+    public void init() {
+        importExecutor = Executors.newFixedThreadPool(importThreadPoolSize, new ThreadFactoryBuilder().setNameFormat("git-import-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        importExecutor.shutdownNow();
     }
 
     /**
@@ -100,10 +128,8 @@ public class CsarGitService {
             }
         } finally {
             // cleanup
-            Path archiveZipRoot = tempZipDirPath.resolve(csarGitRepository.getId());
             Path archiveGitRoot = tempDirPath.resolve(csarGitRepository.getId());
             try {
-                FileUtil.delete(archiveZipRoot);
                 if (!csarGitRepository.isStoredLocally()) {
                     FileUtil.delete(archiveGitRoot);
                 }
@@ -133,11 +159,13 @@ public class CsarGitService {
 
             log.debug("Importing archives from git repository, pulled hash is {}", hash);
             // now that the repository is checked out and up to date process with the import
-            List<ParsingResult<Csar>> results = processImport(csarGitRepository, csarGitCheckoutLocation, hash);
+            Map<String, String> previousTreeIds = csarGitCheckoutLocation.getImportedArchiveTreeIds();
+            List<ParsingResult<Csar>> results = processImport(git, csarGitRepository, csarGitCheckoutLocation);
 
-            if (!Objects.equals(csarGitCheckoutLocation.getLastImportedHash(), hash)) {
+            if (!Objects.equals(csarGitCheckoutLocation.getLastImportedHash(), hash)
+                    || !Objects.equals(csarGitCheckoutLocation.getImportedArchiveTreeIds(), previousTreeIds)) {
                 csarGitCheckoutLocation.setLastImportedHash(hash);
-                alienDAO.save(csarGitRepository); // update the hash for this location.
+                alienDAO.save(csarGitRepository); // update the hashes for this location.
             }
             // TODO best would be to provide with a better result to show that we didn't retried import
             return results;
@@ -146,47 +174,137 @@ public class CsarGitService {
         }
     }
 
-    private List<ParsingResult<Csar>> processImport(CsarGitRepository csarGitRepository, CsarGitCheckoutLocation csarGitCheckoutLocation, String gitHash) {
-        // find all the archives under the given hierarchy and zip them to create archives
-        Path archiveZipRoot = tempZipDirPath.resolve(csarGitRepository.getId());
-        Path archiveGitRoot = tempDirPath.resolve(csarGitRepository.getId());
+    private List<ParsingResult<Csar>> processImport(Git git, CsarGitRepository csarGitRepository, CsarGitCheckoutLocation csarGitCheckoutLocation) {
+        // find all the archives under the given hierarchy, they are parsed directly from the working tree
+        Path repositoryRoot = tempDirPath.resolve(csarGitRepository.getId());
+        Path archiveGitRoot = repositoryRoot;
         if (csarGitCheckoutLocation.getSubPath() != null && !csarGitCheckoutLocation.getSubPath().isEmpty()) {
             archiveGitRoot = archiveGitRoot.resolve(csarGitCheckoutLocation.getSubPath());
         }
-        Set<Path> archivePaths = csarFinderService.prepare(archiveGitRoot, archiveZipRoot);
+        Set<Path> archivePaths = csarFinderService.prepare(archiveGitRoot);
 
         List<ParsingResult<Csar>> parsingResults = Lists.newArrayList();
+        Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = preParsing(archivePaths, parsingResults);
 
-        Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = uploadService.preParsing(archivePaths, parsingResults);
-        List<CsarDependenciesBean> sorted = sort(csarDependenciesBeans);
-        for (CsarDependenciesBean csarBean : sorted) {
-            String archiveRepoPath = archiveZipRoot.relativize(csarBean.getPath().getParent()).toString();
-            if (csarGitCheckoutLocation.getLastImportedHash() != null && csarGitCheckoutLocation.getLastImportedHash().equals(gitHash)
-                    && csarService.get(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) != null) {
-                // no commit since last import and the archive still exist in the repo, so do not import
-                addAlreadyImportParsingResult(archiveRepoPath, parsingResults);
-                continue;
+        // the git tree id of an archive folder changes if and only if the content of the archive changes.
+        Map<String, String> previousTreeIds = csarGitCheckoutLocation.getImportedArchiveTreeIds() == null ? Maps.newHashMap()
+                : csarGitCheckoutLocation.getImportedArchiveTreeIds();
+        Map<String, String> treeIds = Maps.newHashMap();
+        Set<CsarDependenciesBean> modifiedCsars = Sets.newHashSet();
+        for (CsarDependenciesBean csarBean : csarDependenciesBeans.values()) {
+            String archiveRepoPath = getArchiveRepoPath(archiveGitRoot, csarBean);
+            String treeId = RepositoryManager.getTreeId(git, repositoryRoot.relativize(csarBean.getPath()).toString().replace(File.separatorChar, '/'));
+            treeIds.put(archiveRepoPath, treeId);
+            if (treeId == null || !treeId.equals(previousTreeIds.get(archiveRepoPath))
+                    || csarService.get(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) == null) {
+                modifiedCsars.add(csarBean);
             }
-            try {
-                // FIXME Add possibility to choose an workspace
-                ParsingResult<Csar> result = uploadService.upload(csarBean.getPath(), CSARSource.GIT, AlienConstants.GLOBAL_WORKSPACE_ID);
-                result.getContext().setFileName(archiveRepoPath + "/" + result.getContext().getFileName());
+        }
+
+        List<List<CsarDependenciesBean>> sorted = sort(csarDependenciesBeans);
+        // archives that depends on a modified archive are imported again too, dependents are always in a following level.
+        for (List<CsarDependenciesBean> level : sorted) {
+            for (CsarDependenciesBean csarBean : level) {
+                if (modifiedCsars.contains(csarBean)) {
+                    modifiedCsars.addAll(csarBean.getDependents());
+                }
+            }
+        }
+
+        Map<String, String> importedTreeIds = Maps.newHashMap();
+        for (List<CsarDependenciesBean> level : sorted) {
+            // archives of a level depends only on archives of the previous levels so they are imported in parallel
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            Map<CsarDependenciesBean, Future<ParsingResult<Csar>>> imports = Maps.newLinkedHashMap();
+            for (CsarDependenciesBean csarBean : level) {
+                String archiveRepoPath = getArchiveRepoPath(archiveGitRoot, csarBean);
+                if (modifiedCsars.contains(csarBean)) {
+                    imports.put(csarBean, submit(securityContext, () -> importArchive(archiveRepoPath, csarBean.getPath())));
+                } else {
+                    // the archive has not changed since last import and still exist in the repo, so do not import
+                    addAlreadyImportParsingResult(archiveRepoPath, parsingResults);
+                    importedTreeIds.put(archiveRepoPath, treeIds.get(archiveRepoPath));
+                }
+            }
+            for (Map.Entry<CsarDependenciesBean, Future<ParsingResult<Csar>>> importEntry : imports.entrySet()) {
+                ParsingResult<Csar> result = getResult(importEntry.getValue());
                 parsingResults.add(result);
-            } catch (ParsingException e) {
-                ParsingResult<Csar> failedResult = new ParsingResult<>();
-                failedResult.setContext(new ParsingContext(archiveRepoPath));
-                failedResult.getContext().setParsingErrors(e.getParsingErrors());
-                parsingResults.add(failedResult);
-                log.debug("Failed to import archive from git as it cannot be parsed", e);
-            } catch (AlreadyExistException | ToscaTypeAlreadyDefinedInOtherCSAR | CSARUsedInActiveDeployment e) {
-                ParsingResult<Csar> failedResult = new ParsingResult<>();
-                failedResult.setContext(new ParsingContext(archiveRepoPath));
-                failedResult.getContext().setParsingErrors(Lists.newArrayList(UploadExceptionUtil.parsingErrorFromException(e)));
-                parsingResults.add(failedResult);
+                String archiveRepoPath = getArchiveRepoPath(archiveGitRoot, importEntry.getKey());
+                if (result.getResult() != null && !result.hasError(ParsingErrorLevel.ERROR)) {
+                    // failed archives are not recorded so that they are imported again next time.
+                    importedTreeIds.put(archiveRepoPath, treeIds.get(archiveRepoPath));
+                }
             }
         }
+        csarGitCheckoutLocation.setImportedArchiveTreeIds(importedTreeIds);
         return parsingResults;
+    }
 
+    /**
+     * Parse the imports of the archives in parallel.
+     */
+    private Map<CSARDependency, CsarDependenciesBean> preParsing(Set<Path> archivePaths, List<ParsingResult<Csar>> parsingResults) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        List<Future<Map<CSARDependency, CsarDependenciesBean>>> preParsings = Lists.newArrayList();
+        List<ParsingResult<Csar>> failedResults = Collections.synchronizedList(Lists.newArrayList());
+        for (Path archivePath : archivePaths) {
+            preParsings.add(submit(securityContext, () -> uploadService.preParsing(Collections.singleton(archivePath), failedResults)));
+        }
+        Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = Maps.newHashMap();
+        for (Future<Map<CSARDependency, CsarDependenciesBean>> preParsing : preParsings) {
+            csarDependenciesBeans.putAll(getResult(preParsing));
+        }
+        parsingResults.addAll(failedResults);
+        return csarDependenciesBeans;
+    }
+
+    private ParsingResult<Csar> importArchive(String archiveRepoPath, Path archivePath) {
+        try {
+            // FIXME Add possibility to choose an workspace
+            ParsingResult<Csar> result = uploadService.upload(archivePath, CSARSource.GIT, AlienConstants.GLOBAL_WORKSPACE_ID);
+            result.getContext().setFileName(archiveRepoPath + "/" + result.getContext().getFileName());
+            return result;
+        } catch (ParsingException e) {
+            ParsingResult<Csar> failedResult = new ParsingResult<>();
+            failedResult.setContext(new ParsingContext(archiveRepoPath));
+            failedResult.getContext().setParsingErrors(e.getParsingErrors());
+            log.debug("Failed to import archive from git as it cannot be parsed", e);
+            return failedResult;
+        } catch (AlreadyExistException | ToscaTypeAlreadyDefinedInOtherCSAR | CSARUsedInActiveDeployment e) {
+            ParsingResult<Csar> failedResult = new ParsingResult<>();
+            failedResult.setContext(new ParsingContext(archiveRepoPath));
+            failedResult.getContext().setParsingErrors(Lists.newArrayList(UploadExceptionUtil.parsingErrorFromException(e)));
+            return failedResult;
+        }
+    }
+
+    private String getArchiveRepoPath(Path archiveGitRoot, CsarDependenciesBean csarBean) {
+        return archiveGitRoot.relativize(csarBean.getPath()).toString();
+    }
+
+    /**
+     * Submit a task to the import pool. The task is executed with the security context of the user that triggered the import.
+     */
+    private <T> Future<T> submit(SecurityContext securityContext, Callable<T> task) {
+        return importExecutor.submit(() -> {
+            SecurityContextHolder.setContext(securityContext);
+            try {
+                return task.call();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+    }
+
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
     }
 
     /**
@@ -205,8 +323,11 @@ public class CsarGitService {
         parsingResults.add(result);
     }
 
-    private List<CsarDependenciesBean> sort(Map<CSARDependency, CsarDependenciesBean> elements) {
-        List<CsarDependenciesBean> sortedCsars = Lists.newArrayList();
+    /**
+     * Sort the archives by dependency levels: archives of a level only depends on archives of the previous levels.
+     */
+    private List<List<CsarDependenciesBean>> sort(Map<CSARDependency, CsarDependenciesBean> elements) {
+        List<List<CsarDependenciesBean>> sortedCsars = Lists.newArrayList();
 
         List<CsarDependenciesBean> independents = Lists.newArrayList();
         for (Map.Entry<CSARDependency, CsarDependenciesBean> entry : elements.entrySet()) {
@@ -236,15 +357,18 @@ public class CsarGitService {
         }
 
         while (!independents.isEmpty()) {
-            CsarDependenciesBean independent = independents.remove(0);
-            elements.remove(independent.getSelf()); // remove from the elements
-            sortedCsars.add(independent); // element has no more dependencies
-            for (CsarDependenciesBean dependent : independent.getDependents()) {
-                dependent.getDependencies().remove(independent.getSelf());
-                if (dependent.getDependencies().isEmpty()) {
-                    independents.add(dependent);
+            sortedCsars.add(independents); // elements of the level have no more dependencies
+            List<CsarDependenciesBean> nextIndependents = Lists.newArrayList();
+            for (CsarDependenciesBean independent : independents) {
+                elements.remove(independent.getSelf()); // remove from the elements
+                for (CsarDependenciesBean dependent : independent.getDependents()) {
+                    dependent.getDependencies().remove(independent.getSelf());
+                    if (dependent.getDependencies().isEmpty()) {
+                        nextIndependents.add(dependent);
+                    }
                 }
             }
+            independents = nextIndependents;
         }
 
         if (elements.size() > 0) {
@@ -253,4 +377,4 @@ public class CsarGitService {
 
         return sortedCsars;
     }
-}
\ No newline at end of file
+}
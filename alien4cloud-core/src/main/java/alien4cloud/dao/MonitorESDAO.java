@@ -2,25 +2,64 @@ package alien4cloud.dao;
 
 import java.beans.IntrospectionException;
 import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.PostConstruct;
 
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.indices.IndexAlreadyExistsException;
+import org.elasticsearch.indices.IndexMissingException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.model.deployment.DeploymentTopology;
 import alien4cloud.paas.model.*;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Elastic Search DAO for Monitor events in Alien application.
  *
+ * Monitor events and deployment logs are written in time based partitions (daily or weekly indices) that are all searched through an alias. Retention is
+ * enforced by deleting the partitions older than the events lifetime and date range searches only target the partitions that overlap the range.
+ *
  * @author luc boutier
  */
+@Slf4j
 @Component("alien-monitor-es-dao")
 public class MonitorESDAO extends ESGenericSearchDAO {
+    private static final String EVENTS_INDEX = "deploymentmonitorevents";
+    private static final String LOGS_INDEX = PaaSDeploymentLog.class.getSimpleName().toLowerCase();
+    private static final String ALIAS_SUFFIX = "-all";
+    private static final DateTimeFormatter PARTITION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    /** Above this number of partitions a date range search targets the alias rather than every partition. */
+    private static final int MAX_SEARCHED_PARTITIONS = 64;
+
     @Value("${paas_monitor.events_lifetime}")
     private String eventMonitoringTtl;
+    @Value("${paas_monitor.events_partition_period:daily}")
+    private String partitionPeriod;
+
+    /** Map of alias name to the base name of the partitions it covers. */
+    private final Map<String, String> partitionedAliases = Maps.newHashMap();
+    /** Base names of the partitioned indices that also have a not partitioned index (created before partitioning). */
+    private final Set<String> legacyIndices = Sets.newHashSet();
+    private int partitionDays;
 
     /** Initialize the dao after being loaded by spring (Create the indexes). */
     @PostConstruct
@@ -33,6 +72,7 @@ public class MonitorESDAO extends ESGenericSearchDAO {
         }
         // init indices and mapped classes
         setJsonMapper(ElasticSearchMapper.getInstance());
+        partitionDays = "weekly".equalsIgnoreCase(partitionPeriod) ? 7 : 1;
 
         Class<?>[] classes = new Class<?>[] { AbstractMonitorEvent.class, PaaSDeploymentStatusMonitorEvent.class, PaaSInstanceStateMonitorEvent.class,
                 PaaSMessageMonitorEvent.class, PaaSInstancePersistentResourceMonitorEvent.class, PaaSWorkflowStepMonitorEvent.class,
@@ -41,8 +81,114 @@ public class MonitorESDAO extends ESGenericSearchDAO {
                 WorkflowStepCompletedEvent.class
         };
         initIndices("deployedtopologies", null, DeploymentTopology.class);
-        initIndices("deploymentmonitorevents", eventMonitoringTtl, classes);
-        initIndices(PaaSDeploymentLog.class.getSimpleName().toLowerCase(), eventMonitoringTtl, PaaSDeploymentLog.class);
+        initPartitionedIndices(EVENTS_INDEX, classes);
+        initPartitionedIndices(LOGS_INDEX, PaaSDeploymentLog.class);
         initCompleted();
     }
-}
\ No newline at end of file
+
+    private void initPartitionedIndices(String baseName, Class<?>... classes) {
+        String aliasName = baseName + ALIAS_SUFFIX;
+        initIndexTemplate(baseName, baseName + "-*", aliasName, classes);
+        partitionedAliases.put(aliasName, baseName);
+        if (indexExist(baseName)) {
+            // documents of the index created before partitioning expire through their ttl, keep searching them through the alias.
+            legacyIndices.add(baseName);
+            getClient().admin().indices().prepareAliases().addAlias(baseName, aliasName).execute().actionGet();
+        }
+        // create the current partition so that the alias exists before the first write.
+        String currentPartition = getPartitionName(baseName, getPartitionStart(System.currentTimeMillis()));
+        if (!indexExist(currentPartition)) {
+            try {
+                getClient().admin().indices().prepareCreate(currentPartition).execute().actionGet();
+            } catch (IndexAlreadyExistsException e) {
+                log.debug("Partition <{}> has been created elsewhere", currentPartition);
+            }
+        }
+    }
+
+    private LocalDate getPartitionStart(long timestamp) {
+        LocalDate date = Instant.ofEpochMilli(timestamp).atZone(ZoneOffset.UTC).toLocalDate();
+        return partitionDays == 7 ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : date;
+    }
+
+    private String getPartitionName(String baseName, LocalDate partitionStart) {
+        return baseName + "-" + PARTITION_DATE_FORMAT.format(partitionStart);
+    }
+
+    private long getDate(Object data) {
+        if (data instanceof AbstractMonitorEvent && ((AbstractMonitorEvent) data).getDate() > 0) {
+            return ((AbstractMonitorEvent) data).getDate();
+        }
+        if (data instanceof PaaSDeploymentLog && ((PaaSDeploymentLog) data).getTimestamp() != null) {
+            return ((PaaSDeploymentLog) data).getTimestamp().getTime();
+        }
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public String getIndexForData(Object data) {
+        String index = getIndexForType(data.getClass());
+        String baseName = partitionedAliases.get(index);
+        if (baseName == null) {
+            return index;
+        }
+        return getPartitionName(baseName, getPartitionStart(getDate(data)));
+    }
+
+    @Override
+    public String[] getIndicesForType(Class<?> clazz, Date fromDate, Date toDate) {
+        String index = getIndexForType(clazz);
+        String baseName = partitionedAliases.get(index);
+        if (baseName == null || fromDate == null) {
+            return new String[] { index };
+        }
+        List<String> indices = Lists.newArrayList();
+        if (legacyIndices.contains(baseName)) {
+            indices.add(baseName);
+        }
+        LocalDate end = getPartitionStart(toDate == null ? System.currentTimeMillis() : toDate.getTime());
+        for (LocalDate partitionStart = getPartitionStart(fromDate.getTime()); !partitionStart.isAfter(end); partitionStart = partitionStart
+                .plusDays(partitionDays)) {
+            if (indices.size() == MAX_SEARCHED_PARTITIONS) {
+                return new String[] { index };
+            }
+            indices.add(getPartitionName(baseName, partitionStart));
+        }
+        if (indices.isEmpty()) {
+            return new String[] { index };
+        }
+        return indices.toArray(new String[indices.size()]);
+    }
+
+    /**
+     * Delete the partitions that only contain events older than the events lifetime.
+     */
+    @Scheduled(fixedDelayString = "${paas_monitor.events_partitions_cleanup_interval_ms:3600000}", initialDelay = 60000)
+    public void deleteExpiredPartitions() {
+        long expirationDate = System.currentTimeMillis() - TimeValue.parseTimeValue(eventMonitoringTtl, null).millis();
+        String[] indices = getClient().admin().cluster().prepareState().clear().setMetaData(true).execute().actionGet().getState().getMetaData()
+                .concreteAllIndices();
+        for (String index : indices) {
+            for (String baseName : partitionedAliases.values()) {
+                if (!index.startsWith(baseName + "-")) {
+                    continue;
+                }
+                LocalDate partitionStart;
+                try {
+                    partitionStart = LocalDate.parse(index.substring(baseName.length() + 1), PARTITION_DATE_FORMAT);
+                } catch (DateTimeParseException e) {
+                    continue; // not a partition
+                }
+                long partitionEnd = partitionStart.plusDays(partitionDays).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+                if (partitionEnd < expirationDate) {
+                    log.info("Deleting expired monitoring partition <{}>", index);
+                    try {
+                        getClient().admin().indices().prepareDelete(index).execute().actionGet();
+                    } catch (IndexMissingException e) {
+                        log.debug("Partition <{}> has been deleted elsewhere", index);
+                    }
+                }
+            }
+        }
+    }
+}
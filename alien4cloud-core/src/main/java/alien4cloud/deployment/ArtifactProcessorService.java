@@ -3,15 +3,23 @@ package alien4cloud.deployment;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
 import org.alien4cloud.tosca.catalog.repository.CsarFileRepository;
@@ -19,10 +27,13 @@ import org.alien4cloud.tosca.editor.EditorRepositoryService;
 import org.alien4cloud.tosca.model.definitions.AbstractArtifact;
 import org.alien4cloud.tosca.model.definitions.DeploymentArtifact;
 import org.alien4cloud.tosca.model.definitions.Interface;
-import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import alien4cloud.component.repository.ArtifactRepositoryConstants;
 import alien4cloud.component.repository.IFileRepository;
 import alien4cloud.deployment.exceptions.UnresolvableArtifactException;
@@ -31,11 +42,12 @@ import alien4cloud.paas.model.PaaSNodeTemplate;
 import alien4cloud.paas.model.PaaSRelationshipTemplate;
 import alien4cloud.paas.model.PaaSTopologyDeploymentContext;
 import alien4cloud.repository.services.RepositoryService;
-import alien4cloud.utils.FileUtil;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Download all artifacts before deployment
+ *
+ * Artifacts are resolved in parallel, artifacts downloaded from an URL are kept in a cache and only downloaded again when modified.
  */
 @Slf4j
 @Component
@@ -53,7 +65,24 @@ public class ArtifactProcessorService {
     @Resource
     private IFileRepository artifactRepository;
 
-    private Path tempDir;
+    @Resource
+    private RemoteArtifactCache remoteArtifactCache;
+
+    @Value("${deployment.artifacts.resolution_threadpool_size:4}")
+    private int resolutionThreadPoolSize;
+
+    private ExecutorService resolutionExecutor;
+
+    @PostConstruct
+    public void init() {
+        resolutionExecutor = Executors.newFixedThreadPool(resolutionThreadPoolSize,
+                new ThreadFactoryBuilder().setNameFormat("artifact-resolution-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        resolutionExecutor.shutdownNow();
+    }
 
     private String resolveArtifact(AbstractArtifact artifact) {
         return repositoryService.resolveArtifact(artifact.getArtifactRef(), artifact.getRepositoryURL(), artifact.getArtifactRepository(),
@@ -99,11 +128,9 @@ public class ArtifactProcessorService {
         String artifactPath = resolveArtifact(artifact);
         if (artifactPath == null) {
             if (artifactURL != null) {
-                try (InputStream artifactStream = artifactURL.openStream()) {
+                try {
                     // In a best effort try in a generic manner to obtain the artifact
-                    Path tempPath = Files.createTempFile(tempDir, "url-artifact", FilenameUtils.getExtension(artifact.getArtifactRef()));
-                    artifactPath = tempPath.toString();
-                    Files.copy(artifactStream, tempPath, StandardCopyOption.REPLACE_EXISTING);
+                    artifactPath = remoteArtifactCache.get(artifactURL).toString();
                 } catch (IOException e) {
                     throw new UnresolvableArtifactException("Artifact could not be found " + artifact, e);
                 }
@@ -117,23 +144,23 @@ public class ArtifactProcessorService {
         artifact.setArtifactPath(artifactPath);
     }
 
-    private void processInterfaces(Map<String, Interface> interfaceMap) {
+    private void collectInterfacesArtifacts(Map<String, Interface> interfaceMap, Set<AbstractArtifact> artifacts) {
         if (interfaceMap != null) {
             interfaceMap.values().stream().filter(interfazz -> interfazz.getOperations() != null).forEach(interfazz -> interfazz.getOperations().values()
                     .stream().filter(operation -> operation.getImplementationArtifact() != null).forEach(operation -> {
-                        processArtifact(operation.getImplementationArtifact());
-                        safe(operation.getDependencies()).forEach(this::processArtifact);
+                        artifacts.add(operation.getImplementationArtifact());
+                        artifacts.addAll(safe(operation.getDependencies()));
                     }));
         }
     }
 
-    private void processImplementationArtifacts(PaaSTopologyDeploymentContext deploymentContext) {
+    private void collectImplementationArtifacts(PaaSTopologyDeploymentContext deploymentContext, Set<AbstractArtifact> artifacts) {
         if (deploymentContext.getPaaSTopology().getAllNodes() != null) {
             for (PaaSNodeTemplate paaSNodeTemplate : deploymentContext.getPaaSTopology().getAllNodes().values()) {
-                processInterfaces(paaSNodeTemplate.getInterfaces());
+                collectInterfacesArtifacts(paaSNodeTemplate.getInterfaces(), artifacts);
                 if (paaSNodeTemplate.getRelationshipTemplates() != null) {
                     for (PaaSRelationshipTemplate relationshipTemplate : paaSNodeTemplate.getRelationshipTemplates()) {
-                        processInterfaces(relationshipTemplate.getInterfaces());
+                        collectInterfacesArtifacts(relationshipTemplate.getInterfaces(), artifacts);
                     }
                 }
             }
@@ -153,11 +180,8 @@ public class ArtifactProcessorService {
         return ArtifactRepositoryConstants.ALIEN_TOPOLOGY_REPOSITORY.equals(artifact.getArtifactRepository());
     }
 
-    private void processDeploymentArtifacts(PaaSTopologyDeploymentContext deploymentContext) {
+    private void processEditorArtifacts(PaaSTopologyDeploymentContext deploymentContext) {
         if (deploymentContext.getDeploymentTopology().getNodeTemplates() != null) {
-            // Artifact which comes from the archive or from internal repository
-            getDeploymentArtifactStream(deploymentContext).filter(deploymentArtifact -> !isArtifactFromTopologyEditor(deploymentArtifact))
-                    .forEach(this::processArtifact);
             // Artifact which does not come from the archive, which comes from topology's edition
             getDeploymentArtifactStream(deploymentContext).filter(this::isArtifactFromTopologyEditor).forEach(deploymentArtifact -> {
                 Path artifactPath = editorRepositoryService.resolveArtifact(deploymentContext.getDeploymentTopology().getInitialTopologyId(),
@@ -168,12 +192,33 @@ public class ArtifactProcessorService {
     }
 
     public void processArtifacts(PaaSTopologyDeploymentContext deploymentContext) {
-        processImplementationArtifacts(deploymentContext);
-        processDeploymentArtifacts(deploymentContext);
+        // the same artifact instance may be referenced from multiple operations, resolve it only once.
+        Set<AbstractArtifact> artifacts = Sets.newSetFromMap(new IdentityHashMap<>());
+        collectImplementationArtifacts(deploymentContext, artifacts);
+        if (deploymentContext.getDeploymentTopology().getNodeTemplates() != null) {
+            // Artifact which comes from the archive or from internal repository
+            getDeploymentArtifactStream(deploymentContext).filter(deploymentArtifact -> !isArtifactFromTopologyEditor(deploymentArtifact))
+                    .forEach(artifacts::add);
+        }
+        List<Future<?>> resolutions = artifacts.stream().map(artifact -> resolutionExecutor.submit(() -> processArtifact(artifact)))
+                .collect(Collectors.toList());
+        try {
+            resolutions.forEach(this::getResult);
+        } finally {
+            // do not keep downloading artifacts of a deployment that will fail anyway.
+            resolutions.forEach(resolution -> resolution.cancel(true));
+        }
+        processEditorArtifacts(deploymentContext);
     }
 
-    @Value("${directories.alien}/${directories.upload_temp}")
-    public void setTempDir(String tempDir) throws IOException {
-        this.tempDir = FileUtil.createDirectoryIfNotExists(tempDir);
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
     }
 }
@@ -295,6 +295,7 @@ public class DeployService {
         deploymentTopology.setDeployed(true);
 
         alienMonitorDao.save(deploymentTopology);
+        deploymentContextService.evictRuntimePaaSTopology(deployment.getId());
         // put back the old Id for deployment
         deploymentTopology.setId(deploymentTopologyId);
         SecretProviderConfigurationAndCredentials secretProviderConfigurationAndCredentials = null;
@@ -4,31 +4,131 @@ import alien4cloud.deployment.model.SecretProviderConfigurationAndCredentials;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.model.deployment.DeploymentTopology;
 import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.paas.function.PaaSTopologyAttributesEvaluator;
 import alien4cloud.paas.model.PaaSTopology;
 import alien4cloud.paas.model.PaaSTopologyDeploymentContext;
 import alien4cloud.paas.plan.TopologyTreeBuilderService;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility to build the deployment context.
  */
+@Slf4j
 @Service
 public class DeploymentContextService {
     @Inject
     private TopologyTreeBuilderService topologyTreeBuilderService;
+    @Inject
+    @Lazy
+    private InstancesInformationCacheService instancesInformationCacheService;
+
+    @Value("${paas_topology_cache.max_size:100}")
+    private int paaSTopologyCacheMaxSize;
+    @Value("${paas_topology_cache.expire_after_access_minutes:60}")
+    private int paaSTopologyCacheExpireAfterAccess;
+
+    /** Cache of the PaaS topologies built from deployed topologies, key is the deployed topology id and version. */
+    private Cache<String, PaaSTopology> paaSTopologyCache;
+    /** Cache of the compiled attributes evaluation plans of deployed topologies, key is the deployed topology id and version. */
+    private Cache<String, PaaSTopologyAttributesEvaluator> attributesEvaluatorCache;
+
+    @PostConstruct
+    public void init() {
+        paaSTopologyCache = CacheBuilder.newBuilder().maximumSize(paaSTopologyCacheMaxSize)
+                .expireAfterAccess(paaSTopologyCacheExpireAfterAccess, TimeUnit.MINUTES).build();
+        attributesEvaluatorCache = CacheBuilder.newBuilder().maximumSize(paaSTopologyCacheMaxSize)
+                .expireAfterAccess(paaSTopologyCacheExpireAfterAccess, TimeUnit.MINUTES).build();
+    }
 
     /**
      * Build a topology deployment context from a given topology and deployment.
      *
+     * The PaaS topology is always built from the given topology so callers can alter it (artifacts processing, services injection etc.).
+     *
      * @param deployment The deployment object.
      * @param topology The topology that will be processed.
      * @return A PaaSTopologyDeploymentContext matching the input topology.
      */
     public PaaSTopologyDeploymentContext buildTopologyDeploymentContext(SecretProviderConfigurationAndCredentials secretProviderConfigurationAndCredentials, Deployment deployment, Map<String, Location> locations, DeploymentTopology topology) {
         PaaSTopology paaSTopology = topologyTreeBuilderService.buildPaaSTopology(topology);
+        return buildTopologyDeploymentContext(secretProviderConfigurationAndCredentials, deployment, locations, topology, paaSTopology);
+    }
+
+    /**
+     * Build a topology deployment context from a deployed (runtime) topology.
+     *
+     * The PaaS topology is cached per deployed topology version and shared between all contexts built for this version so it must not be modified.
+     *
+     * @param deployment The deployment object.
+     * @param runtimeTopology The deployed topology as saved in the monitor index.
+     * @return A PaaSTopologyDeploymentContext matching the deployed topology.
+     */
+    public PaaSTopologyDeploymentContext buildRuntimeTopologyDeploymentContext(SecretProviderConfigurationAndCredentials secretProviderConfigurationAndCredentials,
+            Deployment deployment, Map<String, Location> locations, DeploymentTopology runtimeTopology) {
+        return buildTopologyDeploymentContext(secretProviderConfigurationAndCredentials, deployment, locations, runtimeTopology,
+                getRuntimePaaSTopology(runtimeTopology));
+    }
+
+    /**
+     * Evict the cached PaaS topologies and instances information of a deployment. This must be called every time the deployed topology is updated.
+     *
+     * @param deploymentId The id of the deployment (that is also the id of the deployed topology).
+     */
+    public void evictRuntimePaaSTopology(String deploymentId) {
+        String keyPrefix = deploymentId + ":";
+        paaSTopologyCache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+        attributesEvaluatorCache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+        instancesInformationCacheService.evict(deploymentId);
+    }
+
+    /**
+     * Get the compiled evaluation plans of the node attributes of a deployed topology. Plans are compiled once per deployed topology version.
+     *
+     * @param runtimeTopology The deployed topology as saved in the monitor index.
+     * @return The attributes evaluator for the deployed topology.
+     */
+    public PaaSTopologyAttributesEvaluator getRuntimeAttributesEvaluator(DeploymentTopology runtimeTopology) {
+        try {
+            return attributesEvaluatorCache.get(getRuntimeCacheKey(runtimeTopology),
+                    () -> new PaaSTopologyAttributesEvaluator(runtimeTopology, getRuntimePaaSTopology(runtimeTopology)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private String getRuntimeCacheKey(DeploymentTopology runtimeTopology) {
+        Date updateDate = runtimeTopology.getLastDeploymentTopologyUpdateDate();
+        return runtimeTopology.getId() + ":" + (updateDate == null ? 0 : updateDate.getTime());
+    }
+
+    private PaaSTopology getRuntimePaaSTopology(DeploymentTopology runtimeTopology) {
+        String key = getRuntimeCacheKey(runtimeTopology);
+        try {
+            return paaSTopologyCache.get(key, () -> {
+                log.debug("Building PaaS topology for deployed topology <{}>", key);
+                return topologyTreeBuilderService.buildPaaSTopology(runtimeTopology);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private PaaSTopologyDeploymentContext buildTopologyDeploymentContext(SecretProviderConfigurationAndCredentials secretProviderConfigurationAndCredentials,
+            Deployment deployment, Map<String, Location> locations, DeploymentTopology topology, PaaSTopology paaSTopology) {
         PaaSTopologyDeploymentContext topologyDeploymentContext = new PaaSTopologyDeploymentContext();
         topologyDeploymentContext.setLocations(locations);
         topologyDeploymentContext.setDeployment(deployment);
@@ -38,4 +138,4 @@ public class DeploymentContextService {
         topologyDeploymentContext.setSecretProviderConfigurationAndCredentials(secretProviderConfigurationAndCredentials);
         return topologyDeploymentContext;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package alien4cloud.deployment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.deployment.model.DeploymentLogTail;
+import alien4cloud.paas.model.PaaSDeploymentLog;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the last logs of active deployments in memory so they can be followed live without querying elasticsearch.
+ */
+@Slf4j
+@Service
+public class DeploymentLogTailService {
+    @Value("${logs_deployment_tail.buffer_size:500}")
+    private int bufferSize;
+    @Value("${logs_deployment_tail.max_deployments:200}")
+    private int maxDeployments;
+    @Value("${logs_deployment_tail.expire_after_access_minutes:60}")
+    private int expireAfterAccess;
+
+    private Cache<String, LogRingBuffer> buffers;
+    private final List<IDeploymentLogTailListener> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        buffers = CacheBuilder.newBuilder().maximumSize(maxDeployments).expireAfterAccess(expireAfterAccess, TimeUnit.MINUTES).build();
+    }
+
+    /**
+     * Fixed size buffer of the last logs of a deployment.
+     */
+    private class LogRingBuffer {
+        private final PaaSDeploymentLog[] entries = new PaaSDeploymentLog[bufferSize];
+        /** Number of logs appended to the buffer, also the sequence of the last log. */
+        private long sequence = 0;
+
+        private synchronized DeploymentLogTail append(List<PaaSDeploymentLog> logs) {
+            for (PaaSDeploymentLog deploymentLog : logs) {
+                entries[(int) (sequence % entries.length)] = deploymentLog;
+                sequence++;
+            }
+            return new DeploymentLogTail(sequence, logs);
+        }
+
+        private synchronized DeploymentLogTail snapshot() {
+            int count = (int) Math.min(sequence, entries.length);
+            List<PaaSDeploymentLog> logs = Lists.newArrayListWithCapacity(count);
+            for (long i = sequence - count; i < sequence; i++) {
+                logs.add(entries[(int) (i % entries.length)]);
+            }
+            return new DeploymentLogTail(sequence, logs);
+        }
+    }
+
+    /**
+     * Register a listener to be notified of new logs.
+     *
+     * @param listener The listener to register.
+     */
+    public void addListener(IDeploymentLogTailListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Append logs to the tail of their deployments and notify the listeners.
+     *
+     * @param deploymentLogs The new logs (may concern multiple deployments).
+     */
+    public void append(List<PaaSDeploymentLog> deploymentLogs) {
+        Map<String, List<PaaSDeploymentLog>> logsByDeployment = Maps.newLinkedHashMap();
+        for (PaaSDeploymentLog deploymentLog : deploymentLogs) {
+            if (deploymentLog.getDeploymentId() != null) {
+                logsByDeployment.computeIfAbsent(deploymentLog.getDeploymentId(), key -> Lists.newArrayList()).add(deploymentLog);
+            }
+        }
+        for (Map.Entry<String, List<PaaSDeploymentLog>> deploymentLogsEntry : logsByDeployment.entrySet()) {
+            DeploymentLogTail newLogs = getBuffer(deploymentLogsEntry.getKey()).append(deploymentLogsEntry.getValue());
+            for (IDeploymentLogTailListener listener : listeners) {
+                try {
+                    listener.logsAppended(deploymentLogsEntry.getKey(), newLogs);
+                } catch (RuntimeException e) {
+                    log.error("Failed to notify logs tail listener {}", listener, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the last logs of a deployment.
+     *
+     * @param deploymentId The id of the deployment.
+     * @return The last logs known for the deployment (at most the configured buffer size).
+     */
+    public DeploymentLogTail getTail(String deploymentId) {
+        LogRingBuffer buffer = buffers.getIfPresent(deploymentId);
+        return buffer == null ? new DeploymentLogTail(0, Lists.newArrayList()) : buffer.snapshot();
+    }
+
+    private LogRingBuffer getBuffer(String deploymentId) {
+        try {
+            return buffers.get(deploymentId, LogRingBuffer::new);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+}
@@ -1,6 +1,17 @@
 package alien4cloud.deployment;
 
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import javax.inject.Inject;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,22 +20,62 @@ import org.springframework.stereotype.Service;
 
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.paas.model.PaaSDeploymentLog;
-import groovy.util.logging.Log4j;
+import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service is used by some premium plugins for archive the deployments logs.
+ *
+ * Logs are queued without locking and then written (to the log file if enabled and to elasticsearch as bulk requests) by a single writer thread so that
+ * producers never wait for each other nor for elasticsearch. When the queue is full new logs are dropped and counted, as well as the logs that cannot be
+ * indexed after a retry.
  */
-@Log4j
+@Slf4j
 @Service
 public class DeploymentLoggingService {
     @Resource(name = "alien-monitor-es-dao")
     private IGenericSearchDAO alienMonitorDao;
+    @Inject
+    private DeploymentLogTailService deploymentLogTailService;
 
     @Value("${logs_deployment_appender.enable}")
     private boolean isEnabled;
+    @Value("${logs_deployment_appender.queue_capacity:100000}")
+    private int queueCapacity;
+    @Value("${logs_deployment_appender.bulk_size:500}")
+    private int bulkSize;
+    @Value("${logs_deployment_appender.flush_interval_ms:200}")
+    private long flushIntervalMs;
 
     private final Logger deployments_logger = LogManager.getLogger("DEPLOYMENT_LOGS_LOGGER");
 
+    private final Queue<PaaSDeploymentLog> queue = new ConcurrentLinkedQueue<>();
+    /** Size of the queue, maintained apart as the size of a concurrent linked queue is not a constant time operation. */
+    private final AtomicInteger queueSize = new AtomicInteger();
+    /** Total number of logs dropped because the queue was full or because they could not be indexed. */
+    private final AtomicLong droppedLogsCount = new AtomicLong();
+    /** Number of logs dropped since the last warning. */
+    private final AtomicLong unreportedDroppedLogsCount = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @PostConstruct
+    public void init() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "deployment-logs-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        // the writer drains the queue before exiting
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
     private void logToFile(PaaSDeploymentLog deploymentLog) {
         switch (deploymentLog.getLevel()) {
             case DEBUG:
@@ -42,26 +93,93 @@ public class DeploymentLoggingService {
         }
     }
 
-    public synchronized void save(final PaaSDeploymentLog deploymentLog) {
-        try {
-            if (isEnabled) {
-                logToFile(deploymentLog);
+    public void save(final PaaSDeploymentLog deploymentLog) {
+        if (offer(deploymentLog)) {
+            deploymentLogTailService.append(Lists.newArrayList(deploymentLog));
+        }
+    }
+
+    public void save(final PaaSDeploymentLog[] deploymentLogs) {
+        List<PaaSDeploymentLog> accepted = Lists.newArrayListWithCapacity(deploymentLogs.length);
+        for (PaaSDeploymentLog deploymentLog : deploymentLogs) {
+            if (offer(deploymentLog)) {
+                accepted.add(deploymentLog);
+            }
+        }
+        deploymentLogTailService.append(accepted);
+    }
+
+    /**
+     * Get the number of logs dropped since startup because the logs were produced faster than they could be written or because they could not be indexed.
+     *
+     * @return The number of dropped logs.
+     */
+    public long getDroppedLogsCount() {
+        return droppedLogsCount.get();
+    }
+
+    private boolean offer(PaaSDeploymentLog deploymentLog) {
+        int size = queueSize.incrementAndGet();
+        if (size > queueCapacity) {
+            queueSize.decrementAndGet();
+            droppedLogsCount.incrementAndGet();
+            unreportedDroppedLogsCount.incrementAndGet();
+            return false;
+        }
+        queue.offer(deploymentLog);
+        if (size == bulkSize) {
+            // a full bulk is available, no need to wait for the end of the flush interval.
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    private void writeLoop() {
+        List<PaaSDeploymentLog> batch = Lists.newArrayListWithCapacity(bulkSize);
+        while (running || !queue.isEmpty()) {
+            PaaSDeploymentLog deploymentLog;
+            while (batch.size() < bulkSize && (deploymentLog = queue.poll()) != null) {
+                batch.add(deploymentLog);
+            }
+            reportDroppedLogs();
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
             }
-        } finally {
-            alienMonitorDao.save(deploymentLog);
+            queueSize.addAndGet(-batch.size());
+            write(batch);
+            batch.clear();
         }
     }
 
-    public synchronized void save(final PaaSDeploymentLog[] deploymentLogs) {
+    private void write(List<PaaSDeploymentLog> batch) {
         try {
             if (isEnabled) {
-                for (PaaSDeploymentLog deploymentLog : deploymentLogs) {
+                for (PaaSDeploymentLog deploymentLog : batch) {
                     logToFile(deploymentLog);
                 }
             }
-        } finally {
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} deployment logs to file", batch.size(), e);
+        }
+        PaaSDeploymentLog[] deploymentLogs = batch.toArray(new PaaSDeploymentLog[batch.size()]);
+        try {
             alienMonitorDao.save(deploymentLogs);
+        } catch (RuntimeException e) {
+            log.warn("Failed to index {} deployment logs, retrying", batch.size(), e);
+            try {
+                alienMonitorDao.save(deploymentLogs);
+            } catch (RuntimeException retryException) {
+                long dropped = droppedLogsCount.addAndGet(batch.size());
+                log.error("Failed to index {} deployment logs, logs are dropped ({} logs dropped since startup)", batch.size(), dropped, retryException);
+            }
         }
     }
 
-}
\ No newline at end of file
+    private void reportDroppedLogs() {
+        long dropped = unreportedDroppedLogsCount.getAndSet(0);
+        if (dropped > 0) {
+            log.warn("{} deployment logs have been dropped as the logs queue is full ({} logs dropped since startup)", dropped, droppedLogsCount.get());
+        }
+    }
+}
@@ -72,7 +72,7 @@ public class DeploymentRuntimeService {
         Map<String, Location> locations = deploymentTopologyService.getLocations(locationIds);
         SecretProviderConfigurationAndCredentials secretProviderConfigurationAndCredentials = secretProviderService.generateToken(locations,
                 request.getSecretProviderPluginName(), request.getSecretProviderCredentials());
-        return deploymentContextService.buildTopologyDeploymentContext(secretProviderConfigurationAndCredentials, deployment,
+        return deploymentContextService.buildRuntimeTopologyDeploymentContext(secretProviderConfigurationAndCredentials, deployment,
                 deploymentTopologyService.getLocations(deploymentTopology), deploymentTopology);
     }
 
@@ -185,12 +185,13 @@ public class DeploymentRuntimeService {
         log.info("Scaling [ {} ] node from [ {} ] to [ {} ]. Updating runtime topology...", nodeTemplateId, currentInstances, expectedInstances);
         TopologyUtils.setScalingProperty(NormativeComputeConstants.SCALABLE_DEFAULT_INSTANCES, expectedInstances, clusterControllerCapability);
         alienMonitorDao.save(topology);
+        deploymentContextService.evictRuntimePaaSTopology(topology.getId());
 
         scaleOperationRequest.setParameters(Maps.newHashMap());
         scaleOperationRequest.getParameters().put(AlienInterfaceTypes.CLUSTER_CONTROL_OP_SCALE_PARAMS_INSTANCES_DELTA, String.valueOf(instances));
         scaleOperationRequest.getParameters().put(AlienInterfaceTypes.CLUSTER_CONTROL_OP_SCALE_PARAMS_EXPECTED_INSTANCES, String.valueOf(expectedInstances));
 
-        orchestratorPlugin.executeOperation(deploymentContextService.buildTopologyDeploymentContext(secretProviderConfigurationAndCredentials, deployment,
+        orchestratorPlugin.executeOperation(deploymentContextService.buildRuntimeTopologyDeploymentContext(secretProviderConfigurationAndCredentials, deployment,
                 deploymentTopologyService.getLocations(topology), topology), scaleOperationRequest, new IPaaSCallback<Map<String, String>>() {
                     @Override
                     public void onSuccess(Map<String, String> data) {
@@ -203,6 +204,7 @@ public class DeploymentRuntimeService {
                                 expectedInstances, currentInstances);
                         TopologyUtils.setScalingProperty(NormativeComputeConstants.SCALABLE_DEFAULT_INSTANCES, currentInstances, clusterControllerCapability);
                         alienMonitorDao.save(topology);
+                        deploymentContextService.evictRuntimePaaSTopology(topology.getId());
                         callback.onFailure(throwable);
                     }
                 });
@@ -216,6 +218,7 @@ public class DeploymentRuntimeService {
         log.info("Scaling [ {} ] node from [ {} ] to [ {} ]. Updating runtime topology...", nodeTemplateId, previousInitialInstances, newInitialInstances);
         TopologyUtils.setScalingProperty(NormativeComputeConstants.SCALABLE_DEFAULT_INSTANCES, newInitialInstances, capability);
         alienMonitorDao.save(topology);
+        deploymentContextService.evictRuntimePaaSTopology(topology.getId());
 
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
         PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, topology, secretProviderConfigurationAndCredentials);
@@ -226,6 +229,7 @@ public class DeploymentRuntimeService {
                         newInitialInstances, previousInitialInstances);
                 TopologyUtils.setScalingProperty(NormativeComputeConstants.SCALABLE_DEFAULT_INSTANCES, previousInitialInstances, capability);
                 alienMonitorDao.save(topology);
+                deploymentContextService.evictRuntimePaaSTopology(topology.getId());
                 callback.onFailure(throwable);
             }
 
@@ -2,6 +2,7 @@ package alien4cloud.deployment;
 
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.deployment.model.InstancesInformationSnapshot;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.model.deployment.DeploymentTopology;
 import alien4cloud.orchestrators.plugin.IOrchestratorPlugin;
@@ -34,9 +35,7 @@ public class DeploymentRuntimeStateService {
     @Inject
     private OrchestratorPluginService orchestratorPluginService;
     @Inject
-    private DeploymentContextService deploymentContextService;
-    @Inject
-    private DeploymentTopologyService deploymentTopologyService;
+    private InstancesInformationCacheService instancesInformationCacheService;
     @Inject
     private DeploymentLockService deploymentLockService;
 
@@ -139,16 +138,35 @@ public class DeploymentRuntimeStateService {
      */
     public void getInstancesInformation(final Deployment deployment, IPaaSCallback<Map<String, Map<String, InstanceInformation>>> callback)
             throws OrchestratorDisabledException {
-        Map<String, Map<String, InstanceInformation>> instancesInformation = Maps.newHashMap();
         if (deployment == null) {
-            callback.onSuccess(instancesInformation);
+            callback.onSuccess(Maps.newHashMap());
             return;
         }
-        DeploymentTopology runtimeTopology = alienMonitorDao.findById(DeploymentTopology.class, deployment.getId());
-        PaaSTopologyDeploymentContext deploymentContext = deploymentContextService.buildTopologyDeploymentContext(null, deployment,
-                deploymentTopologyService.getLocations(runtimeTopology), runtimeTopology);
-        IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
-        orchestratorPlugin.getInstancesInformation(deploymentContext, callback);
+        instancesInformationCacheService.get(deployment, new IPaaSCallback<InstancesInformationSnapshot>() {
+            @Override
+            public void onSuccess(InstancesInformationSnapshot data) {
+                callback.onSuccess(data.getInstancesInformation());
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                callback.onFailure(throwable);
+            }
+        });
+    }
+
+    /**
+     * Get the detailed status for each instance of each node template along with the version of these information.
+     *
+     * Instances information are cached and shared between callers, they must not be modified.
+     *
+     * @param deployment The deployment for witch to get the instance informations.
+     * @param callback callback on witch to send the versioned instances information.
+     * @throws alien4cloud.paas.exception.OrchestratorDisabledException In case the cloud selected for the topology is disabled.
+     */
+    public void getInstancesInformationSnapshot(final Deployment deployment, IPaaSCallback<InstancesInformationSnapshot> callback)
+            throws OrchestratorDisabledException {
+        instancesInformationCacheService.get(deployment, callback);
     }
 
     /**
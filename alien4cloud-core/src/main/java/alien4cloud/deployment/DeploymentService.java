@@ -277,6 +277,7 @@ public class DeploymentService {
             DeploymentTopology deploymentTopology = alienMonitorDao.findById(DeploymentTopology.class, deployment.getId());
             deploymentTopology.setDeployed(false);
             alienMonitorDao.save(deploymentTopology);
+            deploymentContextService.evictRuntimePaaSTopology(deployment.getId());
         } else {
             log.info("Deployment <" + deployment.getId() + "> is already marked as undeployed.");
         }
@@ -0,0 +1,17 @@
+package alien4cloud.deployment;
+
+import alien4cloud.deployment.model.DeploymentLogTail;
+
+/**
+ * Listener notified of the new logs of deployments.
+ */
+public interface IDeploymentLogTailListener {
+
+    /**
+     * Called when new logs have been received for a deployment.
+     *
+     * @param deploymentId The id of the deployment.
+     * @param newLogs The new logs of the deployment.
+     */
+    void logsAppended(String deploymentId, DeploymentLogTail newLogs);
+}
@@ -0,0 +1,305 @@
+package alien4cloud.deployment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.deployment.model.InstancesInformationSnapshot;
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.model.deployment.DeploymentTopology;
+import alien4cloud.orchestrators.plugin.IOrchestratorPlugin;
+import alien4cloud.paas.IPaaSCallback;
+import alien4cloud.paas.IPaasEventListener;
+import alien4cloud.paas.IPaasEventService;
+import alien4cloud.paas.OrchestratorPluginService;
+import alien4cloud.paas.function.PaaSTopologyAttributesEvaluator;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.InstanceInformation;
+import alien4cloud.paas.model.PaaSInstanceStateMonitorEvent;
+import alien4cloud.paas.model.PaaSTopologyDeploymentContext;
+import alien4cloud.utils.AlienUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of the instances information of the active deployments.
+ *
+ * Instances information are fetched from the orchestrator on first access and then kept up to date from the instance state events polled from the
+ * orchestrator. Concurrent requests for the same deployment are coalesced into a single orchestrator call and the instances information are fetched again
+ * from the orchestrator once they are older than the configured max staleness. Instance state events received while a call is in progress are applied on
+ * the instances information returned by the call.
+ *
+ * The instances information of a deployment are evicted on every deployment status change and every time the deployed topology is updated. Node attributes are evaluated using the compiled evaluation plans of the
+ * deployed topology.
+ */
+@Slf4j
+@Service
+public class InstancesInformationCacheService implements IPaasEventListener<AbstractMonitorEvent> {
+    @Resource(name = "alien-monitor-es-dao")
+    private IGenericSearchDAO alienMonitorDao;
+    @Inject
+    private OrchestratorPluginService orchestratorPluginService;
+    @Inject
+    private DeploymentContextService deploymentContextService;
+    @Inject
+    private DeploymentTopologyService deploymentTopologyService;
+    @Resource
+    private IPaasEventService paasEventService;
+
+    @Value("${paas_monitor.instances_information_max_staleness_ms:30000}")
+    private long maxStalenessMs;
+    @Value("${paas_monitor.instances_information_fetch_timeout_ms:120000}")
+    private long fetchTimeoutMs;
+    @Value("${paas_monitor.instances_information_expire_after_access_minutes:60}")
+    private long expireAfterAccessMinutes;
+
+    /** Start date of this run, versions restart on every boot so they are qualified by the epoch to be unique. */
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    /** Versions are global so that a version is never reused for a deployment, even after eviction. */
+    private final AtomicLong versionSequence = new AtomicLong();
+    /** Map of deployment id to cached instances information. */
+    private Cache<String, CachedInstancesInformation> cache;
+
+    private static class CachedInstancesInformation {
+        private InstancesInformationSnapshot snapshot;
+        /** Date of the last fetch of the instances information from the orchestrator. */
+        private long fetchDate;
+        /** Callbacks waiting for the in-flight orchestrator call, null if there is no call in progress. */
+        private List<IPaaSCallback<InstancesInformationSnapshot>> waitingCallbacks;
+        /** Token of the in-flight orchestrator call so that the result of a timed out call is ignored. */
+        private Object currentCall;
+        /** Start date of the in-flight orchestrator call. */
+        private long callDate;
+        /** Instance state events received since the in-flight orchestrator call has been issued. */
+        private List<PaaSInstanceStateMonitorEvent> pendingEvents;
+        /** Compiled evaluation plans of the node attributes of the deployed topology. */
+        private PaaSTopologyAttributesEvaluator attributesEvaluator;
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder().expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES).build();
+        paasEventService.addListener(this);
+    }
+
+    /**
+     * Get the instances information of a deployment.
+     *
+     * @param deployment The deployment for which to get the instances information.
+     * @param callback The callback to which to send the instances information snapshot.
+     */
+    public void get(Deployment deployment, IPaaSCallback<InstancesInformationSnapshot> callback) {
+        CachedInstancesInformation cached;
+        try {
+            cached = cache.get(deployment.getId(), CachedInstancesInformation::new);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        InstancesInformationSnapshot snapshot = null;
+        List<IPaaSCallback<InstancesInformationSnapshot>> timedOutCallbacks = null;
+        Object call = null;
+        synchronized (cached) {
+            long now = System.currentTimeMillis();
+            if (cached.snapshot != null && now - cached.fetchDate < maxStalenessMs) {
+                snapshot = cached.snapshot;
+            } else if (cached.waitingCallbacks != null && now - cached.callDate < fetchTimeoutMs) {
+                // a call is already in progress, just wait for it's result.
+                cached.waitingCallbacks.add(callback);
+                return;
+            } else {
+                // the orchestrator never answered a previous call, its callbacks are failed and a new call is performed.
+                timedOutCallbacks = cached.waitingCallbacks;
+                cached.waitingCallbacks = Lists.newArrayList(callback);
+                cached.currentCall = call = new Object();
+                cached.callDate = now;
+                cached.pendingEvents = Lists.newArrayList();
+            }
+        }
+        if (snapshot != null) {
+            callback.onSuccess(snapshot);
+            return;
+        }
+        if (timedOutCallbacks != null) {
+            log.warn("Instances information of deployment <{}> not received from the orchestrator after {} ms", deployment.getId(), fetchTimeoutMs);
+            TimeoutException timeout = new TimeoutException("Instances information not received from the orchestrator after " + fetchTimeoutMs + " ms");
+            for (IPaaSCallback<InstancesInformationSnapshot> timedOutCallback : timedOutCallbacks) {
+                timedOutCallback.onFailure(timeout);
+            }
+        }
+        fetch(deployment, cached, call);
+    }
+
+    /**
+     * Remove the cached instances information of a deployment so that they are fetched again from the orchestrator on next access. A call in progress
+     * still completes its waiting callbacks but its result is not cached.
+     *
+     * @param deploymentId The id of the deployment.
+     */
+    public void evict(String deploymentId) {
+        cache.invalidate(deploymentId);
+    }
+
+    private void fetch(Deployment deployment, CachedInstancesInformation cached, Object call) {
+        try {
+            DeploymentTopology runtimeTopology = alienMonitorDao.findById(DeploymentTopology.class, deployment.getId());
+            PaaSTopologyDeploymentContext deploymentContext = deploymentContextService.buildRuntimeTopologyDeploymentContext(null, deployment,
+                    deploymentTopologyService.getLocations(runtimeTopology), runtimeTopology);
+            PaaSTopologyAttributesEvaluator attributesEvaluator = deploymentContextService.getRuntimeAttributesEvaluator(runtimeTopology);
+            IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
+            orchestratorPlugin.getInstancesInformation(deploymentContext, new IPaaSCallback<Map<String, Map<String, InstanceInformation>>>() {
+                @Override
+                public void onSuccess(Map<String, Map<String, InstanceInformation>> data) {
+                    complete(cached, call, attributesEvaluator, data, null);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    complete(cached, call, null, null, throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            // the initial caller gets the exception thrown while other callers that joined the call are notified through their callback.
+            List<IPaaSCallback<InstancesInformationSnapshot>> callbacks;
+            synchronized (cached) {
+                callbacks = cached.waitingCallbacks;
+                cached.waitingCallbacks = null;
+                cached.currentCall = null;
+                cached.pendingEvents = null;
+            }
+            for (IPaaSCallback<InstancesInformationSnapshot> callback : callbacks.subList(1, callbacks.size())) {
+                callback.onFailure(e);
+            }
+            throw e;
+        }
+    }
+
+    private void complete(CachedInstancesInformation cached, Object call, PaaSTopologyAttributesEvaluator attributesEvaluator,
+            Map<String, Map<String, InstanceInformation>> data, Throwable throwable) {
+        List<IPaaSCallback<InstancesInformationSnapshot>> callbacks;
+        InstancesInformationSnapshot snapshot = null;
+        synchronized (cached) {
+            if (cached.currentCall != call) {
+                // the call has timed out and its callbacks have already been failed.
+                return;
+            }
+            callbacks = cached.waitingCallbacks;
+            List<PaaSInstanceStateMonitorEvent> pendingEvents = cached.pendingEvents;
+            cached.waitingCallbacks = null;
+            cached.currentCall = null;
+            cached.pendingEvents = null;
+            if (throwable == null) {
+                Map<String, Map<String, InstanceInformation>> instancesInformation = data == null ? Maps.newHashMap() : data;
+                // the orchestrator may have answered with a state older than the events received in the meantime.
+                for (PaaSInstanceStateMonitorEvent event : pendingEvents) {
+                    instancesInformation = apply(instancesInformation, event);
+                }
+                snapshot = new InstancesInformationSnapshot(epoch, versionSequence.incrementAndGet(),
+                        evaluateAttributes(attributesEvaluator, instancesInformation));
+                cached.snapshot = snapshot;
+                cached.attributesEvaluator = attributesEvaluator;
+                cached.fetchDate = System.currentTimeMillis();
+            }
+        }
+        for (IPaaSCallback<InstancesInformationSnapshot> callback : AlienUtils.safe(callbacks)) {
+            if (throwable == null) {
+                callback.onSuccess(snapshot);
+            } else {
+                callback.onFailure(throwable);
+            }
+        }
+    }
+
+    @Override
+    public void eventHappened(AbstractMonitorEvent event) {
+        // deployment status events are handled by the DeploymentStatusEventHandler so that the cache is evicted before other listeners are notified.
+        CachedInstancesInformation cached = cache.getIfPresent(event.getDeploymentId());
+        if (cached == null) {
+            return;
+        }
+        PaaSInstanceStateMonitorEvent instanceStateEvent = (PaaSInstanceStateMonitorEvent) event;
+        synchronized (cached) {
+            if (cached.pendingEvents != null) {
+                cached.pendingEvents.add(instanceStateEvent);
+            }
+            if (cached.snapshot != null) {
+                cached.snapshot = new InstancesInformationSnapshot(epoch, versionSequence.incrementAndGet(),
+                        evaluateAttributes(cached.attributesEvaluator, apply(cached.snapshot.getInstancesInformation(), instanceStateEvent)));
+            }
+        }
+    }
+
+    @Override
+    public boolean canHandle(AbstractMonitorEvent event) {
+        return event instanceof PaaSInstanceStateMonitorEvent;
+    }
+
+    /**
+     * Evaluate the node attributes (concat, get_operation_output, default values) of all instances. Evaluation is performed against the given instances
+     * information that are left unchanged, evaluated values are set on copies of the instances information.
+     */
+    private Map<String, Map<String, InstanceInformation>> evaluateAttributes(PaaSTopologyAttributesEvaluator attributesEvaluator,
+            Map<String, Map<String, InstanceInformation>> instancesInformation) {
+        if (attributesEvaluator == null) {
+            return instancesInformation;
+        }
+        Map<String, Map<String, Map<String, String>>> evaluatedAttributes = attributesEvaluator.evaluate(instancesInformation);
+        Map<String, Map<String, InstanceInformation>> evaluated = Maps.newHashMap();
+        for (Map.Entry<String, Map<String, InstanceInformation>> nodeEntry : instancesInformation.entrySet()) {
+            Map<String, InstanceInformation> nodeInstances = Maps.newHashMap();
+            for (Map.Entry<String, InstanceInformation> instanceEntry : nodeEntry.getValue().entrySet()) {
+                InstanceInformation instance = instanceEntry.getValue();
+                Map<String, String> attributes = Maps.newHashMap(AlienUtils.safe(instance.getAttributes()));
+                for (Map.Entry<String, String> attributeEntry : evaluatedAttributes.get(nodeEntry.getKey()).get(instanceEntry.getKey()).entrySet()) {
+                    if (attributeEntry.getValue() != null) {
+                        attributes.put(attributeEntry.getKey(), attributeEntry.getValue());
+                    }
+                }
+                nodeInstances.put(instanceEntry.getKey(), new InstanceInformation(instance.getState(), instance.getInstanceStatus(), attributes,
+                        instance.getRuntimeProperties(), instance.getOperationsOutputs()));
+            }
+            evaluated.put(nodeEntry.getKey(), nodeInstances);
+        }
+        return evaluated;
+    }
+
+    /**
+     * Apply an instance state event on instances information. Snapshots are shared so the given instances information are copied rather than modified.
+     */
+    private Map<String, Map<String, InstanceInformation>> apply(Map<String, Map<String, InstanceInformation>> instancesInformation,
+            PaaSInstanceStateMonitorEvent event) {
+        Map<String, Map<String, InstanceInformation>> updated = Maps.newHashMap(instancesInformation);
+        Map<String, InstanceInformation> nodeInstances = Maps.newHashMap(AlienUtils.safe(instancesInformation.get(event.getNodeTemplateId())));
+        if (event.getInstanceState() == null) {
+            // a null state means that the instance has been deleted.
+            nodeInstances.remove(event.getInstanceId());
+        } else {
+            InstanceInformation previous = nodeInstances.get(event.getInstanceId());
+            Map<String, String> attributes = previous == null ? Maps.newHashMap() : Maps.newHashMap(AlienUtils.safe(previous.getAttributes()));
+            attributes.putAll(AlienUtils.safe(event.getAttributes()));
+            Map<String, String> runtimeProperties = previous == null ? Maps.newHashMap()
+                    : Maps.newHashMap(AlienUtils.safe(previous.getRuntimeProperties()));
+            runtimeProperties.putAll(AlienUtils.safe(event.getRuntimeProperties()));
+            nodeInstances.put(event.getInstanceId(), new InstanceInformation(event.getInstanceState(), event.getInstanceStatus(), attributes, runtimeProperties,
+                    previous == null ? null : previous.getOperationsOutputs()));
+        }
+        updated.put(event.getNodeTemplateId(), nodeInstances);
+        log.debug("Instances information of deployment <{}> updated from instance state event", event.getDeploymentId());
+        return updated;
+    }
+}
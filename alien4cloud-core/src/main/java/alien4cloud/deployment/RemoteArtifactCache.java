@@ -0,0 +1,210 @@
+package alien4cloud.deployment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.Striped;
+
+import alien4cloud.utils.FileUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local cache of the artifacts downloaded from an URL.
+ *
+ * Cached http(s) artifacts are revalidated on every access using the ETag and Last-Modified headers returned by the server so they are only downloaded
+ * again when they have been modified. The SHA-256 of the content is recorded on download and checked before every reuse of the cached file. An expected
+ * checksum can be given in the URL fragment (http://host/artifact.sh#sha256=...) in which case the content must match it.
+ */
+@Slf4j
+@Component
+public class RemoteArtifactCache {
+    private static final String CHECKSUM_FRAGMENT_PREFIX = "sha256=";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String SHA256 = "sha256";
+
+    @Value("${deployment.artifacts.connect_timeout_ms:10000}")
+    private int connectTimeout;
+    @Value("${deployment.artifacts.read_timeout_ms:60000}")
+    private int readTimeout;
+
+    private Path cacheDir;
+    /** Locks per cache entry so that an artifact is downloaded only once at a time. */
+    private final Striped<Lock> entryLocks = Striped.lock(64);
+
+    @Value("${directories.alien}/${directories.artifact_cache:artifact_cache}")
+    public void setCacheDir(String cacheDir) throws IOException {
+        this.cacheDir = FileUtil.createDirectoryIfNotExists(cacheDir);
+    }
+
+    /**
+     * Get the local copy of an artifact, download it if not cached or if it has been modified.
+     *
+     * @param url The url of the artifact.
+     * @return The path to the local copy of the artifact. The file must not be modified.
+     * @throws IOException In case the artifact cannot be downloaded or doesn't match the expected checksum.
+     */
+    public Path get(URL url) throws IOException {
+        String expectedChecksum = url.getRef() != null && url.getRef().startsWith(CHECKSUM_FRAGMENT_PREFIX)
+                ? url.getRef().substring(CHECKSUM_FRAGMENT_PREFIX.length()).toLowerCase() : null;
+        URL resourceUrl = removeFragment(url);
+        String key = Hashing.sha1().hashString(resourceUrl.toString(), StandardCharsets.UTF_8).toString();
+        String extension = FilenameUtils.getExtension(resourceUrl.getPath());
+        Path contentPath = cacheDir.resolve(extension.isEmpty() ? key : key + "." + extension);
+        Path metadataPath = cacheDir.resolve(key + ".properties");
+
+        Lock lock = entryLocks.get(key);
+        lock.lock();
+        try {
+            Properties cached = readMetadata(contentPath, metadataPath);
+            try {
+                URLConnection connection = resourceUrl.openConnection();
+                connection.setConnectTimeout(connectTimeout);
+                connection.setReadTimeout(readTimeout);
+                if (cached != null && connection instanceof HttpURLConnection) {
+                    if (cached.getProperty(ETAG) != null) {
+                        connection.setRequestProperty("If-None-Match", cached.getProperty(ETAG));
+                    }
+                    if (cached.getProperty(LAST_MODIFIED) != null) {
+                        connection.setRequestProperty("If-Modified-Since", cached.getProperty(LAST_MODIFIED));
+                    }
+                }
+                if (connection instanceof HttpURLConnection) {
+                    int responseCode = ((HttpURLConnection) connection).getResponseCode();
+                    if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                        log.debug("Artifact <{}> not modified, using cached file", resourceUrl);
+                        return checkChecksum(resourceUrl, contentPath, cached.getProperty(SHA256), expectedChecksum);
+                    }
+                    if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                        // the artifact has been removed or access to it revoked, the cached copy must not be used.
+                        throw new InvalidArtifactException("Server returned HTTP response code " + responseCode + " for artifact <" + resourceUrl + ">");
+                    }
+                }
+                return download(resourceUrl, connection, contentPath, metadataPath, expectedChecksum);
+            } catch (InvalidArtifactException e) {
+                throw e;
+            } catch (IOException e) {
+                // connection and read errors only
+                if (cached != null && (expectedChecksum == null || expectedChecksum.equals(cached.getProperty(SHA256)))) {
+                    log.warn("Artifact <{}> cannot be revalidated, using cached file: {}", resourceUrl, e.getMessage());
+                    return contentPath;
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path download(URL resourceUrl, URLConnection connection, Path contentPath, Path metadataPath, String expectedChecksum) throws IOException {
+        log.debug("Downloading artifact <{}>", resourceUrl);
+        Path tmpPath = Files.createTempFile(cacheDir, "download", null);
+        try {
+            MessageDigest digest = newDigest();
+            try (InputStream artifactStream = new DigestInputStream(connection.getInputStream(), digest)) {
+                Files.copy(artifactStream, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String checksum = BaseEncoding.base16().lowerCase().encode(digest.digest());
+            checkChecksum(resourceUrl, tmpPath, checksum, expectedChecksum);
+            Properties metadata = new Properties();
+            metadata.setProperty(SHA256, checksum);
+            if (connection.getHeaderField("ETag") != null) {
+                metadata.setProperty(ETAG, connection.getHeaderField("ETag"));
+            }
+            if (connection.getHeaderField("Last-Modified") != null) {
+                metadata.setProperty(LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+            }
+            // replace the file rather than writing it so that deployments still using the previous content are not affected.
+            Files.move(tmpPath, contentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Path tmpMetadataPath = Files.createTempFile(cacheDir, "metadata", null);
+            try (OutputStream metadataStream = Files.newOutputStream(tmpMetadataPath)) {
+                metadata.store(metadataStream, resourceUrl.toString());
+            }
+            Files.move(tmpMetadataPath, metadataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return contentPath;
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+    }
+
+    /**
+     * Read the metadata of a cached artifact, return null if the artifact is not cached or if the cached file doesn't match the recorded checksum.
+     */
+    private Properties readMetadata(Path contentPath, Path metadataPath) throws IOException {
+        if (!Files.exists(contentPath) || !Files.exists(metadataPath)) {
+            return null;
+        }
+        Properties metadata = new Properties();
+        try (InputStream metadataStream = Files.newInputStream(metadataPath)) {
+            metadata.load(metadataStream);
+        }
+        if (!BaseEncoding.base16().lowerCase().encode(sha256(contentPath)).equals(metadata.getProperty(SHA256))) {
+            log.warn("Cached file <{}> is corrupted, it will be downloaded again", contentPath);
+            return null;
+        }
+        return metadata;
+    }
+
+    private Path checkChecksum(URL resourceUrl, Path path, String checksum, String expectedChecksum) throws IOException {
+        if (expectedChecksum != null && !expectedChecksum.equals(checksum)) {
+            throw new InvalidArtifactException("Checksum of artifact <" + resourceUrl + "> is <" + checksum + "> while <" + expectedChecksum + "> is expected");
+        }
+        return path;
+    }
+
+    /**
+     * The server answered but the artifact cannot be used: error response or checksum mismatch. The cached copy is not used as a fallback.
+     */
+    private static class InvalidArtifactException extends IOException {
+        InvalidArtifactException(String message) {
+            super(message);
+        }
+    }
+
+    private static URL removeFragment(URL url) throws MalformedURLException {
+        if (url.getRef() == null) {
+            return url;
+        }
+        String externalForm = url.toExternalForm();
+        return new URL(externalForm.substring(0, externalForm.indexOf('#')));
+    }
+
+    private static byte[] sha256(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream data = new DigestInputStream(Files.newInputStream(path), digest)) {
+            byte[] buffer = new byte[8192];
+            while (data.read(buffer) != -1) {
+                // just compute the digest
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
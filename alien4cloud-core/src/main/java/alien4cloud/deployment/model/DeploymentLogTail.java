@@ -0,0 +1,22 @@
+package alien4cloud.deployment.model;
+
+import java.util.List;
+
+import alien4cloud.paas.model.PaaSDeploymentLog;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last logs of a deployment. Logs of a deployment are numbered in the order they are received, the sequence of the last log allows consumers to detect logs
+ * they already know.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeploymentLogTail {
+    /** Sequence number of the last log of the list (0 if no logs have been received yet). */
+    private long lastSequence;
+    /** Logs ordered by sequence. */
+    private List<PaaSDeploymentLog> logs;
+}
@@ -0,0 +1,21 @@
+package alien4cloud.deployment.model;
+
+import java.util.Map;
+
+import alien4cloud.paas.model.InstanceInformation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Instances information of a deployment as known by alien at a given version. The version is incremented every time the instances information changes.
+ */
+@Getter
+@AllArgsConstructor
+public class InstancesInformationSnapshot {
+    /** Identifier of the alien run that produced the version as versions restart on every boot. */
+    private final String epoch;
+    /** Version of the instances information for the deployment. */
+    private final long version;
+    /** Map of node template's id to map of instance's id to instance information. Must not be modified. */
+    private final Map<String, Map<String, InstanceInformation>> instancesInformation;
+}
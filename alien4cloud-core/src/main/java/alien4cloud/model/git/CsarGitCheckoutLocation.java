@@ -1,11 +1,14 @@
 package alien4cloud.model.git;
 
+import java.util.Map;
+
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import org.elasticsearch.annotation.ObjectField;
 import org.hibernate.validator.constraints.NotBlank;
 
 @Getter
@@ -20,4 +23,8 @@ public class CsarGitCheckoutLocation {
     private String subPath;
     @ApiModelProperty(value = "unused field.", hidden = true)
     private String lastImportedHash;
+    /** Git tree id of the archives imported from this location by path of the archive relative to the location, used to import only modified archives. */
+    @ObjectField(enabled = false)
+    @ApiModelProperty(hidden = true)
+    private Map<String, String> importedArchiveTreeIds;
 }
\ No newline at end of file
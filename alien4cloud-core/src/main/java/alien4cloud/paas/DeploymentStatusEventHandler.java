@@ -2,9 +2,11 @@ package alien4cloud.paas;
 
 import javax.inject.Inject;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import alien4cloud.deployment.DeploymentService;
+import alien4cloud.deployment.InstancesInformationCacheService;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.paas.model.AbstractMonitorEvent;
 import alien4cloud.paas.model.DeploymentStatus;
@@ -12,18 +14,23 @@ import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * This handler receives Deployment Status events and update the deployment if the status is un-deployed.
+ * This handler receives Deployment Status events and update the deployment if the status is un-deployed. The cached instances information of the deployment
+ * are evicted on every status change, before the other listeners are notified.
  */
 @Slf4j
 @Service
 public class DeploymentStatusEventHandler implements IPaasEventListener<AbstractMonitorEvent> {
     @Inject
     private DeploymentService deploymentService;
+    @Inject
+    @Lazy
+    private InstancesInformationCacheService instancesInformationCacheService;
 
     @Override
     public void eventHappened(AbstractMonitorEvent aEvent) {
         PaaSDeploymentStatusMonitorEvent event = (PaaSDeploymentStatusMonitorEvent) aEvent;
         log.debug("Received a deployment status event for deployment {} with a new status to {}", event.getDeploymentId(), event.getDeploymentStatus());
+        instancesInformationCacheService.evict(event.getDeploymentId());
         if (DeploymentStatus.UNDEPLOYED.equals(event.getDeploymentStatus())) {
             Deployment deployment = deploymentService.get(event.getDeploymentId());
             if (deployment == null) {
@@ -71,7 +71,7 @@ public class PaaSProviderPollingMonitor implements Runnable {
 
         // sort by filed date DESC
         QueryHelper.ISearchQueryBuilderHelper searchQueryHelperBuilder = monitorDAO.getQueryHelper().buildQuery()
-                .types(eventClasses.toArray(new Class<?>[eventClasses.size()])).filters(filter).prepareSearch("deploymentmonitorevents")
+                .types(eventClasses.toArray(new Class<?>[eventClasses.size()])).filters(filter).prepareSearch(monitorDAO.getIndexForType(AbstractMonitorEvent.class))
                 .fieldSort("date", true);
 
         // the first one is the one with the latest date
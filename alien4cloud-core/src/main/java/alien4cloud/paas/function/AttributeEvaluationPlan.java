@@ -0,0 +1,239 @@
+package alien4cloud.paas.function;
+
+import java.util.List;
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.AttributeDefinition;
+import org.alien4cloud.tosca.model.definitions.ConcatPropertyValue;
+import org.alien4cloud.tosca.model.definitions.FunctionPropertyValue;
+import org.alien4cloud.tosca.model.definitions.IValue;
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.alien4cloud.tosca.normative.ToscaNormativeUtil;
+import org.alien4cloud.tosca.normative.constants.ToscaFunctionConstants;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.paas.IPaaSTemplate;
+import alien4cloud.paas.model.InstanceInformation;
+import alien4cloud.paas.model.PaaSNodeTemplate;
+import alien4cloud.utils.AlienConstants;
+import alien4cloud.utils.AlienUtils;
+import alien4cloud.utils.PropertyUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiled form of an attribute value ({@link AttributeDefinition}, {@link ConcatPropertyValue} or {@link FunctionPropertyValue}).
+ *
+ * Keywords (SELF, HOST, SOURCE, TARGET) and parent hierarchies are resolved once when the plan is compiled, static parts (scalars and get_property) are
+ * evaluated at compile time so that evaluating the plan against instances information only consists in map lookups.
+ */
+@Slf4j
+@SuppressWarnings({ "rawtypes" })
+public final class AttributeEvaluationPlan {
+    /** Plan for attribute values that cannot be evaluated. */
+    private static final AttributeEvaluationPlan NULL_PLAN = new AttributeEvaluationPlan(null, false);
+
+    /** Single resolved part of an attribute value. */
+    private interface Segment {
+        String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId);
+    }
+
+    private final List<Segment> segments;
+    private final boolean concat;
+
+    private AttributeEvaluationPlan(List<Segment> segments, boolean concat) {
+        this.segments = segments;
+        this.concat = concat;
+    }
+
+    /**
+     * Compile an attribute value.
+     *
+     * @param attributeId The id of the attribute.
+     * @param attributeValue The value of the attribute.
+     * @param topology The topology in which the attribute is defined.
+     * @param basePaaSTemplate The template on which the attribute is defined.
+     * @param builtPaaSTemplates The built PaaS node templates of the topology.
+     * @return The compiled evaluation plan.
+     */
+    public static AttributeEvaluationPlan compile(String attributeId, IValue attributeValue, Topology topology,
+            IPaaSTemplate<? extends AbstractToscaType> basePaaSTemplate, Map<String, PaaSNodeTemplate> builtPaaSTemplates) {
+        if (attributeValue == null) {
+            return NULL_PLAN;
+        }
+
+        // handle AttributeDefinition type
+        if (attributeValue instanceof AttributeDefinition) {
+            String defaultValue = ((AttributeDefinition) attributeValue).getDefault();
+            Segment attributeSegment = attributeSegment(Lists.newArrayList(basePaaSTemplate), attributeId);
+            return new AttributeEvaluationPlan(Lists.newArrayList((runtimeInformations, instanceId) -> {
+                String runtimeAttributeValue = attributeSegment.evaluate(runtimeInformations, instanceId);
+                if (runtimeAttributeValue != null && !runtimeAttributeValue.contains("=Error!]") && !runtimeAttributeValue.equals("")) {
+                    return runtimeAttributeValue;
+                }
+                return defaultValue;
+            }), false);
+        }
+
+        // handle concat function
+        if (attributeValue instanceof ConcatPropertyValue) {
+            List<Segment> segments = Lists.newArrayList();
+            for (IValue concatParam : ((ConcatPropertyValue) attributeValue).getParameters()) {
+                if (concatParam instanceof ScalarPropertyValue) {
+                    segments.add(constantSegment(((ScalarPropertyValue) concatParam).getValue()));
+                } else if (concatParam instanceof PropertyDefinition) {
+                    // TODO : ?? what should i do here ?? currently returns default value in the definition
+                    segments.add(constantSegment(String.valueOf(((PropertyDefinition) concatParam).getDefault())));
+                } else if (concatParam instanceof FunctionPropertyValue) {
+                    FunctionPropertyValue function = (FunctionPropertyValue) concatParam;
+                    List<? extends IPaaSTemplate> paasTemplates = FunctionEvaluator.getPaaSTemplatesFromKeyword(basePaaSTemplate, function.getTemplateName(),
+                            builtPaaSTemplates);
+                    switch (function.getFunction()) {
+                    case ToscaFunctionConstants.GET_ATTRIBUTE:
+                        segments.add(attributeSegment(paasTemplates, function.getElementNameToFetch()));
+                        break;
+                    case ToscaFunctionConstants.GET_PROPERTY:
+                        // properties are static so get_property is evaluated once at compile time.
+                        segments.add(constantSegment(evaluateProperty(topology, function.getElementNameToFetch(), paasTemplates)));
+                        break;
+                    case ToscaFunctionConstants.GET_OPERATION_OUTPUT:
+                        segments.add(operationOutputSegment(paasTemplates, function, "<" + function.getElementNameToFetch() + ">"));
+                        break;
+                    default:
+                        log.warn("Function [{}] is not yet handled in concat operation.", function.getFunction());
+                        break;
+                    }
+                }
+            }
+            return new AttributeEvaluationPlan(segments, true);
+        }
+
+        // handle functions. For now, only support Get_OPERATION_OUTPUT on attributes scope
+        if (attributeValue instanceof FunctionPropertyValue) {
+            FunctionPropertyValue function = (FunctionPropertyValue) attributeValue;
+            if (ToscaFunctionConstants.GET_OPERATION_OUTPUT.equals(function.getFunction())) {
+                List<? extends IPaaSTemplate> paasTemplates = FunctionEvaluator.getPaaSTemplatesFromKeyword(basePaaSTemplate, function.getTemplateName(),
+                        builtPaaSTemplates);
+                return new AttributeEvaluationPlan(Lists.newArrayList(operationOutputSegment(paasTemplates, function, null)), false);
+            }
+        }
+
+        return NULL_PLAN;
+    }
+
+    /**
+     * Evaluate the plan for a given instance.
+     *
+     * @param runtimeInformations The map of node id to instance id to instance information.
+     * @param instanceId The id of the instance for which to evaluate the attribute.
+     * @return The evaluated attribute value.
+     */
+    public String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+        if (segments == null) {
+            return null;
+        }
+        if (!concat) {
+            return segments.get(0).evaluate(runtimeInformations, instanceId);
+        }
+        StringBuilder evaluatedAttribute = new StringBuilder();
+        for (Segment segment : segments) {
+            evaluatedAttribute.append(segment.evaluate(runtimeInformations, instanceId));
+        }
+        return evaluatedAttribute.toString();
+    }
+
+    private static Segment constantSegment(String value) {
+        return (runtimeInformations, instanceId) -> value;
+    }
+
+    private static String[] getNodeIds(List<? extends IPaaSTemplate> nodes) {
+        String[] nodeIds = new String[nodes.size()];
+        for (int i = 0; i < nodeIds.length; i++) {
+            nodeIds[i] = nodes.get(i).getId();
+        }
+        return nodeIds;
+    }
+
+    private static InstanceInformation getInstanceInformation(Map<String, InstanceInformation> nodeInformations, String instanceId) {
+        InstanceInformation instanceInformation = nodeInformations.get(instanceId);
+        if (instanceInformation == null && !nodeInformations.isEmpty()) {
+            instanceInformation = nodeInformations.values().iterator().next();
+        }
+        return instanceInformation;
+    }
+
+    /**
+     * Segment that returns the first matching attribute value in the given nodes (usually a node and its parents hierarchy).
+     */
+    private static Segment attributeSegment(List<? extends IPaaSTemplate> nodes, String attributeName) {
+        String[] nodeIds = getNodeIds(nodes);
+        String notFoundValue = "<" + attributeName + ">"; // value not yet computed (or won't be computes)
+        return (runtimeInformations, instanceId) -> {
+            for (String nodeId : nodeIds) {
+                Map<String, InstanceInformation> nodeInformations = runtimeInformations.get(nodeId);
+                if (nodeInformations != null) {
+                    InstanceInformation instanceInformation = getInstanceInformation(nodeInformations, instanceId);
+                    Map<String, String> attributes = instanceInformation == null ? null : instanceInformation.getAttributes();
+                    if (attributes != null && attributes.containsKey(attributeName)) {
+                        return attributes.get(attributeName);
+                    }
+                }
+            }
+            log.debug("Couldn't find attribute [ {} ] in nodes [ {} ]", attributeName, nodeIds);
+            return notFoundValue;
+        };
+    }
+
+    /**
+     * Segment that returns the first matching operation output in the given nodes.
+     */
+    private static Segment operationOutputSegment(List<? extends IPaaSTemplate> nodes, FunctionPropertyValue function, String defaultValue) {
+        String[] nodeIds = getNodeIds(nodes);
+        String[] formatedOutputNames = new String[nodeIds.length];
+        for (int i = 0; i < nodeIds.length; i++) {
+            formatedOutputNames[i] = ToscaNormativeUtil.formatedOperationOutputName(nodeIds[i], function.getInterfaceName(), function.getOperationName(),
+                    function.getElementNameToFetch());
+        }
+        String outputRQN = AlienUtils.prefixWith(AlienConstants.OPERATION_NAME_SEPARATOR, function.getElementNameToFetch(), function.getInterfaceName(),
+                function.getOperationName());
+        return (runtimeInformations, instanceId) -> {
+            for (int i = 0; i < nodeIds.length; i++) {
+                Map<String, InstanceInformation> nodeInformations = runtimeInformations.get(nodeIds[i]);
+                if (nodeInformations != null) {
+                    Map<String, String> outputs;
+                    // get value for an instance if instance number found
+                    if (nodeInformations.containsKey(instanceId)) {
+                        outputs = nodeInformations.get(instanceId).getOperationsOutputs();
+                    } else {
+                        InstanceInformation instanceInformation = getInstanceInformation(nodeInformations, instanceId);
+                        outputs = instanceInformation == null ? null : instanceInformation.getAttributes();
+                    }
+                    if (outputs != null && outputs.containsKey(formatedOutputNames[i])) {
+                        return outputs.get(formatedOutputNames[i]);
+                    }
+                }
+            }
+            log.debug("Couldn't find output [ {} ] in nodes [ {} ]", outputRQN, nodeIds);
+            return defaultValue;
+        };
+    }
+
+    private static String evaluateProperty(Topology topology, String propertyName, List<? extends IPaaSTemplate> nodes) {
+        for (IPaaSTemplate node : nodes) {
+            NodeTemplate template = topology.getNodeTemplates().get(node.getId());
+            if (template != null && template.getProperties() != null) {
+                AbstractPropertyValue propertyValue = template.getProperties().get(propertyName);
+                if (propertyValue != null) {
+                    return PropertyUtil.getScalarValue(propertyValue);
+                }
+            }
+        }
+        log.warn("Couldn't find property [ {} ] of node [ {} ]", propertyName, nodes);
+        return "[" + nodes + "." + propertyName + "=Error!]";
+    }
+}
@@ -5,8 +5,6 @@ import alien4cloud.paas.exception.NotSupportedException;
 import alien4cloud.paas.model.InstanceInformation;
 import alien4cloud.paas.model.PaaSNodeTemplate;
 import alien4cloud.paas.model.PaaSRelationshipTemplate;
-import alien4cloud.utils.AlienConstants;
-import alien4cloud.utils.AlienUtils;
 import alien4cloud.utils.MapUtil;
 import alien4cloud.utils.PropertyUtil;
 import com.google.common.collect.Lists;
@@ -26,7 +24,6 @@ import org.alien4cloud.tosca.model.templates.Requirement;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
-import org.alien4cloud.tosca.normative.ToscaNormativeUtil;
 import org.alien4cloud.tosca.normative.constants.ToscaFunctionConstants;
 import org.alien4cloud.tosca.normative.types.ToscaTypes;
 import org.apache.commons.lang3.StringUtils;
@@ -49,6 +46,7 @@ public final class FunctionEvaluator {
 
     /**
      * Parse an attribute value that can be : {@link ConcatPropertyValue} / {@link AttributeDefinition}
+     * Note that when the same attribute has to be evaluated for many instances, the {@link AttributeEvaluationPlan} should be compiled once and reused.
      *
      * @param attributeId
      * @param attributeValue
@@ -62,161 +60,8 @@ public final class FunctionEvaluator {
     public static String parseAttribute(String attributeId, IValue attributeValue, Topology topology,
             Map<String, Map<String, InstanceInformation>> runtimeInformations, String currentInstance,
             IPaaSTemplate<? extends AbstractToscaType> basePaaSTemplate, Map<String, PaaSNodeTemplate> builtPaaSTemplates) {
-
-        if (attributeValue == null) {
-            return null;
-        }
-
-        // handle AttributeDefinition type
-        if (attributeValue instanceof AttributeDefinition) {
-            String runtimeAttributeValue = extractRuntimeInformationAttribute(runtimeInformations, currentInstance, Lists.newArrayList(basePaaSTemplate),
-                    attributeId);
-            if (runtimeAttributeValue != null) {
-                if (!runtimeAttributeValue.contains("=Error!]") && !runtimeAttributeValue.equals("")) {
-                    return runtimeAttributeValue;
-                }
-            }
-
-            return ((AttributeDefinition) attributeValue).getDefault();
-        }
-
-        // handle concat function
-        if (attributeValue instanceof ConcatPropertyValue) {
-            StringBuilder evaluatedAttribute = new StringBuilder();
-            ConcatPropertyValue concatPropertyValue = (ConcatPropertyValue) attributeValue;
-            for (IValue concatParam : concatPropertyValue.getParameters()) {
-                // scalar type
-                if (concatParam instanceof ScalarPropertyValue) {
-                    // scalar case
-                    evaluatedAttribute.append(((ScalarPropertyValue) concatParam).getValue());
-                } else if (concatParam instanceof PropertyDefinition) {
-                    // Definition case
-                    // TODO : ?? what should i do here ?? currently returns default value in the definition
-                    evaluatedAttribute.append(((PropertyDefinition) concatParam).getDefault());
-                } else if (concatParam instanceof FunctionPropertyValue) {
-                    // Function case
-                    FunctionPropertyValue functionPropertyValue = (FunctionPropertyValue) concatParam;
-                    List<? extends IPaaSTemplate> paasTemplates = getPaaSTemplatesFromKeyword(basePaaSTemplate, functionPropertyValue.getTemplateName(),
-                            builtPaaSTemplates);
-                    switch (functionPropertyValue.getFunction()) {
-                    case ToscaFunctionConstants.GET_ATTRIBUTE:
-                        evaluatedAttribute.append(extractRuntimeInformationAttribute(runtimeInformations, currentInstance, paasTemplates,
-                                functionPropertyValue.getElementNameToFetch()));
-                        break;
-                    case ToscaFunctionConstants.GET_PROPERTY:
-                        evaluatedAttribute.append(extractRuntimeInformationProperty(topology, functionPropertyValue.getElementNameToFetch(), paasTemplates));
-                        break;
-                    case ToscaFunctionConstants.GET_OPERATION_OUTPUT:
-                        String defaultValue = "<" + functionPropertyValue.getElementNameToFetch() + ">";
-                        evaluatedAttribute.append(extractRuntimeInformationOperationOutput(runtimeInformations, currentInstance, paasTemplates,
-                                functionPropertyValue, defaultValue));
-                        break;
-                    default:
-                        log.warn("Function [{}] is not yet handled in concat operation.", functionPropertyValue.getFunction());
-                        break;
-                    }
-
-                }
-            }
-            return evaluatedAttribute.toString();
-        }
-
-        // handle functions. For now, only support Get_OPERATION_OUTPUT on attributes scope
-        if (attributeValue instanceof FunctionPropertyValue) {
-            FunctionPropertyValue function = (FunctionPropertyValue) attributeValue;
-            switch (function.getFunction()) {
-            case ToscaFunctionConstants.GET_OPERATION_OUTPUT:
-                List<? extends IPaaSTemplate> paasTemplates = getPaaSTemplatesFromKeyword(basePaaSTemplate, function.getTemplateName(), builtPaaSTemplates);
-                return extractRuntimeInformationOperationOutput(runtimeInformations, currentInstance, paasTemplates, function, null);
-            default:
-                return null;
-            }
-        }
-
-        return null;
-    }
-
-    private static String extractRuntimeInformationOperationOutput(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId,
-            List<? extends IPaaSTemplate> nodes, FunctionPropertyValue function, String defaultValue) {
-        String outputRQN = AlienUtils.prefixWith(AlienConstants.OPERATION_NAME_SEPARATOR, function.getElementNameToFetch(), function.getInterfaceName(),
-                function.getOperationName());
-        // return the first found
-        for (IPaaSTemplate node : nodes) {
-            String nodeName = node.getId();
-            if (runtimeInformations.get(nodeName) != null) {
-                Map<String, String> outputs;
-                // get value for an instance if instance number found
-                if (runtimeInformations.get(nodeName).containsKey(instanceId)) {
-                    outputs = runtimeInformations.get(nodeName).get(instanceId).getOperationsOutputs();
-                } else {
-                    outputs = runtimeInformations.get(nodeName).entrySet().iterator().next().getValue().getAttributes();
-                }
-                String formatedOutputName = ToscaNormativeUtil.formatedOperationOutputName(nodeName, function.getInterfaceName(), function.getOperationName(),
-                        function.getElementNameToFetch());
-                if (outputs.containsKey(formatedOutputName)) {
-                    return outputs.get(formatedOutputName);
-                }
-            }
-        }
-        log.warn("Couldn't find output [ {} ] in nodes [ {} ]", outputRQN, nodes.toString());
-        return defaultValue;
-    }
-
-    /**
-     * Extract property value from runtime informations
-     *
-     * @param topology
-     * @param propertyOrAttributeName
-     * @param nodes
-     * @return
-     */
-    private static String extractRuntimeInformationProperty(Topology topology, String propertyOrAttributeName, List<? extends IPaaSTemplate> nodes) {
-        AbstractPropertyValue propertyOrAttributeValue;
-        NodeTemplate template = null;
-        for (IPaaSTemplate node : nodes) {
-            String nodeName = node.getId();
-            template = topology.getNodeTemplates().get(nodeName);
-            if (template != null && template.getProperties() != null) {
-                propertyOrAttributeValue = template.getProperties().get(propertyOrAttributeName);
-                if (propertyOrAttributeValue != null) {
-                    return PropertyUtil.getScalarValue(propertyOrAttributeValue);
-                }
-            }
-        }
-        log.warn("Couldn't find property [ {} ] of node [ {} ]", propertyOrAttributeName, nodes);
-        return "[" + nodes + "." + propertyOrAttributeName + "=Error!]";
-    }
-
-    /**
-     * Return the first matching value in parent nodes hierarchy
-     *
-     * @param runtimeInformations
-     * @param currentInstance
-     * @param nodes
-     * @param propertyOrAttributeName
-     * @return runtime value
-     */
-    private static String extractRuntimeInformationAttribute(Map<String, Map<String, InstanceInformation>> runtimeInformations, String currentInstance,
-            List<? extends IPaaSTemplate> nodes, String propertyOrAttributeName) {
-        Map<String, String> attributes = null;
-        // return the first found
-        for (IPaaSTemplate node : nodes) {
-            String nodeName = node.getId();
-            // get the current attribute value
-            if (runtimeInformations.get(nodeName) != null) {
-                // get value for an instance if instance number found
-                if (runtimeInformations.get(nodeName).containsKey(currentInstance)) {
-                    attributes = runtimeInformations.get(nodeName).get(currentInstance).getAttributes();
-                } else {
-                    attributes = runtimeInformations.get(nodeName).entrySet().iterator().next().getValue().getAttributes();
-                }
-                if (attributes.containsKey(propertyOrAttributeName)) {
-                    return attributes.get(propertyOrAttributeName);
-                }
-            }
-        }
-        log.warn("Couldn't find attribute [ {} ] in nodes [ {} ]", propertyOrAttributeName, nodes.toString());
-        return "<" + propertyOrAttributeName + ">"; // value not yet computed (or won't be computes)
+        return AttributeEvaluationPlan.compile(attributeId, attributeValue, topology, basePaaSTemplate, builtPaaSTemplates).evaluate(runtimeInformations,
+                currentInstance);
     }
 
     /**
@@ -0,0 +1,80 @@
+package alien4cloud.paas.function;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.alien4cloud.tosca.model.definitions.IValue;
+import org.alien4cloud.tosca.model.templates.Topology;
+
+import com.google.common.collect.Maps;
+
+import alien4cloud.paas.model.InstanceInformation;
+import alien4cloud.paas.model.PaaSNodeTemplate;
+import alien4cloud.paas.model.PaaSTopology;
+import alien4cloud.utils.AlienUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Evaluation plans of all the node attributes of a PaaS topology. Plans are compiled once (usually per deployment) and can then be evaluated in bulk
+ * against the instances information returned by the orchestrator.
+ */
+@Slf4j
+public class PaaSTopologyAttributesEvaluator {
+    /** Map of node id to attribute id to compiled evaluation plan. */
+    private final Map<String, Map<String, AttributeEvaluationPlan>> nodesPlans = Maps.newHashMap();
+
+    /**
+     * Compile the evaluation plans for all the attributes of all nodes of a PaaS topology.
+     *
+     * @param topology The topology.
+     * @param paaSTopology The PaaS topology built from the topology.
+     */
+    public PaaSTopologyAttributesEvaluator(Topology topology, PaaSTopology paaSTopology) {
+        for (PaaSNodeTemplate paaSNodeTemplate : paaSTopology.getAllNodes().values()) {
+            Map<String, AttributeEvaluationPlan> nodePlans = Maps.newHashMap();
+            for (Entry<String, IValue> attributeEntry : AlienUtils.safe(paaSNodeTemplate.getIndexedToscaElement().getAttributes()).entrySet()) {
+                try {
+                    nodePlans.put(attributeEntry.getKey(), AttributeEvaluationPlan.compile(attributeEntry.getKey(), attributeEntry.getValue(), topology,
+                            paaSNodeTemplate, paaSTopology.getAllNodes()));
+                } catch (FunctionEvaluationException e) {
+                    log.warn("Attribute <{}> of node <{}> cannot be evaluated: {}", attributeEntry.getKey(), paaSNodeTemplate.getId(), e.getMessage());
+                }
+            }
+            nodesPlans.put(paaSNodeTemplate.getId(), nodePlans);
+        }
+    }
+
+    /**
+     * Evaluate the attributes of a given node instance.
+     *
+     * @param nodeId The id of the node.
+     * @param instanceId The id of the instance.
+     * @param runtimeInformations The map of node id to instance id to instance information.
+     * @return A map of attribute id to evaluated value.
+     */
+    public Map<String, String> evaluate(String nodeId, String instanceId, Map<String, Map<String, InstanceInformation>> runtimeInformations) {
+        Map<String, String> values = Maps.newHashMap();
+        for (Entry<String, AttributeEvaluationPlan> planEntry : AlienUtils.safe(nodesPlans.get(nodeId)).entrySet()) {
+            values.put(planEntry.getKey(), planEntry.getValue().evaluate(runtimeInformations, instanceId));
+        }
+        return values;
+    }
+
+    /**
+     * Evaluate the attributes of all the instances available in the runtime informations.
+     *
+     * @param runtimeInformations The map of node id to instance id to instance information.
+     * @return A map of node id to instance id to attribute id to evaluated value.
+     */
+    public Map<String, Map<String, Map<String, String>>> evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations) {
+        Map<String, Map<String, Map<String, String>>> values = Maps.newHashMap();
+        for (Entry<String, Map<String, InstanceInformation>> nodeEntry : runtimeInformations.entrySet()) {
+            Map<String, Map<String, String>> nodeValues = Maps.newHashMap();
+            for (String instanceId : nodeEntry.getValue().keySet()) {
+                nodeValues.put(instanceId, evaluate(nodeEntry.getKey(), instanceId, runtimeInformations));
+            }
+            values.put(nodeEntry.getKey(), nodeValues);
+        }
+        return values;
+    }
+}
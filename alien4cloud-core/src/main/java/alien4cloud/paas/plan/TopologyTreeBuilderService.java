@@ -176,6 +176,7 @@ public class TopologyTreeBuilderService {
      */
     @ToscaContextual
     public PaaSTopology buildPaaSTopology(Topology topology) {
+        prefetchTypes(topology);
         PaaSTopology paaSTopology = buildPaaSTopology(buildPaaSNodeTemplates(topology));
 
         // Reuse this utility to query all types and inject them in the PaaSTopology
@@ -188,6 +189,36 @@ public class TopologyTreeBuilderService {
         return paaSTopology;
     }
 
+    /**
+     * Fetch in batch the node and relationship types (and their parent types) used in the topology and register them in the current tosca context so that
+     * building the PaaS templates doesn't trigger a query per template.
+     *
+     * @param topology The topology for which to fetch types.
+     */
+    private void prefetchTypes(Topology topology) {
+        Set<String> nodeTypes = Sets.newHashSet();
+        Set<String> relationshipTypes = Sets.newHashSet();
+        for (NodeTemplate nodeTemplate : AlienUtils.safe(topology.getNodeTemplates()).values()) {
+            nodeTypes.add(nodeTemplate.getType());
+            for (RelationshipTemplate relationshipTemplate : AlienUtils.safe(nodeTemplate.getRelationships()).values()) {
+                relationshipTypes.add(relationshipTemplate.getType());
+            }
+        }
+        prefetchTypes(NodeType.class, nodeTypes, topology);
+        prefetchTypes(RelationshipType.class, relationshipTypes, topology);
+    }
+
+    private <T extends AbstractInheritableToscaType> void prefetchTypes(Class<T> typeClass, Set<String> typeIds, Topology topology) {
+        Map<String, T> types = toscaTypeSearchService.getElementsInDependencies(typeClass, typeIds, topology.getDependencies());
+        Set<String> parentTypeIds = Sets.newHashSet();
+        for (T type : types.values()) {
+            parentTypeIds.addAll(AlienUtils.safe(type.getDerivedFrom()));
+        }
+        parentTypeIds.removeAll(types.keySet());
+        types.putAll(toscaTypeSearchService.getElementsInDependencies(typeClass, parentTypeIds, topology.getDependencies()));
+        ToscaContext.get().register(typeClass, types);
+    }
+
     /**
      * Build the topology for deployment on the PaaS.
      *
@@ -0,0 +1,81 @@
+package alien4cloud.plugin;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import lombok.Getter;
+
+/**
+ * Dependency graph of a set of plugins sorted topologically in loading waves.
+ *
+ * Every plugin of a wave depends only on plugins of previous waves or on plugins that are already loaded, so plugins of a same wave can be loaded in
+ * parallel. Plugins that have a dependency that is neither loaded nor part of the graph (or that are part of a dependency cycle) are not included in any
+ * wave and are reported as unresolved.
+ */
+@Getter
+public class PluginDependencyGraph {
+    /** Plugins sorted in waves, plugins of a given wave can be loaded once all plugins of previous waves are loaded. */
+    private final List<List<Plugin>> waves = Lists.newArrayList();
+    /** Map of plugin id to the dependencies that cannot be resolved for this plugin. */
+    private final Map<String, Set<String>> unresolved = Maps.newLinkedHashMap();
+
+    /**
+     * Build the dependency graph of the given plugins.
+     *
+     * @param plugins The plugins to sort.
+     * @param loadedPluginIds The ids of the plugins that are already loaded and that can be used to fulfill dependencies.
+     */
+    public PluginDependencyGraph(Plugin[] plugins, Collection<String> loadedPluginIds) {
+        Map<String, Plugin> pluginsById = Maps.newLinkedHashMap();
+        for (Plugin plugin : plugins) {
+            pluginsById.put(plugin.getId(), plugin);
+        }
+
+        // compute for every plugin the dependencies that are not yet loaded as well as the reverse edges of the graph.
+        Map<String, Set<String>> pendingDependencies = Maps.newLinkedHashMap();
+        Map<String, Set<String>> dependents = Maps.newHashMap();
+        List<Plugin> wave = Lists.newArrayList();
+        for (Plugin plugin : pluginsById.values()) {
+            Set<String> pending = Sets.newHashSet();
+            String[] dependencies = plugin.getDescriptor().getDependencies();
+            if (dependencies != null) {
+                for (String dependency : dependencies) {
+                    if (!loadedPluginIds.contains(dependency)) {
+                        pending.add(dependency);
+                        dependents.computeIfAbsent(dependency, key -> Sets.newLinkedHashSet()).add(plugin.getId());
+                    }
+                }
+            }
+            if (pending.isEmpty()) {
+                wave.add(plugin);
+            } else {
+                pendingDependencies.put(plugin.getId(), pending);
+            }
+        }
+
+        // Kahn's algorithm, grouping plugins that are released at the same iteration in a same wave.
+        while (!wave.isEmpty()) {
+            waves.add(wave);
+            List<Plugin> nextWave = Lists.newArrayList();
+            for (Plugin plugin : wave) {
+                for (String dependentId : dependents.getOrDefault(plugin.getId(), Sets.newHashSet())) {
+                    Set<String> pending = pendingDependencies.get(dependentId);
+                    pending.remove(plugin.getId());
+                    if (pending.isEmpty()) {
+                        pendingDependencies.remove(dependentId);
+                        nextWave.add(pluginsById.get(dependentId));
+                    }
+                }
+            }
+            wave = nextWave;
+        }
+
+        unresolved.putAll(pendingDependencies);
+    }
+}
@@ -2,6 +2,7 @@ package alien4cloud.plugin;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
@@ -16,6 +17,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -67,6 +72,7 @@ public class PluginManager {
     private static final String LIB_DIRECTORY = "lib";
     private static final String UI_DIRECTORY = "ui";
     private static final String PLUGIN_DESCRIPTOR_FILE = "META-INF/plugin.yml";
+    private static final String CLASSPATH_INDEX_EXTENSION = ".classpath";
 
     @Value("${directories.alien}/plugins")
     private String pluginsDirectory; // directory in which plugins are placed so they are loaded when alien is starting - for initialization.
@@ -74,12 +80,14 @@ public class PluginManager {
     private String pluginsWorkDirectory; // directory in which alien place plugins that are loaded.
     @Value("${directories.alien}/work/plugins/ui")
     private String pluginsUiDirectory; // directory in which alien place ui files from plugins so they are available from clients.
+    @Value("${plugins.loading_threadpool_size:4}")
+    private int loadingThreadPoolSize; // maximum number of plugins contexts to create in parallel at initialization.
 
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDAO;
     @Resource
     private ApplicationContext alienContext;
-    private Map<String, ManagedPlugin> pluginContexts = Maps.newHashMap();
+    private Map<String, ManagedPlugin> pluginContexts = Maps.newConcurrentMap();
 
     private List<PluginLinker> linkers = Lists.newArrayList();
 
@@ -129,38 +137,90 @@ public class PluginManager {
     }
 
     /**
-     * Load all the plugins that have their dependencies fulfilled by loaded plugin.
+     * Load the given plugins. Plugins are sorted according to their dependencies and plugins that do not depend from each other are loaded in parallel.
+     * Plugins that have some dependencies that cannot be fulfilled are disabled.
      *
      * @param plugins the plugins to load.
      */
     private void loadPlugins(Plugin[] plugins) {
-        List<Plugin> missingDependencyPlugins = Lists.newArrayList();
-        for (Plugin plugin : plugins) {
-            // if the plugin has no unresolved dependency, load it
-            if (getMissingDependencies(plugin).size() == 0) {
-                try {
-                    loadPlugin(plugin);
-                } catch (PluginLoadingException e) {
-                    log.error("Alien server Initialization: failed to load plugin <" + plugin.getId() + ">", e);
-                    disablePlugin(plugin.getId());
-                }
-            } else {
-                missingDependencyPlugins.add(plugin);
+        PluginDependencyGraph dependencyGraph = new PluginDependencyGraph(plugins, pluginContexts.keySet());
+        Map<String, Long> loadingTimes = Maps.newConcurrentMap();
+        long start = System.currentTimeMillis();
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(loadingThreadPoolSize, plugins.length)));
+        try {
+            for (List<Plugin> wave : dependencyGraph.getWaves()) {
+                loadPluginsWave(wave, executorService, loadingTimes);
             }
+        } finally {
+            executorService.shutdown();
+        }
+        for (Entry<String, Set<String>> unresolved : dependencyGraph.getUnresolved().entrySet()) {
+            log.error("Failed to load plugin <" + unresolved.getKey() + "> as some dependencies are missing <" + unresolved.getValue() + ">");
+            disablePlugin(unresolved.getKey());
         }
-        if (missingDependencyPlugins.size() == plugins.length) {
-            // No plugins have been loaded meaning that remaining plugins are not loadable because some dependencies are missing
-            for (Plugin plugin : plugins) {
-                log.error("Failed to load plugin <" + plugin.getId() + "> as some dependencies are missing <" + getMissingDependencies(plugin) + ">");
+        logLoadingReport(dependencyGraph, loadingTimes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Load a set of plugins that do not depend from each other. Plugin spring contexts are created and started in parallel while exposure and linking
+     * of the plugins in alien4cloud is done sequentially as linkers and loading callbacks are not expected to be thread safe.
+     *
+     * @param wave The plugins to load.
+     * @param executorService The executor service used to create the plugins contexts.
+     * @param loadingTimes Map in which to register the loading time of every plugin.
+     */
+    private void loadPluginsWave(List<Plugin> wave, ExecutorService executorService, Map<String, Long> loadingTimes) {
+        ClassLoader parentClassLoader = Thread.currentThread().getContextClassLoader();
+        Map<Plugin, Future<ManagedPlugin>> futures = Maps.newLinkedHashMap();
+        for (Plugin plugin : wave) {
+            Set<String> missingDependencies = getMissingDependencies(plugin);
+            if (!missingDependencies.isEmpty()) {
+                // a dependency has failed to load in a previous wave.
+                log.error("Failed to load plugin <" + plugin.getId() + "> as some dependencies are missing <" + missingDependencies + ">");
                 disablePlugin(plugin.getId());
+                continue;
             }
-        } else {
-            if (missingDependencyPlugins.size() > 0) {
-                loadPlugins(missingDependencyPlugins.toArray(new Plugin[missingDependencyPlugins.size()]));
+            futures.put(plugin, executorService.submit(() -> {
+                long pluginStart = System.currentTimeMillis();
+                ManagedPlugin managedPlugin = createManagedPlugin(plugin, parentClassLoader);
+                loadingTimes.put(plugin.getId(), System.currentTimeMillis() - pluginStart);
+                return managedPlugin;
+            }));
+        }
+        for (Entry<Plugin, Future<ManagedPlugin>> future : futures.entrySet()) {
+            Plugin plugin = future.getKey();
+            try {
+                long pluginStart = System.currentTimeMillis();
+                registerManagedPlugin(plugin, future.getValue().get());
+                loadingTimes.merge(plugin.getId(), System.currentTimeMillis() - pluginStart, Long::sum);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Alien server Initialization: interrupted while loading plugin <" + plugin.getId() + ">", e);
+                disablePlugin(plugin.getId());
+            } catch (ExecutionException | PluginLoadingException e) {
+                log.error("Alien server Initialization: failed to load plugin <" + plugin.getId() + ">", e);
+                disablePlugin(plugin.getId());
             }
         }
     }
 
+    private void logLoadingReport(PluginDependencyGraph dependencyGraph, Map<String, Long> loadingTimes, long totalTime) {
+        StringBuilder report = new StringBuilder("Plugin loading report (").append(totalTime).append(" ms):");
+        int waveIndex = 0;
+        for (List<Plugin> wave : dependencyGraph.getWaves()) {
+            for (Plugin plugin : wave) {
+                report.append("\n  - [wave ").append(waveIndex).append("] ").append(plugin.getId()).append(": ");
+                Long loadingTime = loadingTimes.get(plugin.getId());
+                report.append(loadingTime == null || !pluginContexts.containsKey(plugin.getId()) ? "failed" : loadingTime + " ms");
+            }
+            waveIndex++;
+        }
+        for (String pluginId : dependencyGraph.getUnresolved().keySet()) {
+            report.append("\n  - ").append(pluginId).append(": not loaded (missing dependencies)");
+        }
+        log.info(report.toString());
+    }
+
     private Set<String> getMissingDependencies(Plugin plugin) {
         Set<String> missingDependencies = Sets.newHashSet();
         String[] dependencies = plugin.getDescriptor().getDependencies();
@@ -356,6 +416,7 @@ public class PluginManager {
         // try to delete the plugin dir in the repo
         try {
             FileUtil.delete(pluginPath);
+            FileUtil.delete(getPluginClasspathIndexPath(plugin.getPluginPathId()));
             FileUtil.delete(getPluginZipFilePath(pluginId));
             FileUtil.delete(pluginUiPath);
         } catch (IOException e) {
@@ -423,10 +484,50 @@ public class PluginManager {
             log.debug("Do not load plugin {} as it is already loaded.", plugin.getId());
             return;
         }
+        registerManagedPlugin(plugin, createManagedPlugin(plugin, Thread.currentThread().getContextClassLoader()));
+    }
+
+    /**
+     * Create and start the spring context of a plugin. This operation doesn't change the state of the plugin manager and can be executed concurrently for
+     * plugins that doesn't depend from each other.
+     *
+     * @param plugin The plugin for which to create the context.
+     * @param parentClassLoader The class loader to use as parent of the plugin class loader.
+     * @return The managed plugin that wraps the plugin context.
+     * @throws PluginLoadingException In case the plugin context cannot be created.
+     */
+    private ManagedPlugin createManagedPlugin(Plugin plugin, ClassLoader parentClassLoader) throws PluginLoadingException {
         try {
             Path pluginPath = getPluginPath(plugin.getPluginPathId());
             Path pluginUiPath = getPluginUiPath(plugin.getPluginPathId());
-            loadPlugin(plugin, pluginPath, pluginUiPath);
+            // get the plugin spring context, start it
+            AnnotationConfigApplicationContext pluginContext = getPluginContext(plugin, pluginPath, pluginUiPath, parentClassLoader);
+            return (ManagedPlugin) pluginContext.getBean("alien-plugin-context");
+        } catch (Exception e) {
+            log.error("Failed to load plugin <" + plugin.getId() + ">. Alien will not enable this plugin.", e);
+            throw new PluginLoadingException("Failed to load plugin [ " + plugin.getId() + " ]. " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Expose and link a plugin for which the context has been created and started.
+     *
+     * @param plugin The plugin to register.
+     * @param managedPlugin The managed plugin that wraps the plugin context.
+     * @throws PluginLoadingException In case the plugin cannot be linked.
+     */
+    private void registerManagedPlugin(Plugin plugin, ManagedPlugin managedPlugin) throws PluginLoadingException {
+        try {
+            Map<String, PluginComponentDescriptor> componentDescriptors = getPluginComponentDescriptorAsMap(plugin);
+
+            // expose plugin elements so they are available to plugins that depends from them.
+            expose(managedPlugin, componentDescriptors);
+            // register plugin elements in Alien
+            link(plugin, managedPlugin, componentDescriptors);
+
+            // install static resources to be available for the application.
+            pluginContexts.put(plugin.getId(), managedPlugin);
+
             plugin.setConfigurable(isPluginConfigurable(plugin.getId()));
             alienDAO.save(plugin);
         } catch (Exception e) {
@@ -460,50 +561,58 @@ public class PluginManager {
         return FileSystems.getDefault().getPath(pluginsWorkDirectory, pluginFileName + ".cpa");
     }
 
+    private Path getPluginClasspathIndexPath(String pluginPathId) {
+        return FileSystems.getDefault().getPath(pluginsWorkDirectory, pluginPathId + CLASSPATH_INDEX_EXTENSION);
+    }
+
     /**
-     * Actually load and link a plugin in Alien 4 Cloud.
+     * Get the classpath urls of a plugin. As the content of a plugin work directory never changes (a new path id is generated on every upload) the result
+     * of the lib directory scan is stored in an index file next to the plugin directory and reused on next restarts.
      *
-     * @param plugin The plugin the load and link.
-     * @param pluginPath The path to the directory that contains the un-zipped plugin.
-     * @param pluginUiPath The path in which the ui files are located.
-     * @throws IOException In case there is an IO issue with the file.
-     * @throws ClassNotFoundException If we cannot load the class
+     * @param plugin The plugin for which to get the classpath.
+     * @param pluginPath The real path of the directory that contains the un-zipped plugin.
+     * @return The list of urls to add to the plugin classpath.
+     * @throws IOException In case there is an IO issue while scanning the plugin directory.
      */
-    private void loadPlugin(Plugin plugin, Path pluginPath, Path pluginUiPath) throws IOException, ClassNotFoundException {
-        // get the plugin spring context, start it
-        AnnotationConfigApplicationContext pluginContext = getPluginContext(plugin, pluginPath, pluginUiPath);
-
-        ManagedPlugin managedPlugin = (ManagedPlugin) pluginContext.getBean("alien-plugin-context");
-
-        Map<String, PluginComponentDescriptor> componentDescriptors = getPluginComponentDescriptorAsMap(plugin);
-
-        // expose plugin elements so they are available to plugins that depends from them.
-        expose(managedPlugin, componentDescriptors);
-        // register plugin elements in Alien
-        link(plugin, managedPlugin, componentDescriptors);
-
-        // install static resources to be available for the application.
-        pluginContexts.put(plugin.getId(), managedPlugin);
-    }
-
-    private AnnotationConfigApplicationContext getPluginContext(Plugin plugin, Path pluginPath, Path pluginUiPath) throws IOException, ClassNotFoundException {
-        // create a class loader to manage this plugin.
+    private List<URL> getPluginClassPathUrls(Plugin plugin, Path pluginPath) throws IOException {
         final List<URL> classPathUrls = Lists.newArrayList();
-        pluginPath = pluginPath.toRealPath();
         classPathUrls.add(pluginPath.toUri().toURL());
+        Path classpathIndexPath = getPluginClasspathIndexPath(plugin.getPluginPathId());
+        if (Files.exists(classpathIndexPath)) {
+            for (String libEntry : Files.readAllLines(classpathIndexPath, StandardCharsets.UTF_8)) {
+                if (!libEntry.isEmpty()) {
+                    classPathUrls.add(pluginPath.resolve(libEntry).toUri().toURL());
+                }
+            }
+            return classPathUrls;
+        }
+
+        final List<String> libEntries = Lists.newArrayList();
         Path libPath = pluginPath.resolve(LIB_DIRECTORY);
         if (Files.exists(libPath)) {
             Files.walkFileTree(libPath, new SimpleFileVisitor<Path>() {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    file.endsWith(".jar");
+                    libEntries.add(pluginPath.relativize(file).toString());
                     classPathUrls.add(file.toUri().toURL());
                     return FileVisitResult.CONTINUE;
                 }
             });
         }
-        ClassLoader pluginClassLoader = new PluginClassloader(classPathUrls.toArray(new URL[classPathUrls.size()]),
-                Thread.currentThread().getContextClassLoader());
+        try {
+            Files.write(classpathIndexPath, libEntries, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Unable to write classpath index for plugin <" + plugin.getId() + ">, lib directory will be scanned again on next startup.", e);
+        }
+        return classPathUrls;
+    }
+
+    private AnnotationConfigApplicationContext getPluginContext(Plugin plugin, Path pluginPath, Path pluginUiPath, ClassLoader parentClassLoader)
+            throws IOException, ClassNotFoundException {
+        // create a class loader to manage this plugin.
+        pluginPath = pluginPath.toRealPath();
+        List<URL> classPathUrls = getPluginClassPathUrls(plugin, pluginPath);
+        ClassLoader pluginClassLoader = new PluginClassloader(classPathUrls.toArray(new URL[classPathUrls.size()]), parentClassLoader);
 
         // load a spring context for the plugin that will be a child of the current spring context
         AnnotationConfigApplicationContext pluginContext = new AnnotationConfigApplicationContext();
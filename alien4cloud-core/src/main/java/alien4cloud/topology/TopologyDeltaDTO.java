@@ -0,0 +1,47 @@
+package alien4cloud.topology;
+
+import java.util.List;
+import java.util.Map;
+
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
+import org.alien4cloud.tosca.model.types.CapabilityType;
+import org.alien4cloud.tosca.model.types.DataType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.model.types.PolicyType;
+import org.alien4cloud.tosca.model.types.RelationshipType;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import alien4cloud.utils.JsonPatchOperation;
+import alien4cloud.utils.TreeNode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Changes of a topology under edition since the last operation known by the client.
+ *
+ * When the client is not synchronized with the last delta computed on the server the full topology DTO is returned instead of the changes.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TopologyDeltaDTO {
+    /** The full topology DTO, only set when the client must resynchronize (other fields are then null). */
+    private TopologyDTO topologyDTO;
+    private int lastOperationIndex;
+    /** The operation that has been processed, including the id generated server side. */
+    private AbstractEditorOperation operation;
+    /** JSON patch to apply on the topology (as serialized by the rest api, so maps are arrays of entries). */
+    private List<JsonPatchOperation> topologyPatch;
+    /** Types that were not used by the topology before the operation. */
+    private Map<String, NodeType> nodeTypes;
+    private Map<String, RelationshipType> relationshipTypes;
+    private Map<String, CapabilityType> capabilityTypes;
+    private Map<String, DataType> dataTypes;
+    private Map<String, PolicyType> policyTypes;
+    /** The archive content tree, only set if changed by the operation. */
+    private TreeNode archiveContentTree;
+    private List<DependencyConflictDTO> dependencyConflicts;
+}
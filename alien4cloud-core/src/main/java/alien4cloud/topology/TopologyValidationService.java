@@ -3,18 +3,41 @@ package alien4cloud.topology;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
 import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.NodeType;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import alien4cloud.paas.wf.WorkflowsBuilderService;
+import alien4cloud.rest.utils.JsonUtil;
 import alien4cloud.topology.task.AbstractRelationshipTask;
 import alien4cloud.topology.task.AbstractTask;
 import alien4cloud.topology.task.ArtifactTask;
+import alien4cloud.topology.task.DeprecatedNodeTask;
 import alien4cloud.topology.task.EmptyTask;
 import alien4cloud.topology.task.InputArtifactTask;
 import alien4cloud.topology.task.NodeFiltersTask;
@@ -29,6 +52,7 @@ import alien4cloud.topology.validation.TopologyAbstractRelationshipValidationSer
 import alien4cloud.topology.validation.TopologyArtifactsValidationService;
 import alien4cloud.topology.validation.TopologyPropertiesValidationService;
 import alien4cloud.topology.validation.TopologyRequirementBoundsValidationServices;
+import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.context.ToscaContextual;
 import lombok.extern.slf4j.Slf4j;
 
@@ -50,6 +74,28 @@ public class TopologyValidationService {
     @Resource
     private DeprecatedNodeTypesValidationService deprecatedNodeTypesValidationService;
 
+    @Value("${topology_validation.threadpool_size:4}")
+    private int validationThreadPoolSize;
+    @Value("${topology_validation.node_cache_max_size:10000}")
+    private int nodeValidationCacheMaxSize;
+
+    /** Pool used to run the validators in parallel. */
+    private ExecutorService validationExecutor;
+    /** Cache of the properties validation results of node templates, key is a hash of the node template and of the indexed node type it is built from. */
+    private Cache<String, List<PropertiesTask>> nodePropertiesValidationCache;
+
+    @PostConstruct
+    public void init() {
+        validationExecutor = Executors.newFixedThreadPool(validationThreadPoolSize,
+                new ThreadFactoryBuilder().setNameFormat("topology-validation-%d").setDaemon(true).build());
+        nodePropertiesValidationCache = CacheBuilder.newBuilder().maximumSize(nodeValidationCacheMaxSize).build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        validationExecutor.shutdownNow();
+    }
+
     /**
      * Validate if a topology is valid for deployment configuration or not,
      * This is done before deployment configuration
@@ -75,28 +121,35 @@ public class TopologyValidationService {
             return dto;
         }
 
-        // validate the workflows
-        dto.addTasks(workflowBuilderService.validateWorkflows(topology));
+        // validate the workflows. This is done first and on the calling thread as it updates the errors of the topology workflows and depends on the
+        // workflow validation thread local flag of the caller.
+        List<WorkflowTask> workflowTasks = workflowBuilderService.validateWorkflows(topology);
 
+        // Other validators are independent and only read the topology so they are executed in parallel, results are then merged in a stable order.
+        ToscaContext.Context context = ToscaContext.get();
         // validate abstract relationships
-        dto.addTasks(topologyAbstractRelationshipValidationService.validateAbstractRelationships(topology));
-
+        Future<List<AbstractRelationshipTask>> abstractRelationshipTasks = submit(context,
+                () -> topologyAbstractRelationshipValidationService.validateAbstractRelationships(topology));
         // validate requirements lowerBounds
-        dto.addTasks(topologyRequirementBoundsValidationServices.validateRequirementsLowerBounds(topology));
-
+        Future<List<RequirementsTask>> requirementsTasks = submit(context,
+                () -> topologyRequirementBoundsValidationServices.validateRequirementsLowerBounds(topology));
         // validate the node filters for all relationships
-        dto.addTasks(nodeFilterValidationService.validateStaticRequirementFilters(topology));
-
+        Future<List<NodeFiltersTask>> nodeFiltersTasks = submit(context, () -> nodeFilterValidationService.validateStaticRequirementFilters(topology));
         // validate that all artifacts has been filled
-        dto.addTasks(topologyArtifactsValidationService.validate(topology));
-
+        Future<List<ArtifactTask>> artifactTasks = submit(context, () -> topologyArtifactsValidationService.validate(topology));
         // Add warning for deprecated nodes.
-        dto.addWarnings(deprecatedNodeTypesValidationService.validate(topology));
-
+        Future<List<DeprecatedNodeTask>> deprecatedNodeTasks = submit(context, () -> deprecatedNodeTypesValidationService.validate(topology));
         // validate required properties (properties of NodeTemplate, Relationship and Capability)
-        List<PropertiesTask> validateProperties = topologyPropertiesValidationService.validateStaticProperties(topology);
+        Future<List<PropertiesTask>> propertiesTasks = submit(context, () -> validateStaticProperties(topology));
 
-        // List<PropertiesTask> validateProperties = null;
+        dto.addTasks(workflowTasks);
+        dto.addTasks(getResult(abstractRelationshipTasks));
+        dto.addTasks(getResult(requirementsTasks));
+        dto.addTasks(getResult(nodeFiltersTasks));
+        dto.addTasks(getResult(artifactTasks));
+        dto.addWarnings(getResult(deprecatedNodeTasks));
+
+        List<PropertiesTask> validateProperties = getResult(propertiesTasks);
         if (hasOnlyPropertiesWarnings(validateProperties)) {
             dto.addWarnings(validateProperties);
         } else {
@@ -108,6 +161,87 @@ public class TopologyValidationService {
         return dto;
     }
 
+    /**
+     * Submit a validator to the validation pool. The validator is executed with a copy of the given tosca context.
+     */
+    private <T> Future<T> submit(ToscaContext.Context context, Callable<T> validator) {
+        ToscaContext.Context validatorContext = context == null ? null : context.copy();
+        return validationExecutor.submit(() -> {
+            ToscaContext.set(validatorContext);
+            try {
+                return validator.call();
+            } finally {
+                ToscaContext.destroy();
+            }
+        });
+    }
+
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Validate the static properties of the topology node by node, results are cached per node template so that only modified nodes are validated again.
+     */
+    private List<PropertiesTask> validateStaticProperties(Topology topology) {
+        List<PropertiesTask> tasks = Lists.newArrayList();
+        for (Map.Entry<String, NodeTemplate> nodeTemplateEntry : topology.getNodeTemplates().entrySet()) {
+            NodeType nodeType = ToscaContext.get(NodeType.class, nodeTemplateEntry.getValue().getType());
+            String key = getNodeValidationKey(nodeType, nodeTemplateEntry.getKey(), nodeTemplateEntry.getValue());
+            List<PropertiesTask> nodeTasks = key == null ? null : nodePropertiesValidationCache.getIfPresent(key);
+            if (nodeTasks == null) {
+                nodeTasks = Lists.newArrayList();
+                // do pass if abstract node
+                if (!nodeType.isAbstract()) {
+                    topologyPropertiesValidationService.validateNodeTemplate(nodeTasks, nodeType, nodeTemplateEntry.getValue(), nodeTemplateEntry.getKey(),
+                            true);
+                }
+                if (key != null) {
+                    nodePropertiesValidationCache.put(key, nodeTasks);
+                }
+            }
+            // cached tasks are shared so callers get copies that they can update.
+            nodeTasks.forEach(task -> tasks.add(copy(task)));
+        }
+        return tasks.isEmpty() ? null : tasks;
+    }
+
+    /**
+     * Get the cache key of the properties validation of a node template. The key depends on the node template and on the indexed node type (that is
+     * updated every time its archive is uploaded again, for example SNAPSHOT archives) rather than on the topology dependencies that may not have a hash.
+     *
+     * @return The key or null if the node template must not be cached.
+     */
+    private String getNodeValidationKey(NodeType nodeType, String nodeTemplateName, NodeTemplate nodeTemplate) {
+        if (nodeType.getLastUpdateDate() == null) {
+            // the type has not been indexed (for example types of an archive being parsed) so we cannot know if it has changed.
+            return null;
+        }
+        try {
+            return Hashing.sha1().hashString(nodeType.getId() + ":" + nodeType.getLastUpdateDate().getTime() + "/" + nodeTemplateName + "/"
+                    + JsonUtil.toString(nodeTemplate), Charsets.UTF_8).toString();
+        } catch (JsonProcessingException e) {
+            log.debug("Unable to compute validation key for node template <{}>, node will not be cached.", nodeTemplateName, e);
+            return null;
+        }
+    }
+
+    private PropertiesTask copy(PropertiesTask task) {
+        PropertiesTask copy = new PropertiesTask(task.getProperties() == null ? null : Maps.newHashMap(task.getProperties()));
+        copy.setCode(task.getCode());
+        copy.setSource(task.getSource());
+        copy.setNodeTemplateName(task.getNodeTemplateName());
+        copy.setComponent(task.getComponent());
+        return copy;
+    }
+
     private void addSource(List<AbstractTask> tasks) {
         safe(tasks).forEach(abstractTask -> abstractTask.setSource("topology"));
     }
@@ -11,10 +11,13 @@ import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.definitions.AbstractArtifact;
 import org.alien4cloud.tosca.model.templates.Topology;
 
+import alien4cloud.component.repository.ContentAddressedFileStore;
+
 public class ArtifactUtil {
 
     /**
-     * Copy csars artifacts to a new location without tosca yaml and without meta data as .git
+     * Copy csars artifacts to a new location without tosca yaml and without meta data as .git. Files are hard linked when possible so the copy doesn't
+     * duplicate the artifacts content.
      * 
      * @param originalCSARPath original csar path
      * @param newCSARPath new csar path
@@ -26,9 +29,9 @@ public class ArtifactUtil {
                 String fileName = topologyResource.getFileName().toString();
                 if (!fileName.equals(".git") && !fileName.endsWith(".yml") && !fileName.endsWith(".yaml")) {
                     if (Files.isDirectory(topologyResource)) {
-                        FileUtil.copy(topologyResource, newCSARPath.resolve(fileName));
+                        ContentAddressedFileStore.linkTree(topologyResource, newCSARPath.resolve(fileName));
                     } else {
-                        Files.copy(topologyResource, newCSARPath.resolve(fileName));
+                        ContentAddressedFileStore.linkOrCopy(topologyResource, newCSARPath.resolve(fileName));
                     }
                 }
             }
@@ -1,6 +1,5 @@
 package org.alien4cloud.alm.service;
 
-import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import java.util.Map;
@@ -14,6 +13,8 @@ import javax.inject.Inject;
 import org.alien4cloud.alm.deployment.configuration.flow.TopologyModifierSupport;
 import org.alien4cloud.alm.events.ManagedServiceResetEvent;
 import org.alien4cloud.alm.events.ManagedServiceUpdatedEvent;
+import org.alien4cloud.alm.events.ServiceDeletedEvent;
+import org.alien4cloud.alm.service.events.ServiceChangedEvent;
 import org.alien4cloud.tosca.model.templates.Capability;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
 import org.alien4cloud.tosca.model.templates.SubstitutionTarget;
@@ -25,6 +26,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.deployment.DeploymentRuntimeStateService;
 import alien4cloud.deployment.DeploymentService;
 import alien4cloud.events.DeploymentCreatedEvent;
@@ -68,11 +70,44 @@ public class ManagedServiceResourceEventService implements IPaasEventListener<Ab
     @Inject
     private ManagedServiceResourceService managedServiceResourceService;
 
+    /** Id of the service resource linked to each deployment, very few deployments are exposed as services. */
+    private final Map<String, String> serviceIdsByDeploymentId = Maps.newConcurrentMap();
+    /** Reverse index to update the deployment id of a service. */
+    private final Map<String, String> deploymentIdsByServiceId = Maps.newConcurrentMap();
+
     @PostConstruct
     public void register() {
+        GetMultipleDataResult<ServiceResource> serviceResources = alienDAO.buildQuery(ServiceResource.class).prepareSearch().search(0, Integer.MAX_VALUE);
+        if (serviceResources.getData() != null) {
+            for (ServiceResource serviceResource : serviceResources.getData()) {
+                indexService(serviceResource.getId(), serviceResource.getDeploymentId());
+            }
+        }
         paasEventService.addListener(this);
     }
 
+    private synchronized void indexService(String serviceId, String deploymentId) {
+        String previousDeploymentId = deploymentIdsByServiceId.remove(serviceId);
+        if (previousDeploymentId != null) {
+            serviceIdsByDeploymentId.remove(previousDeploymentId, serviceId);
+        }
+        if (deploymentId != null) {
+            deploymentIdsByServiceId.put(serviceId, deploymentId);
+            serviceIdsByDeploymentId.put(deploymentId, serviceId);
+        }
+    }
+
+    @EventListener
+    public void handleServiceChanged(ServiceChangedEvent event) {
+        ServiceResource serviceResource = alienDAO.findById(ServiceResource.class, event.getServiceId());
+        indexService(event.getServiceId(), serviceResource == null ? null : serviceResource.getDeploymentId());
+    }
+
+    @EventListener
+    public void handleServiceDeleted(ServiceDeletedEvent event) {
+        indexService(event.getServiceResourceId(), null);
+    }
+
     @Override
     public void eventHappened(AbstractMonitorEvent event) {
         String state = getInstanceStateFromDeploymentStatus(((PaaSDeploymentStatusMonitorEvent) event).getDeploymentStatus());
@@ -80,9 +115,12 @@ public class ManagedServiceResourceEventService implements IPaasEventListener<Ab
             return;
         }
 
-        ServiceResource serviceResource = alienDAO.buildQuery(ServiceResource.class).setFilters(fromKeyValueCouples("deploymentId", event.getDeploymentId()))
-                .prepareSearch().find();
-        if (serviceResource == null) { // No service resources matching this deployment.
+        String serviceId = serviceIdsByDeploymentId.get(event.getDeploymentId());
+        if (serviceId == null) { // No service resources matching this deployment.
+            return;
+        }
+        ServiceResource serviceResource = alienDAO.findById(ServiceResource.class, serviceId);
+        if (serviceResource == null) {
             return;
         }
 
@@ -26,6 +26,8 @@ public class ArchiveParser {
     private ToscaArchiveParser toscaArchiveParser;
     @Resource(name = "archivePostProcessor")
     private IArchivePostProcessor postProcessor;
+    @Inject
+    private ParsedImportsCache parsedImportsCache;
 
     /**
      * Parse a TOSCA archive and reuse an existing TOSCA Context. Other methods will create an independent context for the parsing.
@@ -62,13 +64,22 @@ public class ArchiveParser {
     }
 
     /**
-     * Parse only imports and of an archive file from a zip .
+     * Parse only imports and of an archive file from a zip. The result of the parsing of an unchanged archive is reused from the {@link ParsedImportsCache}.
      *
      * @param archiveFile The archive file currently zipped.
      * @return A parsing result that contains the resulting {@link CsarDependenciesBean} and eventual errors and/or warnings.
      * @throws ParsingException In case of a severe issue while parsing (incorrect yaml, no tosca file etc.)
      */
     public ParsingResult<CsarDependenciesBean> parseImports(Path archiveFile) throws ParsingException {
-        return toscaArchiveParser.parseImports(archiveFile);
+        String cacheKey = parsedImportsCache.getKey(archiveFile);
+        if (cacheKey == null) {
+            return toscaArchiveParser.parseImports(archiveFile);
+        }
+        ParsingResult<CsarDependenciesBean> parsingResult = parsedImportsCache.get(cacheKey);
+        if (parsingResult == null) {
+            parsingResult = toscaArchiveParser.parseImports(archiveFile);
+            parsedImportsCache.put(cacheKey, parsingResult);
+        }
+        return parsingResult;
     }
 }
\ No newline at end of file
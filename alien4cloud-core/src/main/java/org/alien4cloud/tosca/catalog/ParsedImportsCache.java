@@ -0,0 +1,274 @@
+package org.alien4cloud.tosca.catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.CsarDependenciesBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Longs;
+
+import alien4cloud.tosca.parser.ParsingContext;
+import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.tosca.parser.ToscaArchiveParser;
+import alien4cloud.utils.FileUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded local cache of the imports pre-parsing of the archives ({@link CsarDependenciesBean}).
+ *
+ * Entries are keyed by a hash of the paths and contents of the definition files read by the imports parsing (that includes the tosca_definitions_version of
+ * the definitions) and stored in a compact binary form on local disk so that the pre-parsing of an unchanged archive (git re-import, re-upload) skips the
+ * yaml parsing. Only results without any parsing error are cached so that errors and warnings are always reported from an actual parsing.
+ */
+@Slf4j
+@Component
+public class ParsedImportsCache {
+    /** Version of the binary format, to be incremented when the format or the import parser output changes to ignore previous entries. */
+    private static final int FORMAT_VERSION = 1;
+    private static final String ENTRY_EXTENSION = ".bin";
+    private static final String ENTRY_DEFINITIONS_KEY = "Entry-Definitions:";
+    private static final Pattern DEFINITION_FILE_PATTERN = Pattern.compile(".+\\.ya?ml");
+
+    @Value("${archive.parsing_cache.max_entries:1000}")
+    private int maxEntries;
+
+    private Path cacheDir;
+    /** Cached entries by key, the eviction of an entry removes its file. */
+    private Cache<String, Path> entries;
+
+    @Value("${directories.alien}/${directories.parsing_cache:parsing_cache}")
+    public void setCacheDir(String cacheDir) throws IOException {
+        this.cacheDir = FileUtil.createDirectoryIfNotExists(cacheDir);
+    }
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        entries = CacheBuilder.newBuilder().maximumSize(maxEntries).<String, Path> removalListener(notification -> {
+            if (notification.getCause() != RemovalCause.REPLACED) {
+                deleteEntry(notification.getValue());
+            }
+        }).build();
+        // reload the entries of the previous runs, most recently written last so that they are the last evicted.
+        List<Path> existingEntries;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            existingEntries = files.filter(path -> path.getFileName().toString().endsWith(ENTRY_EXTENSION))
+                    .sorted(Comparator.comparing(path -> path.toFile().lastModified())).collect(Collectors.toList());
+        }
+        for (Path entry : existingEntries) {
+            String fileName = entry.getFileName().toString();
+            entries.put(fileName.substring(0, fileName.length() - ENTRY_EXTENSION.length()), entry);
+        }
+    }
+
+    /**
+     * Compute the cache key of an archive.
+     *
+     * @param archive The path of the archive (zip or directory).
+     * @return The key of the archive or null if the archive cannot be read (the parsing will report the error).
+     */
+    public String getKey(Path archive) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            if (Files.isDirectory(archive)) {
+                digestDefinitions(digest, archive);
+            } else if (FileUtil.isZipFile(archive)) {
+                try (FileSystem archiveFS = FileSystems.newFileSystem(archive, null)) {
+                    digestDefinitions(digest, archiveFS.getPath(archiveFS.getSeparator()));
+                }
+            } else {
+                digestFile(digest, archive.getFileName().toString(), archive);
+            }
+            return BaseEncoding.base16().lowerCase().encode(digest.digest()) + "-" + FORMAT_VERSION;
+        } catch (Exception e) {
+            log.debug("Unable to compute hash of archive <" + archive + ">, parsing cache will not be used.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Digest the relative paths and the contents of the files read by the imports parsing: the TOSCA meta file and its entry definitions or the root
+     * definitions. Other files (like artifacts) are not read.
+     */
+    private static void digestDefinitions(MessageDigest digest, Path archiveRoot) throws IOException {
+        List<Path> definitionFiles = Lists.newArrayList();
+        Path toscaMetaPath = archiveRoot.resolve(ToscaArchiveParser.TOSCA_META_FOLDER_NAME).resolve(ToscaArchiveParser.TOSCA_META_FILE_NAME);
+        if (Files.isRegularFile(toscaMetaPath)) {
+            definitionFiles.add(toscaMetaPath);
+            String entryDefinitions = getEntryDefinitions(toscaMetaPath);
+            if (entryDefinitions != null && Files.isRegularFile(archiveRoot.resolve(entryDefinitions))) {
+                definitionFiles.add(archiveRoot.resolve(entryDefinitions));
+            }
+        } else {
+            try (Stream<Path> rootFiles = Files.list(archiveRoot)) {
+                rootFiles.filter(path -> DEFINITION_FILE_PATTERN.matcher(path.getFileName().toString()).matches()).filter(Files::isRegularFile)
+                        .sorted(Comparator.comparing(path -> path.getFileName().toString())).forEach(definitionFiles::add);
+            }
+        }
+        for (Path definitionFile : definitionFiles) {
+            digestFile(digest, archiveRoot.relativize(definitionFile).toString(), definitionFile);
+        }
+    }
+
+    private static String getEntryDefinitions(Path toscaMetaPath) throws IOException {
+        for (String line : Files.readAllLines(toscaMetaPath, StandardCharsets.UTF_8)) {
+            if (line.startsWith(ENTRY_DEFINITIONS_KEY)) {
+                return line.substring(ENTRY_DEFINITIONS_KEY.length()).trim().replaceAll("^[\"']|[\"']$", "");
+            }
+        }
+        return null;
+    }
+
+    private static void digestFile(MessageDigest digest, String relativePath, Path file) throws IOException {
+        digest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(Longs.toByteArray(Files.size(file)));
+        try (InputStream data = Files.newInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = data.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Get the cached imports parsing result of an archive.
+     *
+     * @param key The key of the archive as returned by {@link #getKey(Path)}.
+     * @return A new parsing result instance or null if the archive is not in cache.
+     */
+    public ParsingResult<CsarDependenciesBean> get(String key) {
+        Path entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                entries.invalidate(key);
+                return null;
+            }
+            ParsingContext context = new ParsingContext(readNullableString(input));
+            CsarDependenciesBean csarDependenciesBean = new CsarDependenciesBean();
+            csarDependenciesBean.setSelf(readDependency(input));
+            int dependenciesCount = input.readInt();
+            if (dependenciesCount >= 0) {
+                Set<CSARDependency> dependencies = Sets.newHashSetWithExpectedSize(dependenciesCount);
+                for (int i = 0; i < dependenciesCount; i++) {
+                    dependencies.add(readDependency(input));
+                }
+                csarDependenciesBean.setDependencies(dependencies);
+            }
+            return new ParsingResult<>(csarDependenciesBean, context);
+        } catch (IOException e) {
+            log.warn("Unable to read parsing cache entry <{}>, archive will be parsed again: {}", entry, e.getMessage());
+            entries.invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Cache the imports parsing result of an archive. The result is ignored if it contains any parsing error.
+     *
+     * @param key The key of the archive as returned by {@link #getKey(Path)}.
+     * @param parsingResult The imports parsing result.
+     */
+    public void put(String key, ParsingResult<CsarDependenciesBean> parsingResult) {
+        if (parsingResult.getResult() == null || !parsingResult.getContext().getParsingErrors().isEmpty()) {
+            return;
+        }
+        CsarDependenciesBean csarDependenciesBean = parsingResult.getResult();
+        Path entry = cacheDir.resolve(key + ENTRY_EXTENSION);
+        try {
+            Path tmpPath = Files.createTempFile(cacheDir, "entry", null);
+            try {
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpPath)))) {
+                    output.writeInt(FORMAT_VERSION);
+                    writeNullableString(output, parsingResult.getContext().getFileName());
+                    writeDependency(output, csarDependenciesBean.getSelf());
+                    if (csarDependenciesBean.getDependencies() == null) {
+                        output.writeInt(-1);
+                    } else {
+                        output.writeInt(csarDependenciesBean.getDependencies().size());
+                        for (CSARDependency dependency : csarDependenciesBean.getDependencies()) {
+                            writeDependency(output, dependency);
+                        }
+                    }
+                }
+                Files.move(tmpPath, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmpPath);
+            }
+            entries.put(key, entry);
+        } catch (IOException e) {
+            log.warn("Unable to write parsing cache entry <{}>: {}", entry, e.getMessage());
+        }
+    }
+
+    private static void writeDependency(DataOutputStream output, CSARDependency dependency) throws IOException {
+        writeNullableString(output, dependency.getName());
+        writeNullableString(output, dependency.getVersion());
+        writeNullableString(output, dependency.getHash());
+    }
+
+    private static CSARDependency readDependency(DataInputStream input) throws IOException {
+        // name and version setters reject null values so only set the values that were actually parsed.
+        CSARDependency dependency = new CSARDependency();
+        String name = readNullableString(input);
+        if (name != null) {
+            dependency.setName(name);
+        }
+        String version = readNullableString(input);
+        if (version != null) {
+            dependency.setVersion(version);
+        }
+        dependency.setHash(readNullableString(input));
+        return dependency;
+    }
+
+    private static void writeNullableString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void deleteEntry(Path entry) {
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            log.warn("Unable to delete parsing cache entry <{}>: {}", entry, e.getMessage());
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.metrics.tophits.TopHits;
 import org.elasticsearch.search.aggregations.metrics.tophits.TopHitsBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortOrder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -34,15 +35,14 @@ import static alien4cloud.utils.AlienUtils.safe;
  * This abstract class allows to search tosca indexed elements (Csar, AbstractToscaType, Topology) as they all follow the same search query logic.
  */
 public abstract class AbstractToscaIndexSearchService<T> {
+    /** Sort the elements from the latest version using the sort key computed when the version is indexed. */
+    protected static final SortBuilder LATEST_VERSION_SORT = new FieldSortBuilder("nestedVersion.sortKey").order(SortOrder.DESC).unmappedType("string");
+
     @Resource(name = "alien-es-dao")
     protected IGenericSearchDAO alienDAO;
 
     public FacetedSearchResult search(Class<? extends T> clazz, String query, Integer size, Map<String, String[]> filters) {
-        TopHitsBuilder topHitAggregation = AggregationBuilders.topHits("highest_version").setSize(1)
-                .addSort(new FieldSortBuilder("nestedVersion.majorVersion").order(SortOrder.DESC))
-                .addSort(new FieldSortBuilder("nestedVersion.minorVersion").order(SortOrder.DESC))
-                .addSort(new FieldSortBuilder("nestedVersion.incrementalVersion").order(SortOrder.DESC))
-                .addSort(new FieldSortBuilder("nestedVersion.qualifier").order(SortOrder.DESC).missing("_first"));
+        TopHitsBuilder topHitAggregation = AggregationBuilders.topHits("highest_version").setSize(1).addSort(LATEST_VERSION_SORT);
 
         AggregationBuilder aggregation = AggregationBuilders.terms("query_aggregation").field(getAggregationField()).size(size)
                 .subAggregation(topHitAggregation);
@@ -1,6 +1,10 @@
 package org.alien4cloud.tosca.catalog.index;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+
+import org.alien4cloud.tosca.model.CSARDependency;
 
 import alien4cloud.exception.NotFoundException;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
@@ -53,6 +57,17 @@ public interface IToscaTypeSearchService extends ICSARRepositorySearchService {
      */
     <T extends AbstractToscaType> T findByIdOrFail(Class<T> elementType, String toscaTypeId);
 
+    /**
+     * Get multiple elements from defined dependencies using a single query.
+     *
+     * @param elementClass The element class.
+     * @param elementIds The TOSCA element ids of the elements to fetch (without archive version).
+     * @param dependencies A list of CSAR in which the elements may be defined.
+     * @return A map of element id to the element found in the dependencies (elements that are not found are not in the map).
+     */
+    <T extends AbstractToscaType> Map<String, T> getElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Set<CSARDependency> dependencies);
+
     /**
      * Find the most recent element from a given id.
      *
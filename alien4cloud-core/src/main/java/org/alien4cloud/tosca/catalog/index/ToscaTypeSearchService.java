@@ -3,7 +3,6 @@ package org.alien4cloud.tosca.catalog.index;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.exception.NotFoundException;
-import alien4cloud.utils.VersionUtil;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.model.CSARDependency;
@@ -13,20 +12,20 @@ import org.alien4cloud.tosca.model.types.NodeType;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
-import org.elasticsearch.search.sort.FieldSortBuilder;
-import org.elasticsearch.search.sort.SortOrder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.common.collect.Maps;
+
 import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 import static alien4cloud.dao.FilterUtil.singleKeyFilter;
 
@@ -84,12 +83,7 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
     @Override
     public <T extends AbstractToscaType> T findMostRecent(Class<T> elementType, String elementId) {
         return searchDAO.buildQuery(elementType).setFilters(fromKeyValueCouples("rawElementId", elementId)).prepareSearch()
-                .alterSearchRequestBuilder(
-                        searchRequestBuilder -> searchRequestBuilder.addSort(new FieldSortBuilder("nestedVersion.majorVersion").order(SortOrder.DESC))
-                                .addSort(new FieldSortBuilder("nestedVersion.minorVersion").order(SortOrder.DESC))
-                                .addSort(new FieldSortBuilder("nestedVersion.incrementalVersion").order(SortOrder.DESC))
-                                .addSort(new FieldSortBuilder("nestedVersion.qualifier").order(SortOrder.DESC).missing("_first")))
-                .find();
+                .alterSearchRequestBuilder(searchRequestBuilder -> searchRequestBuilder.addSort(LATEST_VERSION_SORT)).find();
     }
 
     @Override
@@ -130,14 +124,7 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
     }
 
     private <T extends AbstractToscaType> T getLatestVersionOfElement(Class<T> elementClass, QueryBuilder queryBuilder) {
-        List<T> elements = searchDAO.customFindAll(elementClass, queryBuilder);
-        if (elements != null && !elements.isEmpty()) {
-            Collections.sort(elements,
-                    (left, right) -> VersionUtil.parseVersion(left.getArchiveVersion()).compareTo(VersionUtil.parseVersion(right.getArchiveVersion())));
-            return elements.get(elements.size() - 1);
-        } else {
-            return null;
-        }
+        return searchDAO.customFind(elementClass, queryBuilder, LATEST_VERSION_SORT);
     }
 
     @Override
@@ -158,6 +145,26 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
         return getLatestVersionOfElement(elementClass, boolQueryBuilder);
     }
 
+    @Override
+    public <T extends AbstractToscaType> Map<String, T> getElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Set<CSARDependency> dependencies) {
+        Map<String, T> elements = Maps.newHashMap();
+        if (dependencies == null || dependencies.isEmpty() || elementIds == null || elementIds.isEmpty()) {
+            return elements;
+        }
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery().must(getDependencyQuery(dependencies))
+                .must(QueryBuilders.termsQuery("rawElementId", elementIds));
+        List<T> results = searchDAO.customFindAll(elementClass, boolQueryBuilder);
+        if (results != null) {
+            // keep the latest version of every element as done for single element queries.
+            for (T element : results) {
+                elements.merge(element.getElementId(), element,
+                        (left, right) -> left.getNestedVersion().getSortKey().compareTo(right.getNestedVersion().getSortKey()) >= 0 ? left : right);
+            }
+        }
+        return elements;
+    }
+
     @Override
     public <T extends AbstractToscaType> T getRequiredElementInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies)
             throws NotFoundException {
@@ -8,6 +8,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 
+import javax.annotation.Resource;
+
 import org.alien4cloud.tosca.editor.EditionContextManager;
 import org.alien4cloud.tosca.model.Csar;
 import org.springframework.beans.factory.annotation.Required;
@@ -15,6 +17,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.FileSystemUtils;
 
+import alien4cloud.component.repository.ContentAddressedFileStore;
 import alien4cloud.component.repository.exception.CSARDirectoryCreationFailureException;
 import alien4cloud.component.repository.exception.CSARStorageFailureException;
 import alien4cloud.exception.NotFoundException;
@@ -39,6 +42,8 @@ public class CsarFileRepository implements ICsarRepositry {
     public static final String CSAR_EXTENSION = "csar";
     private static final String EXPANDED = "expanded";
     private Path rootPath;
+    @Resource
+    private ContentAddressedFileStore contentStore;
 
     @Required
     @Value("${directories.alien}/${directories.csar_repository}")
@@ -103,8 +108,15 @@ public class CsarFileRepository implements ICsarRepositry {
                 Files.copy(tmpPath, csarTargetPath);
                 FileUtil.unzip(csarTargetPath, expandedPath);
             } else {
-                FileUtil.copy(tmpPath, expandedPath, StandardCopyOption.REPLACE_EXISTING);
+                // files are linked rather than copied so that archives created from other archives share their artifacts. The tree is built aside and then
+                // renamed so that the expanded directory is never seen partially linked. The zip is created lazily when the archive is downloaded.
+                Path expandingPath = csarDirectoryPath.resolve("expanded.tmp");
+                FileUtil.delete(expandingPath);
+                ContentAddressedFileStore.linkTree(tmpPath, expandingPath);
+                FileUtil.delete(expandedPath);
+                Files.move(expandingPath, expandedPath, StandardCopyOption.ATOMIC_MOVE);
             }
+            contentStore.storeTree(expandedPath);
             DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve("content.json"));
         } catch (IOException e) {
             throw new CSARStorageFailureException(
@@ -0,0 +1,17 @@
+package org.alien4cloud.tosca.editor;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A value derived from the edition context state, valid as long as the key computed from the current state equals the key of the entry.
+ *
+ * @param <K> The type of the key.
+ * @param <V> The type of the cached value.
+ */
+@Getter
+@AllArgsConstructor
+public class EditionCacheEntry<K, V> {
+    private final K key;
+    private final V value;
+}
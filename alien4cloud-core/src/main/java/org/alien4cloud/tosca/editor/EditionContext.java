@@ -1,7 +1,10 @@
 package org.alien4cloud.tosca.editor;
 
+import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.templates.Topology;
+import alien4cloud.topology.AbstractTopologyDTO;
+import alien4cloud.topology.DependencyConflictDTO;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.utils.DirectoryJSonWalker;
 import alien4cloud.utils.TreeNode;
@@ -15,6 +18,7 @@ import org.alien4cloud.tosca.editor.operations.RecoverTopologyOperation;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Topology edition context is related to a specific topology that is currently under edition.
@@ -49,6 +53,12 @@ public class EditionContext {
     private TreeNode archiveContentTree;
     /** List of the operations generated to recover the topology */
     private RecoverTopologyOperation recoveryOperation;
+    /** State of the topology as sent in the last edition delta, null when the next delta request requires a full resynchronization. */
+    private EditionSnapshot snapshot;
+    /** Types used by the topology, valid as long as the dependencies and the types of the templates don't change. */
+    private EditionCacheEntry<List<Set<?>>, AbstractTopologyDTO<Topology>> typesCache;
+    /** Transitive dependency conflicts, valid as long as the dependencies don't change. */
+    private EditionCacheEntry<Set<CSARDependency>, List<DependencyConflictDTO>> dependencyConflictsCache;
 
     /**
      * Create a new instance of a topology edition context from an existing topology.
@@ -76,6 +86,9 @@ public class EditionContext {
         this.topology = editionClone;
         this.toscaContext = new ToscaContext.Context(topology.getDependencies());
         this.archiveContentTree = DirectoryJSonWalker.getDirectoryTree(this.localGitPath);
+        this.snapshot = null;
+        this.typesCache = null;
+        this.dependencyConflictsCache = null;
     }
 
     public void refreshContentTree() throws IOException {
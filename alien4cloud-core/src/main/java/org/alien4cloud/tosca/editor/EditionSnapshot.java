@@ -0,0 +1,24 @@
+package org.alien4cloud.tosca.editor;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * State of the topology as last sent to the clients in an edition delta, used to compute the next delta.
+ */
+@Getter
+@AllArgsConstructor
+public class EditionSnapshot {
+    /** Id of the last operation applied on the topology when the snapshot was taken (null if there was no operation). */
+    private final String operationId;
+    /** The topology as serialized for the clients. */
+    private final JsonNode topology;
+    /** Keys of the types used by the topology (prefixed by the kind of type). */
+    private final Set<String> typeKeys;
+    /** The archive content tree as serialized for the clients. */
+    private final JsonNode archiveContentTree;
+}
@@ -45,6 +45,7 @@ import alien4cloud.exception.NotFoundException;
 import alien4cloud.git.SimpleGitHistoryEntry;
 import alien4cloud.security.AuthorizationUtil;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyDeltaDTO;
 import alien4cloud.topology.TopologyService;
 import alien4cloud.topology.TopologyServiceCore;
 import alien4cloud.topology.TopologyValidationResult;
@@ -190,6 +191,31 @@ public class EditorService {
         }
     }
 
+    /**
+     * Execute an operation and return the changes of the topology rather than the full topology DTO.
+     *
+     * @param topologyId The id of the topology under edition.
+     * @param operation The operation to execute.
+     * @return The delta to apply on the client state, that contains the full topology DTO if the client must resynchronize.
+     */
+    public <T extends AbstractEditorOperation> TopologyDeltaDTO executeDelta(String topologyId, T operation) {
+        // the id of the last operation known by the client
+        String baseOperationId = operation.getPreviousOperationId();
+        try {
+            initContext(topologyId, operation);
+
+            // check for topology potential recovery
+            checkTopologyRecovery();
+
+            doExecute(operation);
+
+            return dtoBuilder.buildTopologyDeltaDTO(EditionContextManager.get(), operation, baseOperationId);
+        } finally {
+            EditionContextManager.get().setCurrentOperation(null);
+            editionContextManager.destroy();
+        }
+    }
+
     private <T extends AbstractEditorOperation> void doExecute(T operation) {
         operation.setAuthor(AuthorizationUtil.getCurrentUser().getUserId());
 
@@ -369,6 +395,8 @@ public class EditorService {
             // Topology has changed means that dependencies might have changed, must update the dependencies
             csarService.setDependencies(topology.getId(), topology.getDependencies());
             topologySubstitutionServive.updateSubstitutionType(topology, EditionContextManager.getCsar());
+            // the topology changed without any operation, next delta requests must resynchronize
+            EditionContextManager.get().setSnapshot(null);
             return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
         } catch (IOException e) {
             throw new EditorIOException("Error while pulling remote branch into local repository for " + topologyId + " for user " + username, e);
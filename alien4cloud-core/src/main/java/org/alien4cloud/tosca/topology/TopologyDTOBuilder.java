@@ -5,16 +5,22 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.alien4cloud.tosca.editor.EditionCacheEntry;
 import org.alien4cloud.tosca.editor.EditionContext;
+import org.alien4cloud.tosca.editor.EditionSnapshot;
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.definitions.CapabilityDefinition;
 import org.alien4cloud.tosca.model.definitions.RequirementDefinition;
 import org.alien4cloud.tosca.model.templates.AbstractTemplate;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.PolicyTemplate;
+import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
 import org.alien4cloud.tosca.model.types.CapabilityType;
@@ -26,13 +32,20 @@ import org.alien4cloud.tosca.utils.DataTypesFetcher;
 import org.apache.commons.collections4.MapUtils;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
+import alien4cloud.rest.utils.RestMapper;
 import alien4cloud.topology.AbstractTopologyDTO;
 import alien4cloud.topology.DependencyConflictDTO;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyDeltaDTO;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.context.ToscaContextual;
+import alien4cloud.utils.JsonDiff;
 
 import static alien4cloud.utils.AlienUtils.safe;
 
@@ -41,6 +54,8 @@ import static alien4cloud.utils.AlienUtils.safe;
  */
 @Service
 public class TopologyDTOBuilder {
+    /** Mapper used to serialize the topology as the rest api does in order to compute the edition deltas. */
+    private static final ObjectMapper REST_MAPPER = new RestMapper();
 
     /**
      * Build a topology dto (topology and all used types) out of a topology.
@@ -50,7 +65,11 @@ public class TopologyDTOBuilder {
     @ToscaContextual
     public TopologyDTO buildTopologyDTO(EditionContext context) {
         TopologyDTO topologyDTO = new TopologyDTO();
-        initTopologyDTO(context.getTopology(), topologyDTO);
+        initTopologyDTO(context, topologyDTO);
+        return completeTopologyDTO(context, topologyDTO);
+    }
+
+    private TopologyDTO completeTopologyDTO(EditionContext context, TopologyDTO topologyDTO) {
         topologyDTO.setArchiveContentTree(context.getArchiveContentTree());
         topologyDTO.setLastOperationIndex(context.getLastOperationIndex());
         topologyDTO.setOperations(context.getOperations());
@@ -62,6 +81,69 @@ public class TopologyDTOBuilder {
         return topologyDTO;
     }
 
+    /**
+     * Build the changes of the topology under edition since the last operation known by the client.
+     *
+     * The topology is compared to the snapshot of the previous delta. If the snapshot is not the state known by the client (first request, undo, save,
+     * concurrent full requests...) the full topology dto is returned in the delta so the client can resynchronize.
+     *
+     * @param context The edition context from which to build the delta.
+     * @param operation The operation that has just been processed.
+     * @param baseOperationId The id of the last operation known by the client before the operation.
+     * @return The delta to apply on the client state.
+     */
+    @ToscaContextual
+    public TopologyDeltaDTO buildTopologyDeltaDTO(EditionContext context, AbstractEditorOperation operation, String baseOperationId) {
+        TopologyDeltaDTO deltaDTO = new TopologyDeltaDTO();
+        deltaDTO.setLastOperationIndex(context.getLastOperationIndex());
+        deltaDTO.setOperation(operation);
+
+        TopologyDTO topologyDTO = initTopologyDTO(context, new TopologyDTO());
+        Map<String, Set<String>> typeKeys = getTypeKeys(topologyDTO);
+        JsonNode topology = REST_MAPPER.valueToTree(context.getTopology());
+        JsonNode archiveContentTree = REST_MAPPER.valueToTree(context.getArchiveContentTree());
+
+        EditionSnapshot snapshot = context.getSnapshot();
+        if (snapshot == null || !Objects.equals(snapshot.getOperationId(), baseOperationId)) {
+            deltaDTO.setTopologyDTO(completeTopologyDTO(context, topologyDTO));
+        } else {
+            deltaDTO.setTopologyPatch(JsonDiff.diff(snapshot.getTopology(), topology));
+            deltaDTO.setNodeTypes(getNewTypes(topologyDTO.getNodeTypes(), snapshot.getTypeKeys().get(NodeType.class.getSimpleName())));
+            deltaDTO.setRelationshipTypes(
+                    getNewTypes(topologyDTO.getRelationshipTypes(), snapshot.getTypeKeys().get(RelationshipType.class.getSimpleName())));
+            deltaDTO.setCapabilityTypes(getNewTypes(topologyDTO.getCapabilityTypes(), snapshot.getTypeKeys().get(CapabilityType.class.getSimpleName())));
+            deltaDTO.setDataTypes(getNewTypes(topologyDTO.getDataTypes(), snapshot.getTypeKeys().get(DataType.class.getSimpleName())));
+            deltaDTO.setPolicyTypes(getNewTypes(topologyDTO.getPolicyTypes(), snapshot.getTypeKeys().get(PolicyType.class.getSimpleName())));
+            if (!archiveContentTree.equals(snapshot.getArchiveContentTree())) {
+                deltaDTO.setArchiveContentTree(context.getArchiveContentTree());
+            }
+            deltaDTO.setDependencyConflicts(getDependencyConflictDTOs(context));
+        }
+
+        context.setSnapshot(new EditionSnapshot(operation.getId(), topology, typeKeys, archiveContentTree));
+        return deltaDTO;
+    }
+
+    private Map<String, Set<String>> getTypeKeys(TopologyDTO topologyDTO) {
+        Map<String, Set<String>> typeKeys = Maps.newHashMap();
+        typeKeys.put(NodeType.class.getSimpleName(), Sets.newHashSet(safe(topologyDTO.getNodeTypes()).keySet()));
+        typeKeys.put(RelationshipType.class.getSimpleName(), Sets.newHashSet(safe(topologyDTO.getRelationshipTypes()).keySet()));
+        typeKeys.put(CapabilityType.class.getSimpleName(), Sets.newHashSet(safe(topologyDTO.getCapabilityTypes()).keySet()));
+        typeKeys.put(DataType.class.getSimpleName(), Sets.newHashSet(safe(topologyDTO.getDataTypes()).keySet()));
+        typeKeys.put(PolicyType.class.getSimpleName(), Sets.newHashSet(safe(topologyDTO.getPolicyTypes()).keySet()));
+        return typeKeys;
+    }
+
+    private <T> Map<String, T> getNewTypes(Map<String, T> types, Set<String> knownKeys) {
+        Map<String, T> newTypes = Maps.newHashMap();
+        for (Map.Entry<String, T> type : safe(types).entrySet()) {
+            if (!knownKeys.contains(type.getKey())) {
+                newTypes.put(type.getKey(), type.getValue());
+            }
+        }
+        return newTypes;
+    }
+
     /**
      * Compute a list of transitive dependency conflicts from the Context.
      * 
@@ -69,8 +151,17 @@ public class TopologyDTOBuilder {
      * @return a list of dependency conflicts.
      */
     private List<DependencyConflictDTO> getDependencyConflictDTOs(EditionContext context) {
+        Set<CSARDependency> dependencies = Sets.newHashSet(context.getToscaContext().getDependencies());
+        EditionCacheEntry<Set<CSARDependency>, List<DependencyConflictDTO>> cached = context.getDependencyConflictsCache();
+        if (cached == null || !cached.getKey().equals(dependencies)) {
+            cached = new EditionCacheEntry<>(dependencies, computeDependencyConflictDTOs(dependencies));
+            context.setDependencyConflictsCache(cached);
+        }
+        return Lists.newArrayList(cached.getValue());
+    }
+
+    private List<DependencyConflictDTO> computeDependencyConflictDTOs(Set<CSARDependency> dependencies) {
         // Generate a map with all transitive dependency conflict for each dependency in the context.
-        final Set<CSARDependency> dependencies = context.getToscaContext().getDependencies();
         Map<CSARDependency, Set<CSARDependency>> dependencyConflictMap = new HashMap<>();
         dependencies.forEach(source -> {
             final Set<CSARDependency> transitives = Optional.ofNullable(ToscaContext.get().getArchive(source.getName(), source.getVersion()).getDependencies())
@@ -89,6 +180,49 @@ public class TopologyDTOBuilder {
         return dependencyConflicts;
     }
 
+    /**
+     * Initialize the topology DTO of an edition context. Types are computed again only when the dependencies or the types of the templates changed.
+     *
+     * @param context The edition context.
+     * @param topologyDTO The topology DTO to initialize.
+     * @return The given topology DTO initialized with the topology and all the types it uses.
+     */
+    private TopologyDTO initTopologyDTO(EditionContext context, TopologyDTO topologyDTO) {
+        Topology topology = context.getTopology();
+        List<Set<?>> typesKey = getTypesKey(context);
+        EditionCacheEntry<List<Set<?>>, AbstractTopologyDTO<Topology>> cached = context.getTypesCache();
+        if (cached == null || !cached.getKey().equals(typesKey)) {
+            cached = new EditionCacheEntry<>(typesKey, initTopologyDTO(topology, new AbstractTopologyDTO<Topology>()));
+            context.setTypesCache(cached);
+        }
+        // copy the maps so that the cached types cannot be modified through the dto
+        AbstractTopologyDTO<Topology> types = cached.getValue();
+        topologyDTO.setTopology(topology);
+        topologyDTO.setNodeTypes(Maps.newHashMap(types.getNodeTypes()));
+        topologyDTO.setRelationshipTypes(Maps.newHashMap(types.getRelationshipTypes()));
+        topologyDTO.setCapabilityTypes(Maps.newHashMap(types.getCapabilityTypes()));
+        topologyDTO.setDataTypes(Maps.newHashMap(types.getDataTypes()));
+        topologyDTO.setPolicyTypes(Maps.newHashMap(types.getPolicyTypes()));
+        return topologyDTO;
+    }
+
+    /**
+     * The types of a topology only depend on its dependencies and on the types of its node, relationship and policy templates.
+     */
+    private List<Set<?>> getTypesKey(EditionContext context) {
+        Topology topology = context.getTopology();
+        Set<String> nodeTypes = Sets.newHashSet();
+        Set<String> relationshipTypes = Sets.newHashSet();
+        for (NodeTemplate nodeTemplate : safe(topology.getNodeTemplates()).values()) {
+            nodeTypes.add(nodeTemplate.getType());
+            for (RelationshipTemplate relationshipTemplate : safe(nodeTemplate.getRelationships()).values()) {
+                relationshipTypes.add(relationshipTemplate.getType());
+            }
+        }
+        Set<String> policyTypes = safe(topology.getPolicies()).values().stream().map(PolicyTemplate::getType).collect(Collectors.toSet());
+        return Lists.<Set<?>> newArrayList(Sets.newHashSet(context.getToscaContext().getDependencies()), nodeTypes, relationshipTypes, policyTypes);
+    }
+
     /**
      * Initialize an abstract topology DTO by filling in the node types, relationship types, capability types etc. from the context.
      * 
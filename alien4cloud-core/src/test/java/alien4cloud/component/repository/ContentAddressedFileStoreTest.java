@@ -0,0 +1,87 @@
+package alien4cloud.component.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ContentAddressedFileStoreTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ContentAddressedFileStore contentStore;
+    private Path repositoryPath;
+
+    @Before
+    public void setup() throws IOException {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("unix"));
+        contentStore = new ContentAddressedFileStore();
+        contentStore.setRootPath(temporaryFolder.newFolder("store").getAbsolutePath());
+        repositoryPath = temporaryFolder.newFolder("repository").toPath();
+    }
+
+    private int getLinksCount(Path file) throws IOException {
+        return (Integer) Files.getAttribute(file, "unix:nlink");
+    }
+
+    private void store(String content, Path target) throws IOException {
+        contentStore.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), target);
+    }
+
+    @Test
+    public void sameContentShouldBeStoredOnce() throws IOException {
+        Path first = repositoryPath.resolve("first");
+        Path second = repositoryPath.resolve("second");
+        store("content", first);
+        store("content", second);
+        store("other content", repositoryPath.resolve("third"));
+
+        Assert.assertTrue(Files.isSameFile(first, second));
+        Assert.assertEquals("content", new String(Files.readAllBytes(second), StandardCharsets.UTF_8));
+        // two references and the blob
+        Assert.assertEquals(3, getLinksCount(first));
+    }
+
+    @Test
+    public void storedTreeShouldShareContentExceptDefinitions() throws IOException {
+        Path archive = Files.createDirectories(repositoryPath.resolve("archive"));
+        Files.write(archive.resolve("artifact.sh"), "echo".getBytes(StandardCharsets.UTF_8));
+        Files.write(archive.resolve("topology.yml"), "tosca".getBytes(StandardCharsets.UTF_8));
+        contentStore.storeTree(archive);
+
+        Path copy = repositoryPath.resolve("copy");
+        ContentAddressedFileStore.linkTree(archive, copy);
+        Assert.assertTrue(Files.isSameFile(archive.resolve("artifact.sh"), copy.resolve("artifact.sh")));
+        Assert.assertEquals(3, getLinksCount(copy.resolve("artifact.sh")));
+        Assert.assertEquals(1, getLinksCount(copy.resolve("topology.yml")));
+    }
+
+    @Test
+    public void unreferencedContentShouldBeCollected() throws IOException {
+        ReflectionTestUtils.setField(contentStore, "gcGracePeriodMinutes", -1L);
+        Path file = repositoryPath.resolve("file");
+        store("content", file);
+        Path copy = repositoryPath.resolve("copy");
+        ContentAddressedFileStore.linkOrCopy(file, copy);
+
+        Files.delete(file);
+        contentStore.collectGarbage();
+        Assert.assertEquals(2, getLinksCount(copy));
+
+        Files.delete(copy);
+        contentStore.collectGarbage();
+        // the blob has been deleted so the content is stored again
+        store("content", file);
+        Assert.assertEquals(2, getLinksCount(file));
+    }
+}
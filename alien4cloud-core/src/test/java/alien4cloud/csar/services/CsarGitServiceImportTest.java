@@ -0,0 +1,200 @@
+package alien4cloud.csar.services;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alien4cloud.tosca.catalog.ArchiveUploadService;
+import org.alien4cloud.tosca.catalog.index.CsarService;
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.CsarDependenciesBean;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.git.RepositoryManager;
+import alien4cloud.model.components.CSARSource;
+import alien4cloud.model.git.CsarGitCheckoutLocation;
+import alien4cloud.model.git.CsarGitRepository;
+import alien4cloud.tosca.parser.ParsingContext;
+import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.tosca.parser.impl.ErrorCode;
+import alien4cloud.utils.AlienConstants;
+import alien4cloud.utils.FileUtil;
+
+/**
+ * Check that only the modified archives of a git location (and the archives that depend on them) are imported again.
+ */
+public class CsarGitServiceImportTest {
+    private static final String VERSION = "1.0.0-SNAPSHOT";
+
+    private Path rootPath = Paths.get("target/csar_git_import_test");
+    private Path remoteGitPath = rootPath.resolve("remote");
+
+    private CsarGitService csarGitService;
+    private CsarService csarService;
+    private CsarGitRepository csarGitRepository;
+    /** Names of the archives uploaded to the catalog. */
+    private List<String> uploadedArchives = Collections.synchronizedList(Lists.newArrayList());
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        FileUtil.delete(rootPath);
+        // the types archive is used by the topology archive, the other archive is independent
+        RepositoryManager.create(remoteGitPath, null);
+        writeArchive("types", "types");
+        writeArchive("topology", "topology");
+        writeArchive("other", "other");
+        RepositoryManager.commitAll(remoteGitPath, "test", "test@alien4cloud.org", "initial commit");
+
+        CsarGitCheckoutLocation location = new CsarGitCheckoutLocation();
+        location.setBranchId("master");
+        csarGitRepository = new CsarGitRepository();
+        csarGitRepository.setId("repository");
+        csarGitRepository.setRepositoryUrl(remoteGitPath.toAbsolutePath().toString());
+        csarGitRepository.setImportLocations(Lists.newArrayList(location));
+        csarGitRepository.setStoredLocally(true);
+        CsarGitRepositoryService csarGitRepositoryService = mock(CsarGitRepositoryService.class);
+        when(csarGitRepositoryService.getOrFail("repository")).thenReturn(csarGitRepository);
+
+        CsarFinderService csarFinderService = mock(CsarFinderService.class);
+        when(csarFinderService.prepare(any(Path.class))).thenAnswer(invocation -> {
+            Path archiveGitRoot = (Path) invocation.getArguments()[0];
+            return Sets.newHashSet(archiveGitRoot.resolve("types"), archiveGitRoot.resolve("topology"), archiveGitRoot.resolve("other"));
+        });
+
+        ArchiveUploadService uploadService = mock(ArchiveUploadService.class);
+        when(uploadService.preParsing(anySetOf(Path.class), anyList())).thenAnswer(invocation -> {
+            Path archivePath = ((Set<Path>) invocation.getArguments()[0]).iterator().next();
+            return preParse(archivePath);
+        });
+        when(uploadService.upload(any(Path.class), eq(CSARSource.GIT), eq(AlienConstants.GLOBAL_WORKSPACE_ID))).thenAnswer(invocation -> {
+            Path archivePath = (Path) invocation.getArguments()[0];
+            String name = archivePath.getFileName().toString();
+            uploadedArchives.add(name);
+            ParsingResult<Csar> result = new ParsingResult<>();
+            result.setResult(new Csar(name, VERSION));
+            result.setContext(new ParsingContext("types.yml"));
+            return result;
+        });
+
+        csarService = mock(CsarService.class);
+        when(csarService.get(anyString(), eq(VERSION))).thenAnswer(invocation -> new Csar((String) invocation.getArguments()[0], VERSION));
+
+        csarGitService = new CsarGitService();
+        csarGitService.setTempDirPath(rootPath.resolve("work").toString());
+        ReflectionTestUtils.setField(csarGitService, "csarGitRepositoryService", csarGitRepositoryService);
+        ReflectionTestUtils.setField(csarGitService, "csarFinderService", csarFinderService);
+        ReflectionTestUtils.setField(csarGitService, "uploadService", uploadService);
+        ReflectionTestUtils.setField(csarGitService, "alienDAO", mock(IGenericSearchDAO.class));
+        ReflectionTestUtils.setField(csarGitService, "csarService", csarService);
+        ReflectionTestUtils.setField(csarGitService, "importThreadPoolSize", 2);
+        csarGitService.init();
+    }
+
+    @After
+    public void tearDown() {
+        csarGitService.destroy();
+    }
+
+    private void writeArchive(String name, String content) throws IOException {
+        Files.createDirectories(remoteGitPath.resolve(name));
+        Files.write(remoteGitPath.resolve(name).resolve("types.yml"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Pre-parse an archive as the upload service would do: the archive is named after its folder, the topology depends on the types. */
+    private Map<CSARDependency, CsarDependenciesBean> preParse(Path archivePath) {
+        CsarDependenciesBean csarBean = new CsarDependenciesBean();
+        csarBean.setPath(archivePath);
+        csarBean.setSelf(new CSARDependency(archivePath.getFileName().toString(), VERSION));
+        if ("topology".equals(csarBean.getSelf().getName())) {
+            csarBean.setDependencies(Sets.newHashSet(new CSARDependency("types", VERSION)));
+        }
+        Map<CSARDependency, CsarDependenciesBean> csarBeans = Maps.newHashMap();
+        csarBeans.put(csarBean.getSelf(), csarBean);
+        return csarBeans;
+    }
+
+    private List<ParsingResult<Csar>> importArchives() {
+        uploadedArchives.clear();
+        return csarGitService.importFromGitRepository("repository");
+    }
+
+    private int countAlreadyIndexed(List<ParsingResult<Csar>> results) {
+        int count = 0;
+        for (ParsingResult<Csar> result : results) {
+            if (result.getResult() == null && ErrorCode.CSAR_ALREADY_INDEXED.equals(result.getContext().getParsingErrors().get(0).getErrorCode())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void onlyModifiedArchivesAndTheirDependentsShouldBeImportedAgain() throws Exception {
+        List<ParsingResult<Csar>> results = importArchives();
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(Sets.newHashSet("types", "topology", "other"), Sets.newHashSet(uploadedArchives));
+        // the dependency is imported before the archive that uses it
+        Assert.assertTrue(uploadedArchives.indexOf("types") < uploadedArchives.indexOf("topology"));
+        Map<String, String> importedTreeIds = csarGitRepository.getImportLocations().get(0).getImportedArchiveTreeIds();
+        Assert.assertEquals(Sets.newHashSet("types", "topology", "other"), importedTreeIds.keySet());
+
+        // nothing changed
+        results = importArchives();
+        Assert.assertTrue(uploadedArchives.isEmpty());
+        Assert.assertEquals(3, countAlreadyIndexed(results));
+
+        // the unchanged topology depends on the modified types so it is imported again, the other archive is not
+        writeArchive("types", "modified types");
+        RepositoryManager.commitAll(remoteGitPath, "test", "test@alien4cloud.org", "update types");
+        results = importArchives();
+        Assert.assertEquals(Lists.newArrayList("types", "topology"), uploadedArchives);
+        Assert.assertEquals(1, countAlreadyIndexed(results));
+        Map<String, String> updatedTreeIds = csarGitRepository.getImportLocations().get(0).getImportedArchiveTreeIds();
+        Assert.assertNotEquals(importedTreeIds.get("types"), updatedTreeIds.get("types"));
+        Assert.assertEquals(importedTreeIds.get("topology"), updatedTreeIds.get("topology"));
+        Assert.assertEquals(importedTreeIds.get("other"), updatedTreeIds.get("other"));
+    }
+
+    @Test
+    public void archiveMissingFromCatalogShouldBeImportedAgain() throws Exception {
+        importArchives();
+        // the archive has been deleted from the catalog
+        when(csarService.get("other", VERSION)).thenReturn(null);
+        importArchives();
+        Assert.assertEquals(Lists.newArrayList("other"), uploadedArchives);
+    }
+
+    @Test
+    public void failedArchiveShouldBeImportedAgain() throws Exception {
+        importArchives();
+        // simulate a failed import of the archive
+        csarGitRepository.getImportLocations().get(0).getImportedArchiveTreeIds().remove("other");
+        importArchives();
+        Assert.assertEquals(Lists.newArrayList("other"), uploadedArchives);
+    }
+}
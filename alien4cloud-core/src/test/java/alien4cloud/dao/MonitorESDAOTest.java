@@ -0,0 +1,139 @@
+package alien4cloud.dao;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import org.elasticsearch.mapping.MappingBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.model.deployment.DeploymentTopology;
+import alien4cloud.paas.model.PaaSDeploymentLog;
+import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
+
+@SuppressWarnings("unchecked")
+public class MonitorESDAOTest {
+    private MonitorESDAO monitorESDAO;
+
+    @Before
+    public void setup() {
+        monitorESDAO = new MonitorESDAO();
+        // register the indices as done on initialization, without elasticsearch.
+        monitorESDAO.getTypesToIndices().put(MappingBuilder.indexTypeFromClass(DeploymentTopology.class), "deployedtopologies");
+        monitorESDAO.getTypesToIndices().put(MappingBuilder.indexTypeFromClass(PaaSDeploymentStatusMonitorEvent.class), "deploymentmonitorevents-all");
+        monitorESDAO.getTypesToIndices().put(MappingBuilder.indexTypeFromClass(PaaSDeploymentLog.class), "paasdeploymentlog-all");
+        Map<String, String> partitionedAliases = (Map<String, String>) ReflectionTestUtils.getField(monitorESDAO, "partitionedAliases");
+        partitionedAliases.put("deploymentmonitorevents-all", "deploymentmonitorevents");
+        partitionedAliases.put("paasdeploymentlog-all", "paasdeploymentlog");
+        setPartitionDays(1);
+    }
+
+    private void setPartitionDays(int partitionDays) {
+        ReflectionTestUtils.setField(monitorESDAO, "partitionDays", partitionDays);
+    }
+
+    private static Date date(String isoInstant) {
+        return Date.from(Instant.parse(isoInstant));
+    }
+
+    private static PaaSDeploymentStatusMonitorEvent event(String isoInstant) {
+        PaaSDeploymentStatusMonitorEvent event = new PaaSDeploymentStatusMonitorEvent();
+        event.setDate(isoInstant == null ? 0 : date(isoInstant).getTime());
+        return event;
+    }
+
+    private static PaaSDeploymentLog deploymentLog(String isoInstant) {
+        PaaSDeploymentLog deploymentLog = new PaaSDeploymentLog();
+        deploymentLog.setTimestamp(isoInstant == null ? null : date(isoInstant));
+        return deploymentLog;
+    }
+
+    @Test
+    public void dailyPartitionShouldBeTheUtcDayOfTheData() {
+        Assert.assertEquals("deploymentmonitorevents-2018.03.10", monitorESDAO.getIndexForData(event("2018-03-10T00:00:00Z")));
+        Assert.assertEquals("deploymentmonitorevents-2018.03.10", monitorESDAO.getIndexForData(event("2018-03-10T23:59:59.999Z")));
+        Assert.assertEquals("deploymentmonitorevents-2018.03.11", monitorESDAO.getIndexForData(event("2018-03-11T00:00:00Z")));
+        Assert.assertEquals("paasdeploymentlog-2018.12.31", monitorESDAO.getIndexForData(deploymentLog("2018-12-31T23:59:59Z")));
+        Assert.assertEquals("paasdeploymentlog-2019.01.01", monitorESDAO.getIndexForData(deploymentLog("2019-01-01T00:00:00Z")));
+    }
+
+    @Test
+    public void weeklyPartitionShouldStartOnMonday() {
+        setPartitionDays(7);
+        // 2018-03-05 is a monday
+        Assert.assertEquals("deploymentmonitorevents-2018.03.05", monitorESDAO.getIndexForData(event("2018-03-05T00:00:00Z")));
+        Assert.assertEquals("deploymentmonitorevents-2018.03.05", monitorESDAO.getIndexForData(event("2018-03-11T23:59:59.999Z")));
+        Assert.assertEquals("deploymentmonitorevents-2018.03.12", monitorESDAO.getIndexForData(event("2018-03-12T00:00:00Z")));
+        // weeks overlapping two years
+        Assert.assertEquals("paasdeploymentlog-2018.12.31", monitorESDAO.getIndexForData(deploymentLog("2019-01-06T12:00:00Z")));
+    }
+
+    @Test
+    public void undatedDataShouldBeWrittenInCurrentPartition() {
+        String today = "paasdeploymentlog-" + LocalDate.now(ZoneOffset.UTC).toString().replace('-', '.');
+        String written = monitorESDAO.getIndexForData(deploymentLog(null));
+        // the test may run around midnight
+        String tomorrow = "paasdeploymentlog-" + LocalDate.now(ZoneOffset.UTC).plusDays(1).toString().replace('-', '.');
+        Assert.assertTrue(written.equals(today) || written.equals(tomorrow));
+        Assert.assertTrue(monitorESDAO.getIndexForData(event(null)).startsWith("deploymentmonitorevents-"));
+    }
+
+    @Test
+    public void notPartitionedTypeShouldUseItsIndex() {
+        Assert.assertEquals("deployedtopologies", monitorESDAO.getIndexForData(new DeploymentTopology()));
+        Assert.assertArrayEquals(new String[] { "deployedtopologies" },
+                monitorESDAO.getIndicesForType(DeploymentTopology.class, date("2018-03-10T00:00:00Z"), date("2018-03-11T00:00:00Z")));
+    }
+
+    @Test
+    public void rangeShouldTargetOverlappingPartitions() {
+        Assert.assertArrayEquals(
+                new String[] { "deploymentmonitorevents-2018.03.10", "deploymentmonitorevents-2018.03.11", "deploymentmonitorevents-2018.03.12" },
+                monitorESDAO.getIndicesForType(PaaSDeploymentStatusMonitorEvent.class, date("2018-03-10T23:00:00Z"), date("2018-03-12T00:00:00Z")));
+        // a range inside a single partition
+        Assert.assertArrayEquals(new String[] { "deploymentmonitorevents-2018.03.10" },
+                monitorESDAO.getIndicesForType(PaaSDeploymentStatusMonitorEvent.class, date("2018-03-10T01:00:00Z"), date("2018-03-10T02:00:00Z")));
+
+        setPartitionDays(7);
+        Assert.assertArrayEquals(new String[] { "deploymentmonitorevents-2018.03.05", "deploymentmonitorevents-2018.03.12" },
+                monitorESDAO.getIndicesForType(PaaSDeploymentStatusMonitorEvent.class, date("2018-03-11T00:00:00Z"), date("2018-03-12T00:00:00Z")));
+    }
+
+    @Test
+    public void rangeWithoutStartShouldTargetAlias() {
+        Assert.assertArrayEquals(new String[] { "paasdeploymentlog-all" }, monitorESDAO.getIndicesForType(PaaSDeploymentLog.class, null, null));
+        Assert.assertArrayEquals(new String[] { "paasdeploymentlog-all" },
+                monitorESDAO.getIndicesForType(PaaSDeploymentLog.class, null, date("2018-03-10T00:00:00Z")));
+    }
+
+    @Test
+    public void rangeWithoutEndShouldTargetPartitionsUntilNow() {
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        String[] indices = monitorESDAO.getIndicesForType(PaaSDeploymentLog.class, Date.from(yesterday.atStartOfDay(ZoneOffset.UTC).toInstant()), null);
+        Assert.assertTrue(indices.length >= 2);
+        Assert.assertEquals("paasdeploymentlog-" + yesterday.toString().replace('-', '.'), indices[0]);
+    }
+
+    @Test
+    public void emptyOrLargeRangeShouldTargetAlias() {
+        // start after end
+        Assert.assertArrayEquals(new String[] { "paasdeploymentlog-all" },
+                monitorESDAO.getIndicesForType(PaaSDeploymentLog.class, date("2018-03-12T00:00:00Z"), date("2018-03-10T00:00:00Z")));
+        // more partitions than the max searched partitions
+        Assert.assertArrayEquals(new String[] { "paasdeploymentlog-all" },
+                monitorESDAO.getIndicesForType(PaaSDeploymentLog.class, date("2018-01-01T00:00:00Z"), date("2018-12-31T00:00:00Z")));
+    }
+
+    @Test
+    public void legacyIndexShouldBeSearchedWithPartitions() {
+        ((Set<String>) ReflectionTestUtils.getField(monitorESDAO, "legacyIndices")).add("paasdeploymentlog");
+        Assert.assertArrayEquals(new String[] { "paasdeploymentlog", "paasdeploymentlog-2018.03.10" },
+                monitorESDAO.getIndicesForType(PaaSDeploymentLog.class, date("2018-03-10T00:00:00Z"), date("2018-03-10T12:00:00Z")));
+    }
+}
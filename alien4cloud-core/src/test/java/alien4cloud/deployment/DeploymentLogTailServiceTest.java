@@ -0,0 +1,53 @@
+package alien4cloud.deployment;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.deployment.model.DeploymentLogTail;
+import alien4cloud.paas.model.PaaSDeploymentLog;
+
+public class DeploymentLogTailServiceTest {
+    private DeploymentLogTailService deploymentLogTailService;
+
+    @Before
+    public void setup() {
+        deploymentLogTailService = new DeploymentLogTailService();
+        ReflectionTestUtils.setField(deploymentLogTailService, "bufferSize", 3);
+        ReflectionTestUtils.setField(deploymentLogTailService, "maxDeployments", 10);
+        ReflectionTestUtils.setField(deploymentLogTailService, "expireAfterAccess", 10);
+        deploymentLogTailService.init();
+    }
+
+    private PaaSDeploymentLog deploymentLog(String deploymentId, String content) {
+        PaaSDeploymentLog deploymentLog = new PaaSDeploymentLog();
+        deploymentLog.setDeploymentId(deploymentId);
+        deploymentLog.setContent(content);
+        return deploymentLog;
+    }
+
+    @Test
+    public void tailShouldKeepLastLogsOfEachDeployment() {
+        List<DeploymentLogTail> notified = Lists.newArrayList();
+        deploymentLogTailService.addListener((deploymentId, newLogs) -> notified.add(newLogs));
+
+        Assert.assertEquals(0, deploymentLogTailService.getTail("d1").getLastSequence());
+        deploymentLogTailService.append(Lists.newArrayList(deploymentLog("d1", "1"), deploymentLog("d2", "1"), deploymentLog("d1", "2")));
+        deploymentLogTailService.append(Lists.newArrayList(deploymentLog("d1", "3"), deploymentLog("d1", "4")));
+
+        DeploymentLogTail tail = deploymentLogTailService.getTail("d1");
+        Assert.assertEquals(4, tail.getLastSequence());
+        Assert.assertEquals(Lists.newArrayList("2", "3", "4"), Lists.transform(tail.getLogs(), PaaSDeploymentLog::getContent));
+        Assert.assertEquals(1, deploymentLogTailService.getTail("d2").getLastSequence());
+
+        // one notification per deployment and per append
+        Assert.assertEquals(3, notified.size());
+        Assert.assertEquals(4, notified.get(2).getLastSequence());
+        Assert.assertEquals(2, notified.get(2).getLogs().size());
+    }
+}
@@ -0,0 +1,121 @@
+package alien4cloud.deployment;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.paas.model.PaaSDeploymentLog;
+
+public class DeploymentLoggingServiceTest {
+    private DeploymentLoggingService deploymentLoggingService;
+    private IGenericSearchDAO alienMonitorDao;
+    private DeploymentLogTailService deploymentLogTailService;
+
+    @Before
+    public void setup() {
+        alienMonitorDao = mock(IGenericSearchDAO.class);
+        deploymentLogTailService = mock(DeploymentLogTailService.class);
+        deploymentLoggingService = new DeploymentLoggingService();
+        ReflectionTestUtils.setField(deploymentLoggingService, "alienMonitorDao", alienMonitorDao);
+        ReflectionTestUtils.setField(deploymentLoggingService, "deploymentLogTailService", deploymentLogTailService);
+        ReflectionTestUtils.setField(deploymentLoggingService, "isEnabled", false);
+        ReflectionTestUtils.setField(deploymentLoggingService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(deploymentLoggingService, "bulkSize", 2);
+        ReflectionTestUtils.setField(deploymentLoggingService, "flushIntervalMs", 3600000L);
+    }
+
+    private PaaSDeploymentLog deploymentLog(String content) {
+        PaaSDeploymentLog deploymentLog = new PaaSDeploymentLog();
+        deploymentLog.setDeploymentId("deployment");
+        deploymentLog.setContent(content);
+        return deploymentLog;
+    }
+
+    private void save(int count) {
+        for (int i = 0; i < count; i++) {
+            deploymentLoggingService.save(deploymentLog(String.valueOf(i)));
+        }
+    }
+
+    /** Run the writer on the calling thread, as the service is not running the writer exits once the queue is drained. */
+    private void drain() {
+        ReflectionTestUtils.invokeMethod(deploymentLoggingService, "writeLoop");
+    }
+
+    @Test
+    public void logsShouldBeDroppedWhenQueueIsFull() {
+        ReflectionTestUtils.setField(deploymentLoggingService, "queueCapacity", 3);
+        save(5);
+        Assert.assertEquals(2, deploymentLoggingService.getDroppedLogsCount());
+        // dropped logs are not sent to the tail
+        verify(deploymentLogTailService, times(3)).append(any(List.class));
+
+        drain();
+        // logs can be queued again once written
+        save(1);
+        Assert.assertEquals(2, deploymentLoggingService.getDroppedLogsCount());
+    }
+
+    @Test
+    public void logsShouldBeIndexedInBulks() {
+        save(5);
+        drain();
+
+        ArgumentCaptor<PaaSDeploymentLog[]> captor = ArgumentCaptor.forClass(PaaSDeploymentLog[].class);
+        verify(alienMonitorDao, times(3)).save(captor.capture());
+        Assert.assertEquals(2, captor.getAllValues().get(0).length);
+        Assert.assertEquals(2, captor.getAllValues().get(1).length);
+        Assert.assertEquals("4", captor.getAllValues().get(2)[0].getContent());
+    }
+
+    @Test
+    public void failedBulkShouldBeRetriedOnce() {
+        doThrow(new RuntimeException("unavailable")).doNothing().when(alienMonitorDao).save(any(PaaSDeploymentLog[].class));
+        save(2);
+        drain();
+        verify(alienMonitorDao, times(2)).save(any(PaaSDeploymentLog[].class));
+        Assert.assertEquals(0, deploymentLoggingService.getDroppedLogsCount());
+    }
+
+    @Test
+    public void logsShouldBeDroppedWhenRetryFails() {
+        doThrow(new RuntimeException("unavailable")).when(alienMonitorDao).save(any(PaaSDeploymentLog[].class));
+        save(3);
+        drain();
+        verify(alienMonitorDao, times(4)).save(any(PaaSDeploymentLog[].class));
+        Assert.assertEquals(3, deploymentLoggingService.getDroppedLogsCount());
+    }
+
+    @Test
+    public void fullBulkShouldWakeUpWriterAndQueueShouldBeDrainedOnShutdown() throws InterruptedException {
+        doNothing().when(alienMonitorDao).save(any(PaaSDeploymentLog[].class));
+        deploymentLoggingService.init();
+        try {
+            // let the writer park for the (long) flush interval
+            Thread.sleep(100);
+            save(1);
+            Thread.sleep(100);
+            verify(alienMonitorDao, never()).save(any(PaaSDeploymentLog[].class));
+            save(1);
+            verify(alienMonitorDao, timeout(5000)).save(any(PaaSDeploymentLog[].class));
+            save(1);
+        } finally {
+            deploymentLoggingService.destroy();
+        }
+        verify(alienMonitorDao, times(2)).save(any(PaaSDeploymentLog[].class));
+    }
+}
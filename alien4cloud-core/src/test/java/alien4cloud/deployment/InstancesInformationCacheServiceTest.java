@@ -0,0 +1,198 @@
+package alien4cloud.deployment;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.deployment.model.InstancesInformationSnapshot;
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.model.deployment.DeploymentTopology;
+import alien4cloud.orchestrators.plugin.IOrchestratorPlugin;
+import alien4cloud.paas.IPaaSCallback;
+import alien4cloud.paas.IPaasEventService;
+import alien4cloud.paas.OrchestratorPluginService;
+import alien4cloud.paas.model.InstanceInformation;
+import alien4cloud.paas.model.InstanceStatus;
+import alien4cloud.paas.model.PaaSInstanceStateMonitorEvent;
+import alien4cloud.paas.model.PaaSTopologyDeploymentContext;
+
+@SuppressWarnings("unchecked")
+public class InstancesInformationCacheServiceTest {
+    private InstancesInformationCacheService instancesInformationCacheService;
+    private IOrchestratorPlugin orchestratorPlugin;
+    private Deployment deployment;
+
+    @Before
+    public void setup() {
+        IGenericSearchDAO alienMonitorDao = mock(IGenericSearchDAO.class);
+        when(alienMonitorDao.findById(eq(DeploymentTopology.class), anyString())).thenReturn(new DeploymentTopology());
+        DeploymentContextService deploymentContextService = mock(DeploymentContextService.class);
+        when(deploymentContextService.buildRuntimeTopologyDeploymentContext(any(), any(), any(), any())).thenReturn(new PaaSTopologyDeploymentContext());
+        orchestratorPlugin = mock(IOrchestratorPlugin.class);
+        OrchestratorPluginService orchestratorPluginService = mock(OrchestratorPluginService.class);
+        when(orchestratorPluginService.getOrFail("orchestrator")).thenReturn(orchestratorPlugin);
+
+        instancesInformationCacheService = new InstancesInformationCacheService();
+        ReflectionTestUtils.setField(instancesInformationCacheService, "alienMonitorDao", alienMonitorDao);
+        ReflectionTestUtils.setField(instancesInformationCacheService, "orchestratorPluginService", orchestratorPluginService);
+        ReflectionTestUtils.setField(instancesInformationCacheService, "deploymentContextService", deploymentContextService);
+        ReflectionTestUtils.setField(instancesInformationCacheService, "deploymentTopologyService", mock(DeploymentTopologyService.class));
+        ReflectionTestUtils.setField(instancesInformationCacheService, "paasEventService", mock(IPaasEventService.class));
+        ReflectionTestUtils.setField(instancesInformationCacheService, "maxStalenessMs", 30000L);
+        ReflectionTestUtils.setField(instancesInformationCacheService, "fetchTimeoutMs", 120000L);
+        ReflectionTestUtils.setField(instancesInformationCacheService, "expireAfterAccessMinutes", 60L);
+        instancesInformationCacheService.init();
+
+        deployment = new Deployment();
+        deployment.setId("deployment");
+        deployment.setOrchestratorId("orchestrator");
+    }
+
+    /** Callback that keeps the received snapshots. */
+    private static class SnapshotCallback implements IPaaSCallback<InstancesInformationSnapshot> {
+        private final List<InstancesInformationSnapshot> snapshots = Lists.newArrayList();
+        private final List<Throwable> failures = Lists.newArrayList();
+
+        @Override
+        public void onSuccess(InstancesInformationSnapshot data) {
+            snapshots.add(data);
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            failures.add(throwable);
+        }
+    }
+
+    private static Map<String, Map<String, InstanceInformation>> instancesInformation(String state) {
+        Map<String, InstanceInformation> nodeInstances = Maps.newHashMap();
+        nodeInstances.put("0", new InstanceInformation(state, InstanceStatus.PROCESSING, Maps.newHashMap(), Maps.newHashMap(), Maps.newHashMap()));
+        Map<String, Map<String, InstanceInformation>> instancesInformation = Maps.newHashMap();
+        instancesInformation.put("compute", nodeInstances);
+        return instancesInformation;
+    }
+
+    private static PaaSInstanceStateMonitorEvent instanceStateEvent(String state) {
+        PaaSInstanceStateMonitorEvent event = new PaaSInstanceStateMonitorEvent();
+        event.setDeploymentId("deployment");
+        event.setNodeTemplateId("compute");
+        event.setInstanceId("0");
+        event.setInstanceState(state);
+        event.setInstanceStatus(InstanceStatus.SUCCESS);
+        return event;
+    }
+
+    private static String state(InstancesInformationSnapshot snapshot) {
+        return snapshot.getInstancesInformation().get("compute").get("0").getState();
+    }
+
+    /** Get the callbacks of all the calls performed to the orchestrator. */
+    private List<IPaaSCallback<Map<String, Map<String, InstanceInformation>>>> orchestratorCalls(int expectedCalls) {
+        ArgumentCaptor<IPaaSCallback> captor = ArgumentCaptor.forClass(IPaaSCallback.class);
+        verify(orchestratorPlugin, times(expectedCalls)).getInstancesInformation(any(PaaSTopologyDeploymentContext.class), captor.capture());
+        List<IPaaSCallback<Map<String, Map<String, InstanceInformation>>>> callbacks = Lists.newArrayList();
+        for (IPaaSCallback callback : captor.getAllValues()) {
+            callbacks.add(callback);
+        }
+        return callbacks;
+    }
+
+    @Test
+    public void concurrentRequestsShouldBeCoalesced() {
+        SnapshotCallback first = new SnapshotCallback();
+        SnapshotCallback second = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, first);
+        instancesInformationCacheService.get(deployment, second);
+
+        orchestratorCalls(1).get(0).onSuccess(instancesInformation("started"));
+        Assert.assertEquals(1, first.snapshots.size());
+        Assert.assertSame(first.snapshots.get(0), second.snapshots.get(0));
+
+        // fresh instances information are served from the cache
+        SnapshotCallback third = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, third);
+        Assert.assertSame(first.snapshots.get(0), third.snapshots.get(0));
+        orchestratorCalls(1);
+    }
+
+    @Test
+    public void eventReceivedDuringCallShouldBeAppliedOnResult() {
+        SnapshotCallback callback = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, callback);
+        instancesInformationCacheService.eventHappened(instanceStateEvent("started"));
+
+        // the orchestrator answers with the state it had before the event
+        orchestratorCalls(1).get(0).onSuccess(instancesInformation("starting"));
+        Assert.assertEquals("started", state(callback.snapshots.get(0)));
+
+        SnapshotCallback cachedCallback = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, cachedCallback);
+        Assert.assertEquals("started", state(cachedCallback.snapshots.get(0)));
+    }
+
+    @Test
+    public void eventReceivedAfterCallShouldUpdateSnapshot() {
+        SnapshotCallback callback = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, callback);
+        orchestratorCalls(1).get(0).onSuccess(instancesInformation("starting"));
+        instancesInformationCacheService.eventHappened(instanceStateEvent("started"));
+
+        SnapshotCallback cachedCallback = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, cachedCallback);
+        InstancesInformationSnapshot snapshot = cachedCallback.snapshots.get(0);
+        Assert.assertEquals("started", state(snapshot));
+        Assert.assertTrue(snapshot.getVersion() > callback.snapshots.get(0).getVersion());
+        // snapshots are never modified
+        Assert.assertEquals("starting", state(callback.snapshots.get(0)));
+    }
+
+    @Test
+    public void evictionShouldTriggerNewCall() {
+        SnapshotCallback callback = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, callback);
+        instancesInformationCacheService.evict("deployment");
+        // the result of a call issued before the eviction is sent to its callbacks but not cached
+        orchestratorCalls(1).get(0).onSuccess(instancesInformation("starting"));
+        Assert.assertEquals("starting", state(callback.snapshots.get(0)));
+
+        SnapshotCallback afterEviction = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, afterEviction);
+        Assert.assertTrue(afterEviction.snapshots.isEmpty());
+        orchestratorCalls(2).get(1).onSuccess(instancesInformation("started"));
+        Assert.assertEquals("started", state(afterEviction.snapshots.get(0)));
+    }
+
+    @Test
+    public void timedOutCallShouldBeFailedAndIgnored() {
+        ReflectionTestUtils.setField(instancesInformationCacheService, "fetchTimeoutMs", -1L);
+        SnapshotCallback timedOut = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, timedOut);
+        SnapshotCallback callback = new SnapshotCallback();
+        instancesInformationCacheService.get(deployment, callback);
+        Assert.assertEquals(1, timedOut.failures.size());
+
+        List<IPaaSCallback<Map<String, Map<String, InstanceInformation>>>> calls = orchestratorCalls(2);
+        calls.get(1).onSuccess(instancesInformation("started"));
+        calls.get(0).onSuccess(instancesInformation("starting"));
+        Assert.assertEquals(1, callback.snapshots.size());
+        Assert.assertEquals("started", state(callback.snapshots.get(0)));
+        Assert.assertTrue(timedOut.snapshots.isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package alien4cloud.deployment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.hash.Hashing;
+import com.sun.net.httpserver.HttpServer;
+
+public class RemoteArtifactCacheTest {
+    private static final String CONTENT = "echo hello";
+    private static final String ETAG = "\"v1\"";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private RemoteArtifactCache cache;
+    private HttpServer server;
+    private final AtomicInteger downloadsCount = new AtomicInteger();
+    private final AtomicBoolean deleted = new AtomicBoolean();
+    private String baseUrl;
+
+    @Before
+    public void setup() throws IOException {
+        cache = new RemoteArtifactCache();
+        cache.setCacheDir(temporaryFolder.newFolder("cache").getAbsolutePath());
+        ReflectionTestUtils.setField(cache, "connectTimeout", 5000);
+        ReflectionTestUtils.setField(cache, "readTimeout", 5000);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/artifact.sh", exchange -> {
+            if (deleted.get()) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                downloadsCount.incrementAndGet();
+                byte[] content = CONTENT.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                exchange.sendResponseHeaders(200, content.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(content);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void cleanup() {
+        server.stop(0);
+    }
+
+    @Test
+    public void notModifiedArtifactShouldNotBeDownloadedAgain() throws IOException {
+        Path first = cache.get(new URL(baseUrl + "/artifact.sh"));
+        Path second = cache.get(new URL(baseUrl + "/artifact.sh"));
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(CONTENT, new String(Files.readAllBytes(second), StandardCharsets.UTF_8));
+        Assert.assertEquals(1, downloadsCount.get());
+    }
+
+    @Test
+    public void corruptedCachedFileShouldBeDownloadedAgain() throws IOException {
+        Path first = cache.get(new URL(baseUrl + "/artifact.sh"));
+        Files.write(first, "corrupted".getBytes(StandardCharsets.UTF_8));
+        Path second = cache.get(new URL(baseUrl + "/artifact.sh"));
+
+        Assert.assertEquals(CONTENT, new String(Files.readAllBytes(second), StandardCharsets.UTF_8));
+        Assert.assertEquals(2, downloadsCount.get());
+    }
+
+    @Test
+    public void artifactMatchingExpectedChecksumShouldBeResolved() throws IOException {
+        String checksum = Hashing.sha256().hashString(CONTENT, StandardCharsets.UTF_8).toString();
+        Path path = cache.get(new URL(baseUrl + "/artifact.sh#sha256=" + checksum));
+
+        Assert.assertEquals(CONTENT, new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IOException.class)
+    public void artifactNotMatchingExpectedChecksumShouldFail() throws IOException {
+        cache.get(new URL(baseUrl + "/artifact.sh#sha256=0000"));
+    }
+
+    @Test
+    public void deletedArtifactShouldFailEvenIfCached() throws IOException {
+        cache.get(new URL(baseUrl + "/artifact.sh"));
+        deleted.set(true);
+        try {
+            cache.get(new URL(baseUrl + "/artifact.sh"));
+            Assert.fail("A deleted artifact must not be resolved from the cache");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("404"));
+        }
+    }
+
+    @Test
+    public void unreachableServerShouldUseCachedArtifact() throws IOException {
+        Path first = cache.get(new URL(baseUrl + "/artifact.sh"));
+        server.stop(0);
+        Path second = cache.get(new URL(baseUrl + "/artifact.sh"));
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(CONTENT, new String(Files.readAllBytes(second), StandardCharsets.UTF_8));
+    }
+}
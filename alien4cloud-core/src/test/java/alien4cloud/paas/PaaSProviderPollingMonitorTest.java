@@ -26,7 +26,6 @@ import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
 import alien4cloud.paas.model.PaaSMessageMonitorEvent;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Test monitoring events recovery
@@ -46,7 +45,6 @@ public class PaaSProviderPollingMonitorTest {
     ElasticSearchClient esclient;
     Client nodeClient;
 
-    private final ObjectMapper jsonMapper = new ObjectMapper();
     private Date latestEventDate = null;
     private Date latestStatusDate = null;
 
@@ -59,7 +57,6 @@ public class PaaSProviderPollingMonitorTest {
 
         // add 2 message events
         PaaSMessageMonitorEvent eventMessage = null;
-        String eventJson = null;
         int i = 0;
 
         for (i = 0; i < 2; i++) {
@@ -69,10 +66,7 @@ public class PaaSProviderPollingMonitorTest {
             eventMessage.setDate(addMinutesToDate(2, new Date()).getTime());
             eventMessage.setDeploymentId("ID-XXX+" + i);
             eventMessage.setMessage("EVENT MESSAGE : " + eventMessage.getDate());
-            eventJson = jsonMapper.writeValueAsString(eventMessage);
-
-            nodeClient.prepareIndex("deploymentmonitorevents", PaaSMessageMonitorEvent.class.getSimpleName().toLowerCase()).setSource(eventJson)
-                    .setRefresh(true).execute().actionGet();
+            alienMonitorDao.save(eventMessage);
         }
 
         // add 3 deployment status events
@@ -85,10 +79,7 @@ public class PaaSProviderPollingMonitorTest {
             eventDeploymentStatus.setDate(addMinutesToDate(2, new Date()).getTime());
             eventDeploymentStatus.setDeploymentId("DEP_ID-" + i);
             eventDeploymentStatus.setDeploymentStatus(DeploymentStatus.DEPLOYED);
-            eventJson = jsonMapper.writeValueAsString(eventDeploymentStatus);
-
-            nodeClient.prepareIndex("deploymentmonitorevents", PaaSDeploymentStatusMonitorEvent.class.getSimpleName().toLowerCase()).setSource(eventJson)
-                    .setRefresh(true).execute().actionGet();
+            alienMonitorDao.save(eventDeploymentStatus);
         }
 
         // save the last inserted date (PaaSDeploymentStatusMonitorEvent should be generated from alien only and never from the orchestrator).
@@ -0,0 +1,97 @@
+package alien4cloud.paas.function;
+
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.AttributeDefinition;
+import org.alien4cloud.tosca.model.definitions.ConcatPropertyValue;
+import org.alien4cloud.tosca.model.definitions.FunctionPropertyValue;
+import org.alien4cloud.tosca.model.definitions.IValue;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.normative.constants.ToscaFunctionConstants;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.paas.model.InstanceInformation;
+import alien4cloud.paas.model.PaaSNodeTemplate;
+import alien4cloud.utils.MapUtil;
+
+public class AttributeEvaluationPlanTest {
+    private Topology topology;
+    private Map<String, PaaSNodeTemplate> paaSNodeTemplates;
+    private PaaSNodeTemplate app;
+
+    @Before
+    public void setup() {
+        NodeTemplate computeTemplate = new NodeTemplate();
+        NodeTemplate appTemplate = new NodeTemplate();
+        appTemplate.setProperties(MapUtil.newHashMap(new String[] { "port" }, new AbstractPropertyValue[] { new ScalarPropertyValue("8080") }));
+        topology = new Topology();
+        topology.setNodeTemplates(MapUtil.newHashMap(new String[] { "compute", "app" }, new NodeTemplate[] { computeTemplate, appTemplate }));
+
+        PaaSNodeTemplate compute = new PaaSNodeTemplate("compute", computeTemplate);
+        app = new PaaSNodeTemplate("app", appTemplate);
+        app.setParent(compute);
+        paaSNodeTemplates = MapUtil.newHashMap(new String[] { "compute", "app" }, new PaaSNodeTemplate[] { compute, app });
+    }
+
+    private Map<String, Map<String, InstanceInformation>> runtimeInformations(String... computeIps) {
+        Map<String, InstanceInformation> computeInstances = Maps.newHashMap();
+        Map<String, InstanceInformation> appInstances = Maps.newHashMap();
+        for (int i = 0; i < computeIps.length; i++) {
+            InstanceInformation computeInstance = new InstanceInformation();
+            computeInstance.setAttributes(MapUtil.newHashMap(new String[] { "ip_address" }, new String[] { computeIps[i] }));
+            computeInstances.put(String.valueOf(i), computeInstance);
+            InstanceInformation appInstance = new InstanceInformation();
+            appInstance.setAttributes(Maps.newHashMap());
+            appInstances.put(String.valueOf(i), appInstance);
+        }
+        Map<String, Map<String, InstanceInformation>> runtimeInformations = Maps.newHashMap();
+        runtimeInformations.put("compute", computeInstances);
+        runtimeInformations.put("app", appInstances);
+        return runtimeInformations;
+    }
+
+    @Test
+    public void concatShouldBeEvaluatedForEveryInstance() {
+        ConcatPropertyValue concat = new ConcatPropertyValue();
+        concat.setParameters(Lists.<IValue> newArrayList(new ScalarPropertyValue("http://"),
+                new FunctionPropertyValue(ToscaFunctionConstants.GET_ATTRIBUTE, Lists.newArrayList(ToscaFunctionConstants.HOST, "ip_address")),
+                new ScalarPropertyValue(":"),
+                new FunctionPropertyValue(ToscaFunctionConstants.GET_PROPERTY, Lists.newArrayList(ToscaFunctionConstants.SELF, "port"))));
+
+        AttributeEvaluationPlan plan = AttributeEvaluationPlan.compile("url", concat, topology, app, paaSNodeTemplates);
+        Map<String, Map<String, InstanceInformation>> runtimeInformations = runtimeInformations("10.0.0.1", "10.0.0.2");
+        Assert.assertEquals("http://10.0.0.1:8080", plan.evaluate(runtimeInformations, "0"));
+        Assert.assertEquals("http://10.0.0.2:8080", plan.evaluate(runtimeInformations, "1"));
+        Assert.assertEquals(FunctionEvaluator.parseAttribute("url", concat, topology, runtimeInformations, "1", app, paaSNodeTemplates),
+                plan.evaluate(runtimeInformations, "1"));
+    }
+
+    @Test
+    public void attributeDefinitionShouldFallbackToDefault() {
+        AttributeDefinition definition = new AttributeDefinition();
+        definition.setDefault("default_value");
+        AttributeEvaluationPlan plan = AttributeEvaluationPlan.compile("ip_address", definition, topology, app, paaSNodeTemplates);
+        Map<String, Map<String, InstanceInformation>> runtimeInformations = runtimeInformations("10.0.0.1");
+        // attribute not yet computed for the node
+        Assert.assertEquals("<ip_address>", plan.evaluate(runtimeInformations, "0"));
+        runtimeInformations.get("app").get("0").getAttributes().put("ip_address", "");
+        Assert.assertEquals("default_value", plan.evaluate(runtimeInformations, "0"));
+        runtimeInformations.get("app").get("0").getAttributes().put("ip_address", "10.0.0.3");
+        Assert.assertEquals("10.0.0.3", plan.evaluate(runtimeInformations, "0"));
+    }
+
+    @Test
+    public void unsupportedValueShouldEvaluateToNull() {
+        Assert.assertNull(AttributeEvaluationPlan.compile("null", null, topology, app, paaSNodeTemplates).evaluate(runtimeInformations("10.0.0.1"), "0"));
+        Assert.assertNull(AttributeEvaluationPlan.compile("scalar", new ScalarPropertyValue("value"), topology, app, paaSNodeTemplates)
+                .evaluate(runtimeInformations("10.0.0.1"), "0"));
+    }
+}
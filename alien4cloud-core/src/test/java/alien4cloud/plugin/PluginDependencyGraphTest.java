@@ -0,0 +1,64 @@
+package alien4cloud.plugin;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+import alien4cloud.plugin.model.PluginDescriptor;
+
+public class PluginDependencyGraphTest {
+
+    private Plugin plugin(String id, String... dependencies) {
+        PluginDescriptor descriptor = new PluginDescriptor();
+        descriptor.setId(id);
+        descriptor.setDependencies(dependencies);
+        return new Plugin(descriptor, id);
+    }
+
+    private void assertWave(List<Plugin> wave, String... expectedIds) {
+        Assert.assertEquals(expectedIds.length, wave.size());
+        for (int i = 0; i < expectedIds.length; i++) {
+            Assert.assertEquals(expectedIds[i], wave.get(i).getId());
+        }
+    }
+
+    @Test
+    public void independentPluginsShouldBeInTheSameWave() {
+        PluginDependencyGraph graph = new PluginDependencyGraph(new Plugin[] { plugin("a"), plugin("b"), plugin("c") }, Collections.emptySet());
+        Assert.assertEquals(1, graph.getWaves().size());
+        assertWave(graph.getWaves().get(0), "a", "b", "c");
+        Assert.assertTrue(graph.getUnresolved().isEmpty());
+    }
+
+    @Test
+    public void dependentPluginsShouldBeSortedInWaves() {
+        Plugin[] plugins = new Plugin[] { plugin("d", "b", "c"), plugin("c", "a"), plugin("b", "a"), plugin("a") };
+        PluginDependencyGraph graph = new PluginDependencyGraph(plugins, Collections.emptySet());
+        Assert.assertEquals(3, graph.getWaves().size());
+        assertWave(graph.getWaves().get(0), "a");
+        assertWave(graph.getWaves().get(1), "c", "b");
+        assertWave(graph.getWaves().get(2), "d");
+        Assert.assertTrue(graph.getUnresolved().isEmpty());
+    }
+
+    @Test
+    public void alreadyLoadedDependenciesShouldBeResolved() {
+        PluginDependencyGraph graph = new PluginDependencyGraph(new Plugin[] { plugin("b", "a") }, Sets.newHashSet("a"));
+        Assert.assertEquals(1, graph.getWaves().size());
+        assertWave(graph.getWaves().get(0), "b");
+    }
+
+    @Test
+    public void missingAndCyclicDependenciesShouldBeUnresolved() {
+        Plugin[] plugins = new Plugin[] { plugin("a", "missing"), plugin("b", "a"), plugin("c", "d"), plugin("d", "c"), plugin("e") };
+        PluginDependencyGraph graph = new PluginDependencyGraph(plugins, Collections.emptySet());
+        Assert.assertEquals(1, graph.getWaves().size());
+        assertWave(graph.getWaves().get(0), "e");
+        Assert.assertEquals(Sets.newHashSet("a", "b", "c", "d"), graph.getUnresolved().keySet());
+        Assert.assertEquals(Sets.newHashSet("missing"), graph.getUnresolved().get("a"));
+    }
+}
@@ -0,0 +1,135 @@
+package alien4cloud.topology;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.topology.task.PropertiesTask;
+import alien4cloud.topology.task.TaskCode;
+import alien4cloud.topology.validation.TopologyPropertiesValidationService;
+import alien4cloud.tosca.context.ToscaContext;
+
+public class TopologyValidationServiceTest {
+    private TopologyValidationService topologyValidationService;
+    private TopologyPropertiesValidationService topologyPropertiesValidationService;
+    private Topology topology;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        topologyPropertiesValidationService = mock(TopologyPropertiesValidationService.class);
+        // report a missing required property for each validated node
+        doAnswer(invocation -> {
+            PropertiesTask task = new PropertiesTask(Maps.newHashMap());
+            task.setCode(TaskCode.PROPERTIES);
+            task.setNodeTemplateName((String) invocation.getArguments()[3]);
+            ((List<PropertiesTask>) invocation.getArguments()[0]).add(task);
+            return null;
+        }).when(topologyPropertiesValidationService).validateNodeTemplate(anyListOf(PropertiesTask.class), any(NodeType.class), any(NodeTemplate.class),
+                anyString(), anyBoolean());
+
+        topologyValidationService = new TopologyValidationService();
+        ReflectionTestUtils.setField(topologyValidationService, "topologyPropertiesValidationService", topologyPropertiesValidationService);
+        ReflectionTestUtils.setField(topologyValidationService, "validationThreadPoolSize", 1);
+        ReflectionTestUtils.setField(topologyValidationService, "nodeValidationCacheMaxSize", 100);
+        topologyValidationService.init();
+
+        ToscaContext.init(Sets.newHashSet());
+        registerNodeType(new Date(1000));
+
+        NodeTemplate nodeTemplate = new NodeTemplate();
+        nodeTemplate.setType("test.Compute");
+        nodeTemplate.setProperties(Maps.newHashMap());
+        Map<String, NodeTemplate> nodeTemplates = Maps.newHashMap();
+        nodeTemplates.put("compute", nodeTemplate);
+        topology = new Topology();
+        topology.setNodeTemplates(nodeTemplates);
+    }
+
+    @After
+    public void tearDown() {
+        ToscaContext.destroy();
+        topologyValidationService.destroy();
+    }
+
+    private void registerNodeType(Date lastUpdateDate) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId("test.Compute");
+        nodeType.setArchiveName("test-types");
+        nodeType.setArchiveVersion("1.0.0-SNAPSHOT");
+        nodeType.setLastUpdateDate(lastUpdateDate);
+        Map<String, NodeType> nodeTypes = Maps.newHashMap();
+        nodeTypes.put(nodeType.getElementId(), nodeType);
+        ToscaContext.get().register(NodeType.class, nodeTypes);
+    }
+
+    private List<PropertiesTask> validateStaticProperties() {
+        return ReflectionTestUtils.invokeMethod(topologyValidationService, "validateStaticProperties", topology);
+    }
+
+    @Test
+    public void unchangedNodeShouldNotBeValidatedAgain() {
+        List<PropertiesTask> tasks = validateStaticProperties();
+        Assert.assertEquals(1, tasks.size());
+        List<PropertiesTask> cachedTasks = validateStaticProperties();
+        Assert.assertEquals(1, cachedTasks.size());
+        verify(topologyPropertiesValidationService, times(1)).validateNodeTemplate(anyListOf(PropertiesTask.class), any(NodeType.class),
+                any(NodeTemplate.class), anyString(), anyBoolean());
+
+        // callers get their own copies of the cached tasks
+        Assert.assertNotSame(tasks.get(0), cachedTasks.get(0));
+        tasks.get(0).setSource("topology");
+        Assert.assertNull(validateStaticProperties().get(0).getSource());
+        Assert.assertEquals("compute", cachedTasks.get(0).getNodeTemplateName());
+    }
+
+    @Test
+    public void editedNodeShouldBeValidatedAgain() {
+        validateStaticProperties();
+        topology.getNodeTemplates().get("compute").getProperties().put("size", new ScalarPropertyValue("small"));
+        validateStaticProperties();
+        verify(topologyPropertiesValidationService, times(2)).validateNodeTemplate(anyListOf(PropertiesTask.class), any(NodeType.class),
+                any(NodeTemplate.class), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void nodeShouldBeValidatedAgainWhenTypeIsUploadedAgain() {
+        validateStaticProperties();
+        // a SNAPSHOT archive uploaded again has the same version (and the topology dependency may have no hash) but the type is indexed again
+        registerNodeType(new Date(2000));
+        validateStaticProperties();
+        verify(topologyPropertiesValidationService, times(2)).validateNodeTemplate(anyListOf(PropertiesTask.class), any(NodeType.class),
+                any(NodeTemplate.class), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void notIndexedTypeShouldNotBeCached() {
+        registerNodeType(null);
+        validateStaticProperties();
+        validateStaticProperties();
+        verify(topologyPropertiesValidationService, times(2)).validateNodeTemplate(anyListOf(PropertiesTask.class), any(NodeType.class),
+                any(NodeTemplate.class), anyString(), anyBoolean());
+    }
+}
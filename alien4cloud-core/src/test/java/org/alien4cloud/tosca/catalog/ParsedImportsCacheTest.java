@@ -0,0 +1,134 @@
+package org.alien4cloud.tosca.catalog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.CsarDependenciesBean;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Sets;
+
+import alien4cloud.tosca.parser.ParsingContext;
+import alien4cloud.tosca.parser.ParsingError;
+import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.tosca.parser.impl.ErrorCode;
+
+public class ParsedImportsCacheTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path cacheDir;
+    private Path archive;
+
+    @Before
+    public void setup() throws IOException {
+        cacheDir = temporaryFolder.newFolder("cache").toPath();
+        archive = temporaryFolder.newFile("definitions.yml").toPath();
+        Files.write(archive, "tosca_definitions_version: alien_dsl_2_0_0".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ParsedImportsCache newCache(int maxEntries) throws IOException {
+        ParsedImportsCache cache = new ParsedImportsCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        cache.setCacheDir(cacheDir.toString());
+        cache.initialize();
+        return cache;
+    }
+
+    private ParsingResult<CsarDependenciesBean> newParsingResult(String name) {
+        CsarDependenciesBean csarDependenciesBean = new CsarDependenciesBean();
+        csarDependenciesBean.setSelf(new CSARDependency(name, "1.0.0"));
+        csarDependenciesBean.setDependencies(Sets.newHashSet(new CSARDependency("tosca-normative-types", "1.0.0-ALIEN14", "hash")));
+        return new ParsingResult<>(csarDependenciesBean, new ParsingContext("definitions.yml"));
+    }
+
+    @Test
+    public void cachedResultShouldBeReloadedAfterRestart() throws IOException {
+        ParsedImportsCache cache = newCache(10);
+        String key = cache.getKey(archive);
+        Assert.assertNull(cache.get(key));
+        cache.put(key, newParsingResult("archive"));
+
+        ParsingResult<CsarDependenciesBean> cached = newCache(10).get(key);
+        Assert.assertNotNull(cached);
+        Assert.assertEquals("definitions.yml", cached.getContext().getFileName());
+        Assert.assertEquals(new CSARDependency("archive", "1.0.0"), cached.getResult().getSelf());
+        CSARDependency dependency = cached.getResult().getDependencies().iterator().next();
+        Assert.assertEquals("tosca-normative-types", dependency.getName());
+        Assert.assertEquals("1.0.0-ALIEN14", dependency.getVersion());
+        Assert.assertEquals("hash", dependency.getHash());
+    }
+
+    @Test
+    public void modifiedArchiveShouldNotMatchCachedResult() throws IOException {
+        ParsedImportsCache cache = newCache(10);
+        String key = cache.getKey(archive);
+        cache.put(key, newParsingResult("archive"));
+
+        Files.write(archive, "tosca_definitions_version: alien_dsl_1_4_0".getBytes(StandardCharsets.UTF_8));
+        String modifiedKey = cache.getKey(archive);
+        Assert.assertNotEquals(key, modifiedKey);
+        Assert.assertNull(cache.get(modifiedKey));
+    }
+
+    private Path newArchiveDirectory(String name, String entryDefinitions) throws IOException {
+        Path archiveDirectory = temporaryFolder.newFolder(name).toPath();
+        Files.createDirectories(archiveDirectory.resolve("TOSCA-Metadata"));
+        Files.write(archiveDirectory.resolve("TOSCA-Metadata/TOSCA.meta"), ("Entry-Definitions: " + entryDefinitions).getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(archiveDirectory.resolve(entryDefinitions).getParent());
+        Files.write(archiveDirectory.resolve(entryDefinitions), "tosca_definitions_version: alien_dsl_2_0_0".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(archiveDirectory.resolve("artifacts"));
+        Files.write(archiveDirectory.resolve("artifacts/binary"), new byte[] { 1 });
+        return archiveDirectory;
+    }
+
+    @Test
+    public void keyShouldOnlyDependOnDefinitions() throws IOException {
+        ParsedImportsCache cache = newCache(10);
+        Path archiveDirectory = newArchiveDirectory("archive", "definitions/main.yml");
+        String key = cache.getKey(archiveDirectory);
+
+        Files.write(archiveDirectory.resolve("artifacts/binary"), new byte[] { 2 });
+        Assert.assertEquals(key, cache.getKey(archiveDirectory));
+
+        Files.write(archiveDirectory.resolve("definitions/main.yml"), "tosca_definitions_version: alien_dsl_1_4_0".getBytes(StandardCharsets.UTF_8));
+        Assert.assertNotEquals(key, cache.getKey(archiveDirectory));
+    }
+
+    @Test
+    public void archivesWithSameContentInDifferentLayoutsShouldHaveDifferentKeys() throws IOException {
+        ParsedImportsCache cache = newCache(10);
+        Assert.assertNotEquals(cache.getKey(newArchiveDirectory("first", "definitions/main.yml")),
+                cache.getKey(newArchiveDirectory("second", "other/main.yml")));
+    }
+
+    @Test
+    public void resultWithErrorsShouldNotBeCached() throws IOException {
+        ParsedImportsCache cache = newCache(10);
+        String key = cache.getKey(archive);
+        ParsingResult<CsarDependenciesBean> parsingResult = newParsingResult("archive");
+        parsingResult.getContext().getParsingErrors().add(new ParsingError(ErrorCode.MISSING_FILE, null, null, null, null, null));
+        cache.put(key, parsingResult);
+
+        Assert.assertNull(cache.get(key));
+    }
+
+    @Test
+    public void evictedEntryShouldBeRemovedFromDisk() throws IOException {
+        ParsedImportsCache cache = newCache(1);
+        cache.put("first", newParsingResult("first"));
+        cache.put("second", newParsingResult("second"));
+
+        Assert.assertNull(cache.get("first"));
+        Assert.assertFalse(Files.exists(cacheDir.resolve("first.bin")));
+        Assert.assertEquals("second", cache.get("second").getResult().getSelf().getName());
+    }
+}
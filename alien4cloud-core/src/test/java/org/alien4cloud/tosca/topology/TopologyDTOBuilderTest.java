@@ -0,0 +1,154 @@
+package org.alien4cloud.tosca.topology;
+
+import java.util.Map;
+
+import org.alien4cloud.tosca.editor.EditionContext;
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
+import org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.topology.TopologyDeltaDTO;
+import alien4cloud.tosca.context.ToscaContext;
+import alien4cloud.utils.JsonPatchOperation;
+import alien4cloud.utils.TreeNode;
+
+public class TopologyDTOBuilderTest {
+    private TopologyDTOBuilder topologyDTOBuilder = new TopologyDTOBuilder();
+    private EditionContext context;
+
+    @Before
+    public void setup() {
+        Topology topology = new Topology();
+        topology.setDependencies(Sets.newHashSet());
+        topology.setNodeTemplates(Maps.newHashMap());
+
+        context = new EditionContext();
+        context.setCsar(new Csar("archive", "1.0.0-SNAPSHOT"));
+        context.setTopology(topology);
+        context.setToscaContext(new ToscaContext.Context(topology.getDependencies()));
+        context.setArchiveContentTree(new TreeNode("archive"));
+        ToscaContext.set(context.getToscaContext());
+
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId("test.Compute");
+        nodeType.setArchiveName("test-types");
+        nodeType.setArchiveVersion("1.0.0-SNAPSHOT");
+        Map<String, NodeType> nodeTypes = Maps.newHashMap();
+        nodeTypes.put(nodeType.getElementId(), nodeType);
+        ToscaContext.get().register(NodeType.class, nodeTypes);
+    }
+
+    @After
+    public void tearDown() {
+        ToscaContext.destroy();
+    }
+
+    private AbstractEditorOperation operation(String id, String previousOperationId) {
+        AddNodeOperation operation = new AddNodeOperation();
+        operation.setId(id);
+        operation.setPreviousOperationId(previousOperationId);
+        context.getOperations().add(operation);
+        context.setLastOperationIndex(context.getOperations().size() - 1);
+        return operation;
+    }
+
+    private void addNode(String name) {
+        NodeTemplate nodeTemplate = new NodeTemplate();
+        nodeTemplate.setName(name);
+        nodeTemplate.setType("test.Compute");
+        context.getTopology().getNodeTemplates().put(name, nodeTemplate);
+    }
+
+    private void assertFullDTO(TopologyDeltaDTO deltaDTO) {
+        Assert.assertNotNull(deltaDTO.getTopologyDTO());
+        Assert.assertSame(context.getTopology(), deltaDTO.getTopologyDTO().getTopology());
+        Assert.assertEquals(context.getLastOperationIndex(), deltaDTO.getTopologyDTO().getLastOperationIndex());
+        Assert.assertNull(deltaDTO.getTopologyPatch());
+        Assert.assertNull(deltaDTO.getNodeTypes());
+    }
+
+    @Test
+    public void firstDeltaShouldContainFullTopology() {
+        addNode("compute");
+        TopologyDeltaDTO deltaDTO = topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op1", null), null);
+        assertFullDTO(deltaDTO);
+        Assert.assertTrue(deltaDTO.getTopologyDTO().getNodeTypes().containsKey("test.Compute"));
+        Assert.assertEquals("op1", context.getSnapshot().getOperationId());
+    }
+
+    @Test
+    public void deltaShouldOnlyContainChangesWhenClientIsSynchronized() {
+        topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op1", null), null);
+
+        addNode("compute");
+        TopologyDeltaDTO deltaDTO = topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op2", "op1"), "op1");
+        Assert.assertNull(deltaDTO.getTopologyDTO());
+        Assert.assertEquals(1, deltaDTO.getLastOperationIndex());
+        Assert.assertEquals("op2", deltaDTO.getOperation().getId());
+        Assert.assertFalse(deltaDTO.getTopologyPatch().isEmpty());
+        for (JsonPatchOperation patchOperation : deltaDTO.getTopologyPatch()) {
+            Assert.assertTrue(patchOperation.getPath(), patchOperation.getPath().startsWith("/nodeTemplates"));
+        }
+        // the type was not used before the operation
+        Assert.assertEquals(Sets.newHashSet("test.Compute"), deltaDTO.getNodeTypes().keySet());
+        // the archive content did not change
+        Assert.assertNull(deltaDTO.getArchiveContentTree());
+        Assert.assertEquals("op2", context.getSnapshot().getOperationId());
+
+        addNode("other");
+        deltaDTO = topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op3", "op2"), "op2");
+        Assert.assertNull(deltaDTO.getTopologyDTO());
+        // the type is already known by the client
+        Assert.assertTrue(deltaDTO.getNodeTypes().isEmpty());
+    }
+
+    @Test
+    public void changedArchiveContentShouldBeInDelta() {
+        topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op1", null), null);
+
+        TreeNode archiveContentTree = new TreeNode("archive");
+        archiveContentTree.setChildren(Sets.newTreeSet(Sets.newHashSet(new TreeNode("topology.yml"))));
+        context.setArchiveContentTree(archiveContentTree);
+        TopologyDeltaDTO deltaDTO = topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op2", "op1"), "op1");
+        Assert.assertNull(deltaDTO.getTopologyDTO());
+        Assert.assertTrue(deltaDTO.getTopologyPatch().isEmpty());
+        Assert.assertSame(archiveContentTree, deltaDTO.getArchiveContentTree());
+    }
+
+    @Test
+    public void staleClientShouldResynchronize() {
+        topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op1", null), null);
+        addNode("compute");
+        topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op2", "op1"), "op1");
+
+        // another client that did not get op2 executes an operation
+        addNode("other");
+        TopologyDeltaDTO deltaDTO = topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op3", "op1"), "op1");
+        assertFullDTO(deltaDTO);
+        Assert.assertEquals(2, deltaDTO.getTopologyDTO().getTopology().getNodeTemplates().size());
+
+        // once resynchronized the client gets deltas again
+        deltaDTO = topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op4", "op3"), "op3");
+        Assert.assertNull(deltaDTO.getTopologyDTO());
+        Assert.assertTrue(deltaDTO.getTopologyPatch().isEmpty());
+    }
+
+    @Test
+    public void resetSnapshotShouldFallbackToFullTopology() {
+        topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op1", null), null);
+        // a pull of the remote branch changes the topology without any operation and resets the snapshot
+        context.setSnapshot(null);
+        addNode("compute");
+        assertFullDTO(topologyDTOBuilder.buildTopologyDeltaDTO(context, operation("op2", "op1"), "op1"));
+    }
+}
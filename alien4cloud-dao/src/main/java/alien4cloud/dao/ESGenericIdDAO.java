@@ -7,6 +7,8 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
+import javax.annotation.Resource;
+
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetItemResponse;
@@ -24,6 +26,8 @@ import lombok.SneakyThrows;
  * @author luc boutier
  */
 public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericIdDAO {
+    @Resource
+    private FacetsCache facetsCache;
 
     @Override
     public <T> boolean exist(Class<T> clazz, String id) {
@@ -50,12 +54,13 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
     @Override
     @SneakyThrows({ IOException.class })
     public <T> void save(T data) {
-        String indexName = getIndexForType(data.getClass());
+        String indexName = getIndexForData(data);
         String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
 
         updateDate(data);
-        String json = getJsonMapper().writeValueAsString(data);
+        byte[] json = writeSource(data);
         getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(true).execute().actionGet();
+        dataChanged(data.getClass());
     }
 
     @Override
@@ -66,14 +71,17 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         }
         BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
         for (T data : entities) {
-            String indexName = getIndexForType(data.getClass());
+            String indexName = getIndexForData(data);
             String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
 
             updateDate(data);
-            String json = getJsonMapper().writeValueAsString(data);
+            byte[] json = writeSource(data);
             bulkRequestBuilder.add(getClient().prepareIndex(indexName, typeName).setSource(json));
         }
         bulkRequestBuilder.execute().actionGet();
+        for (T data : entities) {
+            dataChanged(data.getClass());
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -94,10 +102,10 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         ESIndexMapper.getLog().debug("Found one in index [ {} ], type [ {} ], for Id [ {} ].", indexName, typeName, id);
 
         if (abstractType) {
-            return (T) getJsonMapper().readValue(response.getSourceAsString(), getTypesToClasses().get(response.getType()));
+            return (T) readSource(response.getSourceAsBytesRef(), getTypesToClasses().get(response.getType()));
         }
 
-        return getJsonMapper().readValue(response.getSourceAsString(), clazz);
+        return readSource(response.getSourceAsBytesRef(), clazz);
     }
 
     @Override
@@ -115,7 +123,7 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         List<T> result = new ArrayList<>();
         for (MultiGetItemResponse getItemResponse : response.getResponses()) {
             if (getItemResponse.getResponse().isExists()) {
-                result.add(getJsonMapper().readValue(getItemResponse.getResponse().getSourceAsString(), clazz));
+                result.add(readSource(getItemResponse.getResponse().getSourceAsBytesRef(), clazz));
             }
         }
 
@@ -128,6 +136,16 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
         getClient().prepareDelete(indexName, typeName, id).setRefresh(true).execute().actionGet();
+        dataChanged(clazz);
+    }
+
+    /**
+     * Notify that objects of the given class have been written or deleted.
+     *
+     * @param clazz The class of the modified objects.
+     */
+    protected void dataChanged(Class<?> clazz) {
+        facetsCache.invalidate(getIndexForType(clazz));
     }
 
     private void assertIdNotNullFor(String id, String operation) {
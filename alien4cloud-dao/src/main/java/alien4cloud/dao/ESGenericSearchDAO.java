@@ -4,9 +4,13 @@ import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -18,7 +22,9 @@ import org.elasticsearch.action.count.CountRequestBuilder;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.common.lucene.search.function.CombineFunction;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -40,7 +46,6 @@ import com.google.common.collect.Maps;
 import alien4cloud.dao.model.FacetedSearchFacet;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.GetMultipleDataResult;
-import alien4cloud.rest.utils.JsonUtil;
 import alien4cloud.utils.ElasticSearchUtil;
 import alien4cloud.utils.MapUtil;
 import lombok.SneakyThrows;
@@ -53,6 +58,9 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearchDAO {
+    /** Time to keep a scroll context alive between two scroll requests. */
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
     @Resource
     private ElasticSearchClient esClient;
     @Resource
@@ -60,6 +68,10 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Resource
     private IESMetaPropertiesSearchContextBuilder metaPropertiesSearchHelper;
+    @Resource
+    private SlowQueryLog slowQueryLog;
+    @Resource
+    private FacetsCache facetsCache;
 
     @Override
     public <T> long count(Class<T> clazz, QueryBuilder query) {
@@ -86,22 +98,24 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setQuery(query).setNoFields()
                 .setFetchSource(false);
         searchRequestBuilder.setFrom(0).setSize(1000);
-        SearchResponse response = searchRequestBuilder.execute().actionGet();
+        SearchResponse response = slowQueryLog.execute(searchRequestBuilder);
 
         while (somethingFound(response)) {
             BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
 
             for (int i = 0; i < response.getHits().hits().length; i++) {
                 String id = response.getHits().hits()[i].getId();
-                bulkRequestBuilder.add(getClient().prepareDelete(indexName, typeName, id));
+                // use the index of the hit as the index name may be an alias on multiple indices.
+                bulkRequestBuilder.add(getClient().prepareDelete(response.getHits().hits()[i].getIndex(), typeName, id));
             }
 
             bulkRequestBuilder.execute().actionGet();
+            dataChanged(clazz);
 
             if (response.getHits().totalHits() == response.getHits().hits().length) {
                 response = null;
             } else {
-                response = searchRequestBuilder.execute().actionGet();
+                response = slowQueryLog.execute(searchRequestBuilder);
             }
         }
     }
@@ -119,7 +133,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         if (sortBuilder != null) {
             searchRequestBuilder.addSort(sortBuilder);
         }
-        SearchResponse response = searchRequestBuilder.execute().actionGet();
+        SearchResponse response = slowQueryLog.execute(searchRequestBuilder);
         if (!somethingFound(response)) {
             return null;
         } else {
@@ -215,8 +229,8 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     @Override
     public GetMultipleDataResult<Object> search(String[] searchIndices, Class<?>[] classes, String searchText, Map<String, String[]> filters,
             FilterBuilder customFilter, String fetchContext, int from, int maxElements) {
-        SearchResponse searchResponse = queryHelper.buildQuery(searchText).types(classes).filters(filters, customFilter).prepareSearch(searchIndices)
-                .fetchContext(fetchContext).execute(from, maxElements);
+        SearchResponse searchResponse = new ProfiledQueryBuilderHelper((QueryHelper.QueryBuilderHelper) queryHelper.buildQuery(searchText)).types(classes)
+                .filters(filters, customFilter).prepareSearch(searchIndices).fetchContext(fetchContext).execute(from, maxElements);
 
         return toGetMultipleDataResult(Object.class, searchResponse, from);
     }
@@ -249,8 +263,8 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     @Override
     public GetMultipleDataResult<Object> suggestSearch(String[] searchIndices, Class<?>[] requestedTypes, String suggestFieldPath, String searchPrefix,
             String fetchContext, int from, int maxElements) {
-        SearchResponse searchResponse = queryHelper.buildQuery(suggestFieldPath, searchPrefix).types(requestedTypes).prepareSearch(searchIndices)
-                .fetchContext(fetchContext).execute(from, maxElements);
+        SearchResponse searchResponse = new ProfiledQueryBuilderHelper((QueryHelper.QueryBuilderHelper) queryHelper.buildQuery(suggestFieldPath, searchPrefix))
+                .types(requestedTypes).prepareSearch(searchIndices).fetchContext(fetchContext).execute(from, maxElements);
 
         return toGetMultipleDataResult(Object.class, searchResponse, from);
     }
@@ -333,7 +347,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     }
 
     public <T> T hitToObject(Class<T> clazz, SearchHit hit) throws IOException {
-        T obj = (T) getJsonMapper().readValue(hit.getSourceAsString(), clazz);
+        T obj = readSource(hit.sourceRef(), clazz);
         Field generatedId = getClassTogeneratedIdFields().get(clazz);
         if (generatedId != null) {
             try {
@@ -345,6 +359,29 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         return obj;
     }
 
+    /**
+     * Iterate over all the pages of a scroll and clear the scroll context once done, even if the iteration is interrupted by the consumer.
+     *
+     * @param clazz The class of the elements to read from the hits.
+     * @param searchResponse The response of the initial scroll request.
+     * @param consumer The consumer that is called for every element.
+     */
+    @SneakyThrows(IOException.class)
+    protected <T> void consumeScroll(Class<T> clazz, SearchResponse searchResponse, Consumer<T> consumer) {
+        try {
+            while (searchResponse.getHits().getHits().length > 0) {
+                for (SearchHit hit : searchResponse.getHits().getHits()) {
+                    consumer.accept(hitToObject(clazz, hit));
+                }
+                searchResponse = getClient().prepareSearchScroll(searchResponse.getScrollId()).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+            }
+        } finally {
+            if (searchResponse.getScrollId() != null) {
+                getClient().prepareClearScroll().addScrollId(searchResponse.getScrollId()).execute();
+            }
+        }
+    }
+
     private <T> IESSearchQueryBuilderHelper<T> getSearchBuilderHelper(Class<T> clazz, String searchText, Map<String, String[]> filters,
             FilterBuilder customFilter, String fetchContext, String fieldSort, boolean sortOrder) {
         IESSearchQueryBuilderHelper<T> builderHelper = buildSearchQuery(clazz, searchText).setFilters(filters, customFilter)
@@ -389,7 +426,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(getIndexForType(clazz))
                 .setQuery(QueryBuilders.idsQuery(MappingBuilder.indexTypeFromClass(clazz)).ids(ids)).setFetchSource(inc, exc).setSize(20);
 
-        SearchResponse searchResponse = searchRequestBuilder.execute().actionGet();
+        SearchResponse searchResponse = slowQueryLog.execute(searchRequestBuilder);
         return toGetListOfData(searchResponse, clazz);
     }
 
@@ -416,13 +453,14 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         if (sortOrder != null) {
             searchRequestBuilder.addSort(SortBuilders.fieldSort(path).order(sortOrder));
         }
-        SearchResponse searchResponse = searchRequestBuilder.execute().actionGet();
+        SearchResponse searchResponse = slowQueryLog.execute(searchRequestBuilder);
         if (ElasticSearchUtil.isResponseEmpty(searchResponse)) {
             return new String[0];
         } else {
             String[] results = new String[searchResponse.getHits().getHits().length];
             for (int i = 0; i < results.length; i++) {
-                Map<String, Object> result = JsonUtil.toMap(searchResponse.getHits().getAt(i).getSourceAsString());
+                @SuppressWarnings("unchecked")
+                Map<String, Object> result = readSource(searchResponse.getHits().getAt(i).sourceRef(), Map.class);
                 results[i] = String.valueOf(MapUtil.get(result, path));
             }
             return results;
@@ -522,16 +560,39 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         return new EsQueryBuilderHelper((QueryHelper.QueryBuilderHelper) queryHelper.buildQuery(prefixField, searchQuery), clazz);
     }
 
+    /**
+     * Extends the QueryBuilderHelper to record the slow search requests.
+     */
+    protected class ProfiledQueryBuilderHelper extends QueryHelper.QueryBuilderHelper {
+        protected ProfiledQueryBuilderHelper(QueryHelper.QueryBuilderHelper from) {
+            super(from);
+        }
+
+        @Override
+        public SearchResponse execute(int from, int size) {
+            long start = System.nanoTime();
+            SearchResponse searchResponse = super.execute(from, size);
+            slowQueryLog.record(searchRequestBuilder, searchResponse, System.nanoTime() - start);
+            return searchResponse;
+        }
+    }
+
     /**
      * Extends the QueryBuilderHelper to provide class based indices and types.
      */
-    public class EsQueryBuilderHelper<T> extends QueryHelper.QueryBuilderHelper implements IESSearchQueryBuilderHelper {
+    public class EsQueryBuilderHelper<T> extends ProfiledQueryBuilderHelper implements IESSearchQueryBuilderHelper {
         private Class<T> clazz;
         private String[] indices;
+        /** True if some of the indices may not exist (indices restricted to a date range). */
+        private boolean lenientIndices = false;
         private Class<?>[] requestedTypes;
         private String[] esTypes;
 
         private IESMetaPropertiesSearchContext mpContext;
+        /** Description of the filters of the query, part of the facets cache key. */
+        private final StringBuilder filtersKey = new StringBuilder();
+        /** False when the query is altered in a way that cannot be described in the facets cache key. */
+        private boolean cacheableFacets = true;
 
         protected EsQueryBuilderHelper(QueryHelper.QueryBuilderHelper from, Class<T> clazz) {
             super(from);
@@ -558,9 +619,21 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
             return super.getQueryBuilder();
         }
 
+        @Override
+        public EsQueryBuilderHelper setDateRange(Date fromDate, Date toDate) {
+            this.indices = getIndicesForType(clazz, fromDate, toDate);
+            this.lenientIndices = true;
+            // dated indices are written directly, they are not tracked by the facets cache.
+            this.cacheableFacets = false;
+            return this;
+        }
+
         @Override
         public IESSearchQueryBuilderHelper prepareSearch() {
             super.prepareSearch(indices);
+            if (lenientIndices) {
+                super.searchRequestBuilder.setIndicesOptions(IndicesOptions.lenientExpandOpen());
+            }
             super.searchRequestBuilder.setTypes(esTypes);
             super.searchRequestBuilder.setQuery(queryBuilder);
             return this;
@@ -579,13 +652,29 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
             return toGetMultipleDataResult(clazz, super.execute(from, size), from);
         }
 
+        @Override
+        public void scroll(int batchSize, Consumer consumer) {
+            super.alterSearchRequest(searchRequestBuilder -> searchRequestBuilder.setScroll(SCROLL_KEEP_ALIVE));
+            consumeScroll(clazz, super.execute(0, batchSize), consumer);
+        }
+
         @Override
         public FacetedSearchResult facetedSearch(int from, int size) {
             List<IFacetBuilderHelper> facetBuilderHelpers = mpContext.getFacetBuilderHelpers();
 
-            super.facets(facetBuilderHelpers);
+            // facets don't depend on the requested page so they are computed once and cached until the indices are modified.
+            String facetsKey = cacheableFacets ? facetsCache.getKey(indices, Arrays.toString(esTypes) + queryBuilder + filtersKey) : null;
+            Map<String, FacetedSearchFacet[]> cachedFacets = facetsKey == null ? null : facetsCache.get(facetsKey);
+            if (cachedFacets == null) {
+                super.facets(facetBuilderHelpers);
+            }
 
-            FacetedSearchResult  facetedSearchResult = toFacetedSearchResult(clazz, from, super.execute(from, size));
+            FacetedSearchResult facetedSearchResult = toFacetedSearchResult(clazz, from, super.execute(from, size));
+            if (cachedFacets != null) {
+                facetedSearchResult.setFacets(cachedFacets);
+            } else if (facetsKey != null) {
+                facetsCache.put(facetsKey, facetedSearchResult.getFacets());
+            }
 
             // Convert metaProperties name
             mpContext.postProcess(facetedSearchResult);
@@ -621,6 +710,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
         @Override
         public EsQueryBuilderHelper setFilters(FilterBuilder... customFilters) {
+            appendFiltersKey(null, null, customFilters);
             super.filters(customFilters);
             return this;
         }
@@ -633,6 +723,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
             // Add MetaProperties filters
             customFilters = ObjectArrays.concat(customFilters, mpContext.getFilterBuilders(filters),FilterBuilder.class);
 
+            appendFiltersKey(filters, filterStrategies, customFilters);
             super.filters(filters, filterStrategies, customFilters);
             return this;
         }
@@ -645,12 +736,14 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
             // Add MetaProperties filters
             customFilters = ObjectArrays.concat(customFilters, mpContext.getFilterBuilders(filters),FilterBuilder.class);
 
+            appendFiltersKey(filters, null, customFilters);
             super.filters(filters, customFilters);
             return this;
         }
 
         @Override
         public EsQueryBuilderHelper alterQueryBuilder(QueryBuilderAdapter queryBuilderAdapter) {
+            this.cacheableFacets = false;
             super.alterQuery(queryBuilderAdapter);
             return this;
         }
@@ -675,8 +768,31 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
         @Override
         public EsQueryBuilderHelper alterSearchRequestBuilder(ISearchBuilderAdapter adapter) {
+            this.cacheableFacets = false;
             super.alterSearchRequest(adapter);
             return this;
         }
+
+        private void appendFiltersKey(Map<String, ?> filters, Map<String, ?> filterStrategies, FilterBuilder[] customFilters) {
+            filtersKey.append(toKey(filters)).append(toKey(filterStrategies));
+            if (customFilters != null) {
+                // custom filters include the authorization filters of the user.
+                for (FilterBuilder customFilter : customFilters) {
+                    filtersKey.append(customFilter);
+                }
+            }
+        }
+
+        private String toKey(Map<String, ?> map) {
+            if (map == null) {
+                return "";
+            }
+            StringBuilder key = new StringBuilder();
+            for (Map.Entry<String, ?> entry : new TreeMap<>(map).entrySet()) {
+                Object value = entry.getValue();
+                key.append(entry.getKey()).append('=').append(value instanceof Object[] ? Arrays.toString((Object[]) value) : value).append(';');
+            }
+            return key.toString();
+        }
     }
 }
\ No newline at end of file
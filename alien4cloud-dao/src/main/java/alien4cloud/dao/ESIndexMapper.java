@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -14,17 +15,24 @@ import java.util.concurrent.ExecutionException;
 import javax.annotation.Resource;
 
 import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
+import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
+import org.elasticsearch.action.admin.indices.template.put.PutIndexTemplateRequestBuilder;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.mapping.ElasticSearchClient;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.elasticsearch.util.MapUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -32,7 +40,6 @@ import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.rest.utils.JsonUtil;
 import alien4cloud.utils.ReflectionUtil;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
@@ -64,8 +71,68 @@ public abstract class ESIndexMapper {
     @Getter
     private String[] allIndexes;
     @Getter
-    @Setter
     private ObjectMapper jsonMapper = new ObjectMapper();
+    /** Readers and writers are immutable and resolve the (de)serializers of their root type once, they are built once per class. */
+    private final Map<Class<?>, ObjectReader> readers = Maps.newConcurrentMap();
+    private final Map<Class<?>, ObjectWriter> writers = Maps.newConcurrentMap();
+
+    /**
+     * Set the mapper used to serialize and deserialize the indexed objects.
+     *
+     * @param jsonMapper The json mapper.
+     */
+    public void setJsonMapper(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.readers.clear();
+        this.writers.clear();
+    }
+
+    /**
+     * Get the reader to deserialize the sources of the given class.
+     *
+     * @param clazz The class of the objects to read.
+     * @return The reader for the given class.
+     */
+    public ObjectReader getReader(Class<?> clazz) {
+        return readers.computeIfAbsent(clazz, key -> jsonMapper.readerFor(key));
+    }
+
+    /**
+     * Get the writer to serialize the objects of the given class.
+     *
+     * @param clazz The class of the objects to write.
+     * @return The writer for the given class.
+     */
+    public ObjectWriter getWriter(Class<?> clazz) {
+        return writers.computeIfAbsent(clazz, key -> jsonMapper.writerFor(key));
+    }
+
+    /**
+     * Deserialize an elastic search source directly from its bytes (without building an intermediate string).
+     *
+     * @param source The source bytes as returned by elastic search (uncompressed).
+     * @param clazz The class of the object to read.
+     * @return The deserialized object.
+     * @throws IOException In case the source cannot be deserialized.
+     */
+    public <T> T readSource(BytesReference source, Class<T> clazz) throws IOException {
+        ObjectReader reader = getReader(clazz);
+        if (source.hasArray()) {
+            return reader.readValue(source.array(), source.arrayOffset(), source.length());
+        }
+        return reader.readValue(source.streamInput());
+    }
+
+    /**
+     * Serialize an object to be indexed in elastic search.
+     *
+     * @param data The object to serialize.
+     * @return The json bytes of the object.
+     * @throws IOException In case the object cannot be serialized.
+     */
+    public byte[] writeSource(Object data) throws IOException {
+        return getWriter(data.getClass()).writeValueAsBytes(data);
+    }
 
     /**
      * Initialize the array of all indices managed by this dao.
@@ -87,6 +154,7 @@ public abstract class ESIndexMapper {
     public void initIndices(String indexName, String ttl, Class<?>... classes) {
         if (indexExist(indexName)) {
             addToMappedClasses(indexName, classes);
+            updateMappings(indexName, ttl, classes);
         } else {
             // create the index and add the mapping
             CreateIndexRequestBuilder createIndexRequestBuilder = esClient.getClient().admin().indices().prepareCreate(indexName);
@@ -96,20 +164,7 @@ public abstract class ESIndexMapper {
                 if (Modifier.isAbstract(clazz.getModifiers())) {
                     continue; // no mapping to register for abstract classes.
                 }
-                String typeMapping = mappingBuilder.getMapping(clazz);
-                Map<String, Object> typesMap = JsonUtil.toMap(typeMapping);
-
-                addAlienScore(typesMap);
-                addTTL(typesMap, ttl);
-
-                Field generatedIdField = ReflectionUtil.getDeclaredField(clazz, EsGeneratedId.class);
-                if (generatedIdField != null) {
-                    generatedIdField.setAccessible(true);
-                    classTogeneratedIdFields.put(clazz, generatedIdField);
-                }
-
-                String mapping = jsonMapper.writeValueAsString(typesMap);
-                createIndexRequestBuilder.addMapping(typeName, mapping);
+                createIndexRequestBuilder.addMapping(typeName, getTypeMapping(clazz, ttl));
 
                 // add settings if any (including analysers definitions)
                 String indexSettings = mappingBuilder.getIndexSettings(clazz);
@@ -128,6 +183,72 @@ public abstract class ESIndexMapper {
         }
     }
 
+    /**
+     * Put the mapping of the classes on an existing index so that the fields added to the classes since the index creation are mapped as defined by their
+     * annotations rather than dynamically on the first indexed document. Existing fields cannot be changed and a conflicting mapping is just logged.
+     */
+    private void updateMappings(String indexName, String ttl, Class<?>... classes) throws IOException, IntrospectionException {
+        for (Class<?> clazz : classes) {
+            if (Modifier.isAbstract(clazz.getModifiers())) {
+                continue; // no mapping to register for abstract classes.
+            }
+            String typeName = MappingBuilder.indexTypeFromClass(clazz);
+            try {
+                PutMappingResponse putMappingResponse = esClient.getClient().admin().indices().preparePutMapping(indexName).setType(typeName)
+                        .setSource(getTypeMapping(clazz, ttl)).execute().actionGet();
+                if (!putMappingResponse.isAcknowledged()) {
+                    log.warn("Mapping of type <{}> in index <{}> not acknowledged", typeName, indexName);
+                }
+            } catch (ElasticsearchException e) {
+                log.warn("Not able to update the mapping of type <{}> in index <{}>: {}", typeName, indexName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Create or update an index template so that the indices matching the given pattern are created with the mapping of the given classes and added to
+     * the given alias. Classes are mapped to the alias so that reads target all the indices of the template.
+     *
+     * @param templateName The name of the template.
+     * @param indexPattern The pattern of the names of the indices to which the template applies.
+     * @param aliasName The alias to add to every index created from the template.
+     * @param classes An array of classes to map to the indices of the template.
+     */
+    @SneakyThrows({ IOException.class, IntrospectionException.class })
+    public void initIndexTemplate(String templateName, String indexPattern, String aliasName, Class<?>... classes) {
+        PutIndexTemplateRequestBuilder putTemplateRequestBuilder = esClient.getClient().admin().indices().preparePutTemplate(templateName)
+                .setTemplate(indexPattern).addAlias(new Alias(aliasName));
+        for (Class<?> clazz : classes) {
+            String typeName = addToMappedClasses(aliasName, clazz);
+            if (Modifier.isAbstract(clazz.getModifiers())) {
+                continue; // no mapping to register for abstract classes.
+            }
+            putTemplateRequestBuilder.addMapping(typeName, getTypeMapping(clazz, null));
+            String indexSettings = mappingBuilder.getIndexSettings(clazz);
+            if (StringUtils.isNotBlank(indexSettings)) {
+                putTemplateRequestBuilder.setSettings(indexSettings);
+            }
+        }
+        if (!putTemplateRequestBuilder.execute().actionGet().isAcknowledged()) {
+            throw new IndexingServiceException("Failed to put index template <" + templateName + ">");
+        }
+    }
+
+    private String getTypeMapping(Class<?> clazz, String ttl) throws IOException, IntrospectionException {
+        String typeMapping = mappingBuilder.getMapping(clazz);
+        Map<String, Object> typesMap = JsonUtil.toMap(typeMapping);
+
+        addAlienScore(typesMap);
+        addTTL(typesMap, ttl);
+
+        Field generatedIdField = ReflectionUtil.getDeclaredField(clazz, EsGeneratedId.class);
+        if (generatedIdField != null) {
+            generatedIdField.setAccessible(true);
+            classTogeneratedIdFields.put(clazz, generatedIdField);
+        }
+        return jsonMapper.writeValueAsString(typesMap);
+    }
+
     /**
      * Add the alien score field for each type in the map.
      * 
@@ -207,6 +328,28 @@ public abstract class ESIndexMapper {
         return index;
     }
 
+    /**
+     * Get the index in which to write the given object. This is the index of the object's type unless the type is partitioned.
+     *
+     * @param data The object to write.
+     * @return The index in which to write the object.
+     */
+    public String getIndexForData(Object data) {
+        return getIndexForType(data.getClass());
+    }
+
+    /**
+     * Get the indices that may contain objects of the given type dated in the given range. This is the index of the type unless the type is partitioned.
+     *
+     * @param clazz The type for which to get the indices.
+     * @param fromDate The start of the date range, null for no start.
+     * @param toDate The end of the date range, null for no end.
+     * @return The indices to search (some of them may not exist).
+     */
+    public String[] getIndicesForType(Class<?> clazz, Date fromDate, Date toDate) {
+        return new String[] { getIndexForType(clazz) };
+    }
+
     /**
      * Return a class from the given elastic search type.
      *
@@ -0,0 +1,98 @@
+package alien4cloud.dao;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.model.FacetedSearchFacet;
+
+/**
+ * Cache of the facets (terms aggregations) of the faceted searches.
+ *
+ * Facets only depend on the query and filters of a search (not on the requested page) and the indexed data (like the catalog) changes far less often than it
+ * is browsed. Every index has a generation that is incremented on each write through the DAOs, the generations of the searched indices are part of the cache
+ * keys so that any write makes the previous facets of the index unreachable. Entries also expire after a configurable delay for the writes that are not
+ * performed through the DAOs of this instance.
+ */
+@Component
+public class FacetsCache {
+    /** Maximum number of cached facets, 0 to disable the cache. */
+    @Value("${elasticSearch.facets_cache.max_entries:1000}")
+    private int maxEntries;
+    @Value("${elasticSearch.facets_cache.ttl_seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, AtomicLong> generations = Maps.newConcurrentMap();
+    private Cache<String, Map<String, FacetedSearchFacet[]>> cache;
+
+    @PostConstruct
+    public void initialize() {
+        if (maxEntries > 0) {
+            cache = CacheBuilder.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS).build();
+        }
+    }
+
+    /**
+     * Get the cache key of the facets of a search. The key must be computed before the search is executed so that a concurrent write is not missed.
+     *
+     * @param indices The searched indices.
+     * @param requestKey A key that identifies the query and filters of the search.
+     * @return The cache key or null if the cache is disabled.
+     */
+    public String getKey(String[] indices, String requestKey) {
+        if (cache == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        for (String index : indices) {
+            key.append(index).append(':').append(getGeneration(index).get()).append(',');
+        }
+        return key.append(requestKey).toString();
+    }
+
+    /**
+     * Get the cached facets of a search.
+     *
+     * @param key The key of the search as returned by {@link #getKey(String[], String)}.
+     * @return A copy of the cached facets or null if not in cache.
+     */
+    public Map<String, FacetedSearchFacet[]> get(String key) {
+        Map<String, FacetedSearchFacet[]> facets = cache.getIfPresent(key);
+        // facets names are post processed in place by the callers so return a copy
+        return facets == null ? null : Maps.newHashMap(facets);
+    }
+
+    /**
+     * Cache the facets of a search.
+     *
+     * @param key The key of the search as returned by {@link #getKey(String[], String)}.
+     * @param facets The facets of the search.
+     */
+    public void put(String key, Map<String, FacetedSearchFacet[]> facets) {
+        if (facets != null) {
+            cache.put(key, Maps.newHashMap(facets));
+        }
+    }
+
+    /**
+     * Notify that the data of an index has been modified so that the cached facets of the index are not used anymore.
+     *
+     * @param index The modified index.
+     */
+    public void invalidate(String index) {
+        getGeneration(index).incrementAndGet();
+    }
+
+    private AtomicLong getGeneration(String index) {
+        return generations.computeIfAbsent(index, key -> new AtomicLong());
+    }
+}
@@ -1,5 +1,6 @@
 package alien4cloud.dao;
 
+import java.util.Date;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -26,6 +27,16 @@ public interface IESQueryBuilderHelper<T> {
      */
     QueryBuilder queryBuilder();
 
+    /**
+     * Restrict the searched indices to the ones that may contain objects dated in the given range (for time partitioned types). This doesn't filter the
+     * objects, a date range filter must still be added to the query. Must be called before {@link #prepareSearch()}.
+     *
+     * @param fromDate The start of the date range, null for no start.
+     * @param toDate The end of the date range, null for no end.
+     * @return current builder instance.
+     */
+    IESQueryBuilderHelper<T> setDateRange(Date fromDate, Date toDate);
+
     /**
      * Build a search query.
      *
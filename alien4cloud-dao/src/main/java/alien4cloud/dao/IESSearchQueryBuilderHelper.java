@@ -1,6 +1,7 @@
 package alien4cloud.dao;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.index.query.FilterBuilder;
@@ -51,6 +52,15 @@ public interface IESSearchQueryBuilderHelper<T> extends IESQueryBuilderHelper<T>
      */
     FacetedSearchResult facetedSearch(IAggregationQueryManager aggregationQueryManager);
 
+    /**
+     * Execute a search query and iterate over all the matching elements using a scroll. Elements are fetched by batches so that the memory used doesn't
+     * depend on the number of results and the cost of fetching a batch doesn't depend on it's position (unlike from/size pagination).
+     *
+     * @param batchSize The number of elements to fetch for every scroll request.
+     * @param consumer The consumer that is called for every matching element, in the query sort order.
+     */
+    void scroll(int batchSize, Consumer<T> consumer);
+
     /**
      * Get the underlying search request builder.
      *
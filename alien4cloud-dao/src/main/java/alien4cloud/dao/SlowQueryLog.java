@@ -0,0 +1,130 @@
+package alien4cloud.dao;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.dao.model.SlowQuery;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Log of the search requests that exceed a configurable threshold. Slow requests are logged (with their json source, indices, types, took time, hits count
+ * and calling method) and the most recent ones are kept in memory to be exposed by the admin api.
+ *
+ * A sample rate can be configured to also record a fraction of all requests whatever their duration, to profile the queries that are frequent rather than
+ * slow.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+    private static final String[] INTERNAL_PACKAGES = { "alien4cloud.dao.", "org.elasticsearch.", "java.", "sun.", "org.springframework." };
+
+    /** Minimum duration of a request to be recorded, negative to disable the slow query log. */
+    @Value("${elasticSearch.slow_query.threshold_ms:1000}")
+    private long thresholdMs;
+    /** Fraction (between 0 and 1) of all the requests to record. */
+    @Value("${elasticSearch.slow_query.sample_rate:0}")
+    private double sampleRate;
+    /** Maximum number of recent requests kept in memory, 0 to only log the slow requests. */
+    @Value("${elasticSearch.slow_query.max_entries:100}")
+    private int maxEntries;
+
+    private final Deque<SlowQuery> recentQueries = new ArrayDeque<>();
+
+    /**
+     * Execute a search request and record it if slow or sampled.
+     *
+     * @param searchRequestBuilder The search request to execute.
+     * @return The search response.
+     */
+    public SearchResponse execute(SearchRequestBuilder searchRequestBuilder) {
+        long start = System.nanoTime();
+        SearchResponse searchResponse = searchRequestBuilder.execute().actionGet();
+        record(searchRequestBuilder, searchResponse, System.nanoTime() - start);
+        return searchResponse;
+    }
+
+    /**
+     * Record a search request if slow or sampled. Must be called from the thread that issued the request to find the calling method.
+     *
+     * @param searchRequestBuilder The executed search request.
+     * @param searchResponse The search response.
+     * @param durationNanos The duration of the request.
+     */
+    public void record(SearchRequestBuilder searchRequestBuilder, SearchResponse searchResponse, long durationNanos) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        boolean slow = thresholdMs >= 0 && durationMs >= thresholdMs;
+        boolean sampled = !slow && sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!slow && !sampled) {
+            return;
+        }
+        SearchRequest request = searchRequestBuilder.request();
+        SlowQuery slowQuery = new SlowQuery(new Date(), request.indices(), request.types(), searchRequestBuilder.toString(), durationMs,
+                searchResponse.getTookInMillis(), searchResponse.getHits().getTotalHits(), searchResponse.getTotalShards(),
+                searchResponse.getSuccessfulShards(), getCaller(), sampled);
+        if (slow) {
+            log.warn("Slow search request ({} ms, took {} ms, {} hits) on indices {} types {} from <{}>: {}", durationMs, slowQuery.getTookMs(),
+                    slowQuery.getTotalHits(), request.indices(), request.types(), slowQuery.getCaller(), slowQuery.getQuery());
+        }
+        if (maxEntries <= 0) {
+            // slow queries are only logged.
+            return;
+        }
+        synchronized (recentQueries) {
+            while (recentQueries.size() >= maxEntries && !recentQueries.isEmpty()) {
+                recentQueries.removeFirst();
+            }
+            recentQueries.addLast(slowQuery);
+        }
+    }
+
+    /**
+     * Get the recent slow and sampled requests.
+     *
+     * @return The recorded requests, most recent first.
+     */
+    public List<SlowQuery> getRecentQueries() {
+        synchronized (recentQueries) {
+            return Lists.newArrayList(recentQueries.descendingIterator());
+        }
+    }
+
+    /**
+     * Clear the recorded requests.
+     */
+    public void clear() {
+        synchronized (recentQueries) {
+            recentQueries.clear();
+        }
+    }
+
+    private static String getCaller() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+            if (!isInternal(className) && !className.contains("$$")) {
+                return className + "." + element.getMethodName();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isInternal(String className) {
+        for (String internalPackage : INTERNAL_PACKAGES) {
+            if (className.startsWith(internalPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package alien4cloud.dao.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A search request recorded by the slow query log, either because it exceeded the threshold or because it has been sampled.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQuery implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Date date;
+    private String[] indices;
+    private String[] types;
+    /** Json source of the search request. */
+    private String query;
+    /** Duration of the request as seen by alien4cloud (including network and response parsing) in milliseconds. */
+    private long durationMs;
+    /** Duration of the search as reported by elasticsearch in milliseconds. */
+    private long tookMs;
+    private long totalHits;
+    private int totalShards;
+    private int successfulShards;
+    /** First method outside of the DAOs that issued the request. */
+    private String caller;
+    /** True if the request has been recorded by sampling rather than because it was slow. */
+    private boolean sampled;
+}
@@ -0,0 +1,134 @@
+package alien4cloud.dao;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.search.ClearScrollRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.mapping.ElasticSearchClient;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+
+public class ESGenericSearchDAOScrollTest {
+    private ESGenericSearchDAO dao;
+    private Client client;
+    private ClearScrollRequestBuilder clearScrollRequestBuilder;
+    private List<String> consumed = Lists.newArrayList();
+
+    public static class Element {
+        public String name;
+    }
+
+    private static class TestDAO extends ESGenericSearchDAO {
+    }
+
+    @Before
+    public void setup() {
+        client = mock(Client.class);
+        ElasticSearchClient esClient = mock(ElasticSearchClient.class);
+        when(esClient.getClient()).thenReturn(client);
+        dao = new TestDAO();
+        ReflectionTestUtils.setField(dao, ESIndexMapper.class, "esClient", esClient, ElasticSearchClient.class);
+
+        clearScrollRequestBuilder = mock(ClearScrollRequestBuilder.class);
+        when(client.prepareClearScroll()).thenReturn(clearScrollRequestBuilder);
+        when(clearScrollRequestBuilder.addScrollId(anyString())).thenReturn(clearScrollRequestBuilder);
+    }
+
+    private SearchHit hit(String name) {
+        SearchHit hit = mock(SearchHit.class);
+        when(hit.sourceRef()).thenReturn(new BytesArray(("{\"name\":\"" + name + "\"}").getBytes(StandardCharsets.UTF_8)));
+        return hit;
+    }
+
+    private SearchResponse page(String scrollId, String... names) {
+        SearchHit[] hits = new SearchHit[names.length];
+        for (int i = 0; i < names.length; i++) {
+            hits[i] = hit(names[i]);
+        }
+        SearchHits searchHits = mock(SearchHits.class);
+        when(searchHits.getHits()).thenReturn(hits);
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.getHits()).thenReturn(searchHits);
+        when(searchResponse.getScrollId()).thenReturn(scrollId);
+        return searchResponse;
+    }
+
+    /** Register the page returned by elasticsearch when scrolling with the given scroll id. */
+    @SuppressWarnings("unchecked")
+    private void nextPage(String scrollId, SearchResponse searchResponse) {
+        SearchScrollRequestBuilder searchScrollRequestBuilder = mock(SearchScrollRequestBuilder.class);
+        ListenableActionFuture<SearchResponse> future = mock(ListenableActionFuture.class);
+        when(client.prepareSearchScroll(scrollId)).thenReturn(searchScrollRequestBuilder);
+        when(searchScrollRequestBuilder.setScroll(any(TimeValue.class))).thenReturn(searchScrollRequestBuilder);
+        when(searchScrollRequestBuilder.execute()).thenReturn(future);
+        when(future.actionGet()).thenReturn(searchResponse);
+    }
+
+    private void consumeScroll(SearchResponse searchResponse) {
+        dao.consumeScroll(Element.class, searchResponse, element -> consumed.add(element.name));
+    }
+
+    @Test
+    public void allPagesShouldBeConsumedInOrder() {
+        nextPage("scroll-1", page("scroll-2", "c", "d"));
+        nextPage("scroll-2", page("scroll-3", "e"));
+        nextPage("scroll-3", page("scroll-4"));
+        consumeScroll(page("scroll-1", "a", "b"));
+
+        Assert.assertEquals(Lists.newArrayList("a", "b", "c", "d", "e"), consumed);
+        verify(client, times(3)).prepareSearchScroll(anyString());
+        // the scroll context is released once the last (empty) page is reached
+        verify(clearScrollRequestBuilder).addScrollId("scroll-4");
+        verify(clearScrollRequestBuilder).execute();
+    }
+
+    @Test
+    public void emptyResultShouldOnlyClearScroll() {
+        consumeScroll(page("scroll-1"));
+
+        Assert.assertTrue(consumed.isEmpty());
+        verify(client, never()).prepareSearchScroll(anyString());
+        verify(clearScrollRequestBuilder).addScrollId("scroll-1");
+    }
+
+    @Test
+    public void scrollShouldBeClearedWhenConsumerFails() {
+        nextPage("scroll-1", page("scroll-2", "c", "d"));
+        try {
+            dao.consumeScroll(Element.class, page("scroll-1", "a", "b"), element -> {
+                if ("c".equals(element.name)) {
+                    throw new IllegalStateException("client disconnected");
+                }
+                consumed.add(element.name);
+            });
+            Assert.fail("The consumer failure must be propagated");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("client disconnected", e.getMessage());
+        }
+
+        Assert.assertEquals(Lists.newArrayList("a", "b"), consumed);
+        verify(client, never()).prepareSearchScroll("scroll-2");
+        verify(clearScrollRequestBuilder).addScrollId("scroll-2");
+        verify(clearScrollRequestBuilder).execute();
+    }
+}
@@ -0,0 +1,128 @@
+package alien4cloud.dao;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.mapping.ElasticSearchClient;
+import org.elasticsearch.mapping.MappingBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.model.FacetedSearchFacet;
+
+public class FacetsCacheTest {
+    private static final String[] CATALOG_INDICES = new String[] { "catalog" };
+    private static final String[] APPLICATION_INDICES = new String[] { "application" };
+
+    private FacetsCache facetsCache;
+    private ESGenericIdDAO dao;
+
+    public static class CatalogElement {
+        public String id;
+    }
+
+    public static class ApplicationElement {
+        public String id;
+    }
+
+    private static class TestDAO extends ESGenericIdDAO {
+    }
+
+    @Before
+    public void setup() {
+        facetsCache = new FacetsCache();
+        ReflectionTestUtils.setField(facetsCache, "maxEntries", 10);
+        ReflectionTestUtils.setField(facetsCache, "ttlSeconds", 300L);
+        facetsCache.initialize();
+
+        ElasticSearchClient esClient = mock(ElasticSearchClient.class);
+        when(esClient.getClient()).thenReturn(mock(Client.class, RETURNS_DEEP_STUBS));
+        dao = new TestDAO();
+        ReflectionTestUtils.setField(dao, "esClient", esClient);
+        ReflectionTestUtils.setField(dao, "facetsCache", facetsCache);
+        dao.getTypesToIndices().put(MappingBuilder.indexTypeFromClass(CatalogElement.class), "catalog");
+        dao.getTypesToIndices().put(MappingBuilder.indexTypeFromClass(ApplicationElement.class), "application");
+    }
+
+    private Map<String, FacetedSearchFacet[]> facets() {
+        Map<String, FacetedSearchFacet[]> facets = Maps.newHashMap();
+        facets.put("tags", new FacetedSearchFacet[0]);
+        return facets;
+    }
+
+    /** Cache the facets of a search on the given indices and return the key of the search. */
+    private String cacheFacets(String[] indices) {
+        String key = facetsCache.getKey(indices, "query");
+        facetsCache.put(key, facets());
+        return key;
+    }
+
+    private void assertCached(String[] indices, String previousKey) {
+        String key = facetsCache.getKey(indices, "query");
+        Assert.assertEquals(previousKey, key);
+        Assert.assertNotNull(facetsCache.get(key));
+    }
+
+    private void assertInvalidated(String[] indices, String previousKey) {
+        String key = facetsCache.getKey(indices, "query");
+        Assert.assertNotEquals(previousKey, key);
+        Assert.assertNull(facetsCache.get(key));
+    }
+
+    @Test
+    public void cachedFacetsShouldBeCopied() {
+        String key = cacheFacets(CATALOG_INDICES);
+        facetsCache.get(key).clear();
+        Assert.assertEquals(1, facetsCache.get(key).size());
+    }
+
+    @Test
+    public void saveShouldOnlyInvalidateFacetsOfWrittenIndex() {
+        String catalogKey = cacheFacets(CATALOG_INDICES);
+        String applicationKey = cacheFacets(APPLICATION_INDICES);
+
+        dao.save(new CatalogElement());
+        assertInvalidated(CATALOG_INDICES, catalogKey);
+        assertCached(APPLICATION_INDICES, applicationKey);
+    }
+
+    @Test
+    public void bulkSaveShouldInvalidateFacetsOfWrittenIndices() {
+        String catalogKey = cacheFacets(CATALOG_INDICES);
+        String applicationKey = cacheFacets(APPLICATION_INDICES);
+
+        dao.save(new ApplicationElement[] { new ApplicationElement() });
+        assertCached(CATALOG_INDICES, catalogKey);
+        assertInvalidated(APPLICATION_INDICES, applicationKey);
+    }
+
+    @Test
+    public void deleteShouldOnlyInvalidateFacetsOfWrittenIndex() {
+        String catalogKey = cacheFacets(CATALOG_INDICES);
+        String applicationKey = cacheFacets(APPLICATION_INDICES);
+        // a search on several indices is invalidated by a write in any of them
+        String[] allIndices = new String[] { "catalog", "application" };
+        String allKey = cacheFacets(allIndices);
+
+        dao.delete(ApplicationElement.class, "id");
+        assertCached(CATALOG_INDICES, catalogKey);
+        assertInvalidated(APPLICATION_INDICES, applicationKey);
+        assertInvalidated(allIndices, allKey);
+    }
+
+    @Test
+    public void disabledCacheShouldNotProvideKeys() {
+        facetsCache = new FacetsCache();
+        ReflectionTestUtils.setField(facetsCache, "maxEntries", 0);
+        facetsCache.initialize();
+        Assert.assertNull(facetsCache.getKey(CATALOG_INDICES, "query"));
+    }
+}
@@ -0,0 +1,111 @@
+package alien4cloud.dao;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHits;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.dao.model.SlowQuery;
+
+public class SlowQueryLogTest {
+    private SlowQueryLog slowQueryLog;
+
+    @Before
+    public void setup() {
+        slowQueryLog = new SlowQueryLog();
+        ReflectionTestUtils.setField(slowQueryLog, "thresholdMs", 100L);
+        ReflectionTestUtils.setField(slowQueryLog, "sampleRate", 0d);
+        ReflectionTestUtils.setField(slowQueryLog, "maxEntries", 3);
+    }
+
+    private SearchRequestBuilder searchRequestBuilder(String index) {
+        SearchRequestBuilder searchRequestBuilder = mock(SearchRequestBuilder.class);
+        when(searchRequestBuilder.request()).thenReturn(new SearchRequest(index).types("type"));
+        return searchRequestBuilder;
+    }
+
+    private SearchResponse searchResponse(long totalHits) {
+        SearchHits searchHits = mock(SearchHits.class);
+        when(searchHits.getTotalHits()).thenReturn(totalHits);
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.getHits()).thenReturn(searchHits);
+        when(searchResponse.getTookInMillis()).thenReturn(5L);
+        when(searchResponse.getTotalShards()).thenReturn(5);
+        when(searchResponse.getSuccessfulShards()).thenReturn(5);
+        return searchResponse;
+    }
+
+    private void record(String index, long durationMs) {
+        slowQueryLog.record(searchRequestBuilder(index), searchResponse(10), TimeUnit.MILLISECONDS.toNanos(durationMs));
+    }
+
+    @Test
+    public void onlyRequestsExceedingThresholdShouldBeRecorded() {
+        record("fast", 99);
+        record("slow", 100);
+
+        List<SlowQuery> recentQueries = slowQueryLog.getRecentQueries();
+        Assert.assertEquals(1, recentQueries.size());
+        SlowQuery slowQuery = recentQueries.get(0);
+        Assert.assertArrayEquals(new String[] { "slow" }, slowQuery.getIndices());
+        Assert.assertArrayEquals(new String[] { "type" }, slowQuery.getTypes());
+        Assert.assertEquals(100, slowQuery.getDurationMs());
+        Assert.assertEquals(5, slowQuery.getTookMs());
+        Assert.assertEquals(10, slowQuery.getTotalHits());
+        Assert.assertFalse(slowQuery.isSampled());
+    }
+
+    @Test
+    public void negativeThresholdShouldDisableSlowQueryLog() {
+        ReflectionTestUtils.setField(slowQueryLog, "thresholdMs", -1L);
+        record("slow", 10000);
+        Assert.assertTrue(slowQueryLog.getRecentQueries().isEmpty());
+    }
+
+    @Test
+    public void sampledRequestsShouldBeRecordedWhateverTheirDuration() {
+        ReflectionTestUtils.setField(slowQueryLog, "sampleRate", 1d);
+        record("fast", 1);
+        record("slow", 1000);
+
+        List<SlowQuery> recentQueries = slowQueryLog.getRecentQueries();
+        Assert.assertEquals(2, recentQueries.size());
+        // slow requests are never flagged as sampled
+        Assert.assertFalse(recentQueries.get(0).isSampled());
+        Assert.assertTrue(recentQueries.get(1).isSampled());
+    }
+
+    @Test
+    public void oldestRequestsShouldBeEvictedWhenMaxEntriesIsReached() {
+        for (int i = 0; i < 5; i++) {
+            record("index" + i, 100);
+        }
+
+        List<SlowQuery> recentQueries = slowQueryLog.getRecentQueries();
+        Assert.assertEquals(3, recentQueries.size());
+        // most recent first
+        for (int i = 0; i < 3; i++) {
+            Assert.assertArrayEquals(new String[] { "index" + (4 - i) }, recentQueries.get(i).getIndices());
+        }
+
+        slowQueryLog.clear();
+        Assert.assertTrue(slowQueryLog.getRecentQueries().isEmpty());
+    }
+
+    @Test
+    public void zeroMaxEntriesShouldOnlyLogRequests() {
+        ReflectionTestUtils.setField(slowQueryLog, "maxEntries", 0);
+        record("slow", 100);
+        Assert.assertTrue(slowQueryLog.getRecentQueries().isEmpty());
+    }
+}
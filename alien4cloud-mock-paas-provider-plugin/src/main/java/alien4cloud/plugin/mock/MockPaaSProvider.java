@@ -237,7 +237,7 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
         deploymentLog.setTimestamp(new Date());
         deploymentLog.setType("deployment_status_change");
         deploymentLog.setWorkflowId("install");
-        alienMonitorDao.getClient().admin().indices().prepareRefresh(PaaSDeploymentLog.class.getSimpleName().toLowerCase()).execute().actionGet();
+        alienMonitorDao.getClient().admin().indices().prepareRefresh(alienMonitorDao.getIndexForType(PaaSDeploymentLog.class)).execute().actionGet();
         deploymentLoggingService.save(deploymentLog);
         executorService.schedule(new Runnable() {
             @Override
@@ -357,7 +357,7 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
             deploymentLog.setType("state_change");
             deploymentLog.setWorkflowId("install");
             alienMonitorDao.save(deploymentLog);
-            alienMonitorDao.getClient().admin().indices().prepareRefresh(PaaSDeploymentLog.class.getSimpleName().toLowerCase()).execute().actionGet();
+            alienMonitorDao.getClient().admin().indices().prepareRefresh(alienMonitorDao.getIndexForType(PaaSDeploymentLog.class)).execute().actionGet();
         }
     }
 
@@ -23,12 +23,16 @@ import org.alien4cloud.tosca.utils.TopologyUtils;
 import org.elasticsearch.common.joda.time.DateTime;
 import org.elasticsearch.common.joda.time.DateTimeZone;
 import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
@@ -48,6 +52,7 @@ import alien4cloud.deployment.DeploymentTopologyDTO;
 import alien4cloud.deployment.DeploymentTopologyDTOBuilder;
 import alien4cloud.deployment.UndeployService;
 import alien4cloud.deployment.WorkflowExecutionService;
+import alien4cloud.deployment.model.InstancesInformationSnapshot;
 import alien4cloud.deployment.model.SecretProviderConfigurationAndCredentials;
 import alien4cloud.deployment.model.SecretProviderCredentials;
 import alien4cloud.exception.AlreadyExistException;
@@ -456,28 +461,41 @@ public class ApplicationDeploymentController {
     /**
      * Get detailed information for every instances of every node of the application on the PaaS.
      *
+     * The response has an ETag header based on the version of the instances information, if the If-None-Match header of the request matches the current
+     * version a 304 (not modified) response is returned.
+     *
      * @param applicationId The id of the application to be deployed.
+     * @param ifNoneMatch The ETag of the instances information already known by the client if any.
      * @return A {@link RestResponse} that contains detailed informations (See {@link InstanceInformation}) of the application on the PaaS it is deployed.
      */
     @ApiOperation(value = "Get detailed informations for every instances of every node of the application on the PaaS.", notes = "Application role required [ APPLICATION_MANAGER | APPLICATION_DEVOPS ] and Application environment role required [ APPLICATION_USER | DEPLOYMENT_MANAGER ]")
     @RequestMapping(value = "/{applicationId:.+}/environments/{applicationEnvironmentId}/deployment/informations", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("isAuthenticated()")
-    public DeferredResult<RestResponse<Map<String, Map<String, InstanceInformation>>>> getInstanceInformation(@PathVariable String applicationId,
-            @PathVariable String applicationEnvironmentId) {
+    public DeferredResult<ResponseEntity<RestResponse<Map<String, Map<String, InstanceInformation>>>>> getInstanceInformation(
+            @PathVariable String applicationId, @PathVariable String applicationEnvironmentId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Application application = applicationService.checkAndGetApplication(applicationId);
         ApplicationEnvironment environment = applicationEnvironmentService.getEnvironmentByIdOrDefault(application.getId(), applicationEnvironmentId);
         AuthorizationUtil.checkAuthorizationForEnvironment(application, environment, ApplicationEnvironmentRole.values());
 
         Deployment deployment = applicationEnvironmentService.getActiveDeployment(environment.getId());
-        final DeferredResult<RestResponse<Map<String, Map<String, InstanceInformation>>>> instancesDeferredResult = new DeferredResult<>(5L * 60L * 1000L);
+        final DeferredResult<ResponseEntity<RestResponse<Map<String, Map<String, InstanceInformation>>>>> instancesDeferredResult = new DeferredResult<>(
+                5L * 60L * 1000L);
         if (deployment == null) { // if there is no topology associated with the version it could not have been deployed.
-            instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().build());
+            instancesDeferredResult.setResult(ResponseEntity.ok(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().build()));
         } else {
             try {
-                deploymentRuntimeStateService.getInstancesInformation(deployment, new IPaaSCallback<Map<String, Map<String, InstanceInformation>>>() {
+                deploymentRuntimeStateService.getInstancesInformationSnapshot(deployment, new IPaaSCallback<InstancesInformationSnapshot>() {
                     @Override
-                    public void onSuccess(Map<String, Map<String, InstanceInformation>> data) {
-                        instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().data(data).build());
+                    public void onSuccess(InstancesInformationSnapshot data) {
+                        String eTag = "\"" + deployment.getId() + "-" + data.getEpoch() + "-" + data.getVersion() + "\"";
+                        if (eTag.equals(ifNoneMatch)) {
+                            instancesDeferredResult.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag)
+                                    .<RestResponse<Map<String, Map<String, InstanceInformation>>>> build());
+                        } else {
+                            instancesDeferredResult.setResult(ResponseEntity.ok().eTag(eTag)
+                                    .body(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().data(data.getInstancesInformation()).build()));
+                        }
                     }
 
                     @Override
@@ -487,7 +505,7 @@ public class ApplicationDeploymentController {
                 });
             } catch (OrchestratorDisabledException e) {
                 log.error("Cannot get instance informations as topology plugin cannot be found.", e);
-                instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().build());
+                instancesDeferredResult.setResult(ResponseEntity.ok(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().build()));
             }
         }
         return instancesDeferredResult;
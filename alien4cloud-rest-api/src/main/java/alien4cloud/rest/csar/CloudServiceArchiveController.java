@@ -98,9 +98,8 @@ public class CloudServiceArchiveController {
             // Perform check that the user has one of ARCHITECT, COMPONENT_MANAGER or ADMIN role
             archiveIndexerAuthorizationFilter.preCheckAuthorization(workspace);
             log.info("Serving file upload with name [" + csar.getOriginalFilename() + "]");
-            csarPath = Files.createTempFile(tempDirPath, null, '.' + CsarFileRepository.CSAR_EXTENSION);
-            // save the archive in the temp directory
-            FileUploadUtil.safeTransferTo(csarPath, csar);
+            // save the archive in the temp directory, zip archives are expanded from the upload stream
+            csarPath = FileUploadUtil.transferArchive(tempDirPath, csar, CsarFileRepository.CSAR_EXTENSION);
             // load, parse the archive definitions and save on disk
             ParsingResult<Csar> result = csarUploadService.upload(csarPath, CSARSource.UPLOAD, workspace);
             RestError error = null;
@@ -11,7 +11,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.elasticsearch.mapping.MappingBuilder;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
@@ -26,6 +25,7 @@ import alien4cloud.paas.model.AbstractPaaSWorkflowMonitorEvent;
 import alien4cloud.paas.model.DeploymentStatus;
 import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
 import alien4cloud.rest.websocket.ISecuredHandler;
+import alien4cloud.rest.websocket.TopicEventBuffer;
 import alien4cloud.security.AuthorizationUtil;
 import alien4cloud.security.model.ApplicationEnvironmentRole;
 import alien4cloud.security.model.ApplicationRole;
@@ -49,7 +49,7 @@ public class DeploymentEventHandler implements IPaasEventListener<AbstractMonito
     private IGenericSearchDAO alienDAO;
 
     @Resource
-    private SimpMessagingTemplate template;
+    private TopicEventBuffer topicEventBuffer;
 
     protected void send(AbstractMonitorEvent event) {
         String eventType = MappingBuilder.indexTypeFromClass(event.getClass());
@@ -68,7 +68,7 @@ public class DeploymentEventHandler implements IPaasEventListener<AbstractMonito
 
     private void dispatchEvent(AbstractMonitorEvent event, String topicName) {
         log.debug("Send [{}] to [{}]: {}", event.getClass().getSimpleName(), topicName, event);
-        template.convertAndSend(topicName, event);
+        topicEventBuffer.send(topicName, event);
     }
 
     /**
@@ -107,7 +107,7 @@ public class DeploymentEventHandler implements IPaasEventListener<AbstractMonito
         }
     }
 
-    private void checkDeploymentAuthorization(Authentication authentication, User a4cUser, String deploymentId) {
+    void checkDeploymentAuthorization(Authentication authentication, User a4cUser, String deploymentId) {
         Deployment deployment = alienDAO.findById(Deployment.class, deploymentId);
         switch (deployment.getSourceType()) {
         case APPLICATION:
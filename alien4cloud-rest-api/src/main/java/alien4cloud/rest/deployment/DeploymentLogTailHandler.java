@@ -0,0 +1,86 @@
+package alien4cloud.rest.deployment;
+
+import java.security.Principal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import alien4cloud.deployment.DeploymentLogTailService;
+import alien4cloud.deployment.IDeploymentLogTailListener;
+import alien4cloud.deployment.model.DeploymentLogTail;
+import alien4cloud.rest.websocket.ISecuredHandler;
+import alien4cloud.security.model.User;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publish the new logs of deployments on a per deployment topic.
+ *
+ * Every frame is a {@link DeploymentLogTail} with the new logs and the sequence of the last one. Viewers first get the backlog from the tail rest endpoint
+ * and then ignore the frames with a sequence lower or equal to the backlog one.
+ */
+@Slf4j
+@Component
+public class DeploymentLogTailHandler implements IDeploymentLogTailListener, ISecuredHandler {
+    private static final String TOPIC_PREFIX = "/topic/deployment-logs";
+    private static final Pattern DESTINATION_PATTERN = Pattern.compile(TOPIC_PREFIX + "/(.*?)");
+
+    @Resource
+    private SimpMessagingTemplate template;
+    @Resource
+    private DeploymentLogTailService deploymentLogTailService;
+    @Resource
+    private DeploymentEventHandler deploymentEventHandler;
+
+    /** Single thread so that frames of a deployment are sent in order and logs producers are never blocked by the web-socket fan-out. */
+    private ExecutorService sendExecutor;
+
+    @PostConstruct
+    public void init() {
+        sendExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("deployment-logs-tail-%d").setDaemon(true).build());
+        deploymentLogTailService.addListener(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sendExecutor.shutdownNow();
+    }
+
+    @Override
+    public void logsAppended(String deploymentId, DeploymentLogTail newLogs) {
+        String topic = TOPIC_PREFIX + "/" + deploymentId;
+        sendExecutor.execute(() -> {
+            try {
+                template.convertAndSend(topic, newLogs);
+            } catch (MessagingException e) {
+                log.error("Failed to send {} logs to [{}]", newLogs.getLogs().size(), topic, e);
+            }
+        });
+    }
+
+    @Override
+    public boolean canHandleDestination(String destination) {
+        return DESTINATION_PATTERN.matcher(destination).matches();
+    }
+
+    @Override
+    public void checkAuthorization(Principal user, String destination) {
+        Matcher matcher = DESTINATION_PATTERN.matcher(destination);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Cannot handle this destination [" + destination + "]");
+        }
+        Authentication authentication = (Authentication) user;
+        deploymentEventHandler.checkDeploymentAuthorization(authentication, (User) authentication.getPrincipal(), matcher.group(1));
+    }
+}
@@ -18,7 +18,6 @@ import org.elasticsearch.common.collect.Maps;
 import org.elasticsearch.common.lang3.StringUtils;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
@@ -29,6 +28,7 @@ import alien4cloud.model.deployment.Deployment;
 import alien4cloud.paas.IPaasEventListener;
 import alien4cloud.paas.IPaasEventService;
 import alien4cloud.rest.websocket.ISecuredHandler;
+import alien4cloud.rest.websocket.TopicEventBuffer;
 import alien4cloud.security.AuthorizationUtil;
 import alien4cloud.security.model.ApplicationEnvironmentRole;
 import alien4cloud.security.model.ApplicationRole;
@@ -50,7 +50,7 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
     private IGenericSearchDAO alienDAO;
 
     @Resource
-    private SimpMessagingTemplate template;
+    private TopicEventBuffer topicEventBuffer;
 
     protected void send(AbstractMonitorEvent event) {
         String eventType = "paasworkflowmonitorevent";
@@ -58,7 +58,7 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
         if (log.isDebugEnabled()) {
             log.debug("Send [" + event.getClass().getSimpleName() + "] to [" + topicName + "]: " + event);
         }
-        template.convertAndSend(topicName, event);
+        topicEventBuffer.send(topicName, event);
         if (event instanceof PaaSWorkflowMonitorEvent) {
             Deployment deployment = alienDAO.findById(Deployment.class, event.getDeploymentId());
 
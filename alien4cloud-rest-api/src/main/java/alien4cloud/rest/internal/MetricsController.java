@@ -0,0 +1,78 @@
+package alien4cloud.rest.internal;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.Resource;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+import alien4cloud.dao.SlowQueryLog;
+import alien4cloud.dao.model.SlowQuery;
+import alien4cloud.rest.internal.model.TimerStatistics;
+import alien4cloud.rest.model.RestResponse;
+import alien4cloud.rest.model.RestResponseBuilder;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+/**
+ * Expose the latency of the rest endpoints (rest.*), of the elastic search DAOs operations (dao.*) and of the orchestrator plugins calls
+ * (orchestrators.*) as well as the recent slow elastic search requests. The whole metric registry remains available through the metrics servlet.
+ */
+@RestController
+@RequestMapping({ "/rest/metrics", "/rest/v1/metrics", "/rest/latest/metrics" })
+@Api
+public class MetricsController {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Resource
+    private MetricRegistry metricRegistry;
+    @Resource
+    private SlowQueryLog slowQueryLog;
+
+    @ApiOperation(value = "Get the latency statistics of the timed operations, slowest (99th percentile) first.", notes = "Role required [ ADMIN ]")
+    @RequestMapping(value = "/timers", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public RestResponse<List<TimerStatistics>> getTimers(@RequestParam(value = "prefix", required = false) String prefix) {
+        MetricFilter filter = prefix == null ? MetricFilter.ALL : (name, metric) -> name.startsWith(prefix);
+        List<TimerStatistics> statistics = metricRegistry.getTimers(filter).entrySet().stream().map(this::toStatistics)
+                .sorted(Comparator.comparingDouble(TimerStatistics::getP99).reversed()).collect(Collectors.toList());
+        return RestResponseBuilder.<List<TimerStatistics>> builder().data(statistics).build();
+    }
+
+    @ApiOperation(value = "Get the recent slow (and sampled) elastic search requests, most recent first.", notes = "Role required [ ADMIN ]")
+    @RequestMapping(value = "/slow-queries", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public RestResponse<List<SlowQuery>> getSlowQueries() {
+        return RestResponseBuilder.<List<SlowQuery>> builder().data(slowQueryLog.getRecentQueries()).build();
+    }
+
+    @ApiOperation(value = "Clear the recorded slow elastic search requests.", notes = "Role required [ ADMIN ]")
+    @RequestMapping(value = "/slow-queries", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public RestResponse<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return RestResponseBuilder.<Void> builder().build();
+    }
+
+    private TimerStatistics toStatistics(Map.Entry<String, Timer> timerEntry) {
+        Timer timer = timerEntry.getValue();
+        Snapshot snapshot = timer.getSnapshot();
+        return new TimerStatistics(timerEntry.getKey(), timer.getCount(), timer.getOneMinuteRate(), snapshot.getMean() / NANOS_PER_MILLI,
+                snapshot.getMedian() / NANOS_PER_MILLI, snapshot.get95thPercentile() / NANOS_PER_MILLI, snapshot.get99thPercentile() / NANOS_PER_MILLI,
+                snapshot.getMax() / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,23 @@
+package alien4cloud.rest.internal.model;
+
+import io.swagger.annotations.ApiModel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel("Latency statistics of a timed operation, durations are in milliseconds.")
+public class TimerStatistics {
+    private String name;
+    private long count;
+    private double oneMinuteRate;
+    private double mean;
+    private double median;
+    private double p95;
+    private double p99;
+    private double max;
+}
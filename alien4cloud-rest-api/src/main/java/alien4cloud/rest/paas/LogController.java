@@ -1,10 +1,13 @@
 package alien4cloud.rest.paas;
 
 import alien4cloud.dao.model.FacetedSearchResult;
+import alien4cloud.deployment.DeploymentLogTailService;
+import alien4cloud.deployment.model.DeploymentLogTail;
 import alien4cloud.paas.model.PaaSDeploymentLog;
 import alien4cloud.rest.application.model.SearchLogRequest;
 import alien4cloud.rest.paas.services.LogService;
 import alien4cloud.rest.model.RestResponse;
+import alien4cloud.rest.model.RestResponseBuilder;
 import alien4cloud.rest.utils.JsonUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -25,6 +28,8 @@ import java.io.IOException;
 public class LogController {
     @Inject
     private LogService logService;
+    @Inject
+    private DeploymentLogTailService deploymentLogTailService;
 
     private final static String LOG_FILTER = "LOG_FILTER";
     /**
@@ -40,15 +45,29 @@ public class LogController {
         return logService.doSearch(searchRequest);
     }
 
-    @ApiOperation(value = "Download logs of a given deployment", notes = "Returns a file containing the logs which matches the filter. ")
+    @ApiOperation(value = "Download logs of a given deployment", notes = "Returns a file containing the logs which matches the filter. The file is gzip compressed if gzip is true.")
     @RequestMapping(value = "/download", method = RequestMethod.POST, consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE, produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     @PreAuthorize("isAuthenticated()")
-    public void download(@RequestParam String req, HttpServletResponse response) throws IOException {
+    public void download(@RequestParam String req, @RequestParam(required = false, defaultValue = "false") boolean gzip, HttpServletResponse response)
+            throws IOException {
         SearchLogRequest logRequest = JsonUtil.readObject(req, SearchLogRequest.class);
-        String fName = logService.getDownloadFileName(logRequest);
+        String fName = logService.getDownloadFileName(logRequest, gzip);
         response.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
         response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fName +"\"");
-        logService.downloadLogs(logRequest, response.getOutputStream());
+        logService.downloadLogs(logRequest, response.getOutputStream(), gzip);
+    }
+
+    /**
+     * Get the last logs of a deployment from memory, to be used as backlog before following the deployment logs topic.
+     *
+     * @param deploymentId The id of the deployment.
+     * @return A rest response that contains the last logs of the deployment and the sequence of the last one.
+     */
+    @ApiOperation(value = "Get the last logs of a given deployment", notes = "Returns the last logs of the deployment kept in memory. Live logs are then published on the /topic/deployment-logs/{deploymentId} web-socket topic, frames with a sequence lower or equal to the returned one must be ignored.")
+    @RequestMapping(value = "/{deploymentId}/tail", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public RestResponse<DeploymentLogTail> tail(@PathVariable String deploymentId) {
+        return RestResponseBuilder.<DeploymentLogTail> builder().data(deploymentLogTailService.getTail(deploymentId)).build();
     }
     
 }
\ No newline at end of file
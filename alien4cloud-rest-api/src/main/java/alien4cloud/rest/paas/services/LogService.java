@@ -3,7 +3,6 @@ package alien4cloud.rest.paas.services;
 import alien4cloud.dao.IESSearchQueryBuilderHelper;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.FacetedSearchResult;
-import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.paas.model.PaaSDeploymentLog;
 import alien4cloud.rest.application.model.SearchLogRequest;
@@ -15,10 +14,13 @@ import org.elasticsearch.index.query.RangeFilterBuilder;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
-import javax.servlet.ServletOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class LogService {
@@ -65,37 +67,45 @@ public class LogService {
                     .setFieldSort(sortBy, !ascending);
 
         } else {
-            query = alienMonitorDao.buildSearchQuery(PaaSDeploymentLog.class, searchRequest.getQuery()).prepareSearch()
+            // only search the logs partitions that overlap the requested dates
+            query = alienMonitorDao.buildSearchQuery(PaaSDeploymentLog.class, searchRequest.getQuery())
+                    .setDateRange(searchRequest.getFromDate(), searchRequest.getToDate()).prepareSearch()
                     .setFilters(searchRequest.getFilters(), dateRangeBuilder).setFieldSort(sortBy, !ascending);
         }
         return query;
     }
 
-    public String getDownloadFileName(SearchLogRequest request) {
+    public String getDownloadFileName(SearchLogRequest request, boolean compressed) {
         String deploymentId = request.getFilters().get("deploymentId")[0];
         Deployment deployment = alienDAO.findById(Deployment.class, deploymentId);
-        return deployment.getOrchestratorDeploymentId() + "-" + deployment.getVersionId() + ".log";
+        return deployment.getOrchestratorDeploymentId() + "-" + deployment.getVersionId() + (compressed ? ".log.gz" : ".log");
     }
 
-    public void downloadLogs(SearchLogRequest request, ServletOutputStream os) {
-        final int pageSize = 100;
-        int from = 0;
+    /**
+     * Stream all the logs matching the request to the given output stream. Logs are fetched using a scroll so memory consumption doesn't depend on the
+     * number of logs.
+     *
+     * @param request The log search request.
+     * @param os The output stream in which to write the formatted logs.
+     * @param compressed True if the logs should be gzip compressed.
+     */
+    public void downloadLogs(SearchLogRequest request, OutputStream os, boolean compressed) throws IOException {
+        final int batchSize = 1000;
         request.setSortConfiguration(new SortConfiguration("timestamp", true));
         final IESSearchQueryBuilderHelper<PaaSDeploymentLog> query = buildQuery(request);
-        while (true) {
-            GetMultipleDataResult<PaaSDeploymentLog> result = query.search(from, pageSize);
-            List<PaaSDeploymentLog> logList = Arrays.asList(result.getData());
-            logList.forEach(log -> {
-                try {
-                    os.print(log.toFormattedString());
-                } catch (IOException e) {
-                    throw new RuntimeException("Error when downloading logs.", e);
-                }
-            });
-            from += pageSize;
-            if (result.getTotalResults() < pageSize) {
-                break;
+        OutputStream logStream = compressed ? new GZIPOutputStream(os, 8192) : os;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(logStream, StandardCharsets.UTF_8), 8192);
+        query.scroll(batchSize, deploymentLog -> {
+            try {
+                writer.write(deploymentLog.toFormattedString());
+            } catch (IOException e) {
+                throw new RuntimeException("Error when downloading logs.", e);
             }
+        });
+        // flush and finish the gzip stream without closing the servlet output stream.
+        writer.flush();
+        if (compressed) {
+            ((GZIPOutputStream) logStream).finish();
         }
     }
 }
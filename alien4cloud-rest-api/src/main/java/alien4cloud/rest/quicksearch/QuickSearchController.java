@@ -2,14 +2,20 @@ package alien4cloud.rest.quicksearch;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Resource;
 
 import io.swagger.annotations.Api;
 import org.alien4cloud.tosca.model.types.RelationshipType;
-import org.apache.commons.lang3.ArrayUtils;
 import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.mapping.MappingBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -28,6 +34,10 @@ import alien4cloud.rest.model.RestResponseBuilder;
 import alien4cloud.security.AuthorizationUtil;
 import alien4cloud.security.model.Role;
 
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
 import io.swagger.annotations.ApiOperation;
 
@@ -43,44 +53,58 @@ public class QuickSearchController {
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDAO;
 
+    /** Applications authorization filters per authentication (weak keys compare by identity and are released with the session). */
+    private Cache<Authentication, Optional<FilterBuilder>> authorizationFilters;
+
+    @Value("${quicksearch.authorization_filter_ttl_seconds:60}")
+    public void setAuthorizationFilterTtl(long authorizationFilterTtl) {
+        authorizationFilters = CacheBuilder.newBuilder().weakKeys().expireAfterWrite(authorizationFilterTtl, TimeUnit.SECONDS).build();
+    }
+
     @ApiOperation(value = "Search for applications or tosca elements in ALIEN's repository.")
     @RequestMapping(method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("isAuthenticated()")
     public RestResponse<GetMultipleDataResult> search(@RequestBody BasicSearchRequest requestObject) {
-
         Set<String> authoIndexes = Sets.newHashSet();
         Set<Class<?>> classes = Sets.newHashSet();
 
-        // First phase : COMPONENTS search, needed role Role.COMPONENTS_BROWSER or Role.ADMIN
+        // COMPONENTS search, needed role Role.COMPONENTS_BROWSER or Role.ADMIN
+        FilterBuilder typesFilter = null;
         if (AuthorizationUtil.hasOneRoleIn(Role.COMPONENTS_BROWSER)) {
             authoIndexes.add(ElasticSearchDAO.TOSCA_ELEMENT_INDEX);
             classes.add(NodeType.class);
+            typesFilter = FilterBuilders.typeFilter(MappingBuilder.indexTypeFromClass(NodeType.class));
         }
 
-        GetMultipleDataResult searchResultComponents = searchByType(requestObject, authoIndexes, classes, null, null);
-
-        // Second phase : APPLICATION search (with rights filter) or with the Role.ADMIN
-        authoIndexes.clear();
-        classes.clear();
+        // APPLICATION search (with rights filter) or with the Role.ADMIN
         authoIndexes.add(Application.class.getSimpleName().toLowerCase());
         classes.add(Application.class);
+        FilterBuilder applicationsFilter = FilterBuilders.typeFilter(MappingBuilder.indexTypeFromClass(Application.class));
+        FilterBuilder authorizationFilter = getResourceAuthorizationFilters();
+        if (authorizationFilter != null) {
+            applicationsFilter = FilterBuilders.andFilter(applicationsFilter, authorizationFilter);
+        }
+        typesFilter = typesFilter == null ? applicationsFilter : FilterBuilders.orFilter(typesFilter, applicationsFilter);
 
-        // Adding filters to get only authorized applications
-        // only filter on users roles on the application if the current user is not an ADMIN
-        FilterBuilder authorizationFilter = AuthorizationUtil.getResourceAuthorizationFilters();
-
-        GetMultipleDataResult<?> searchResultApplications = searchByType(requestObject, authoIndexes, classes, null, authorizationFilter);
-
-        // Final merge result : COMPONENTS + APPLICATIONS
-        GetMultipleDataResult searchResult = new GetMultipleDataResult();
-        searchResult.setQueryDuration(searchResultComponents.getQueryDuration() + searchResultApplications.getQueryDuration());
-        searchResult.setTypes(ArrayUtils.addAll(searchResultComponents.getTypes(), searchResultApplications.getTypes()));
-        searchResult.setData(ArrayUtils.addAll(searchResultComponents.getData(), searchResultApplications.getData()));
-        searchResult.setTotalResults(searchResultComponents.getTotalResults() + searchResultApplications.getTotalResults());
+        // Both indices are searched in a single request so that results are merged by score and paginated by elasticsearch.
+        GetMultipleDataResult searchResult = searchByType(requestObject, authoIndexes, classes, null, typesFilter);
 
         return RestResponseBuilder.<GetMultipleDataResult> builder().data(searchResult).build();
     }
 
+    /**
+     * Get the applications authorization filter of the current user. The filter is kept for the authentication of the user session (rather than built on
+     * every keystroke of the search box) and rebuilt periodically to take groups changes into account.
+     */
+    private FilterBuilder getResourceAuthorizationFilters() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        try {
+            return authorizationFilters.get(authentication, () -> Optional.fromNullable(AuthorizationUtil.getResourceAuthorizationFilters())).orNull();
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
     @ApiOperation(value = "Search for relationship types in ALIEN's repository.")
     @RequestMapping(value = "relationship_types", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("isAuthenticated()")
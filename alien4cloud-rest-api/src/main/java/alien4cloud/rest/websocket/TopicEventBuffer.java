@@ -0,0 +1,138 @@
+package alien4cloud.rest.websocket;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSInstanceStateMonitorEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbound buffer for monitor events sent on web-socket topics.
+ *
+ * Events are buffered per topic and flushed periodically from a dedicated thread so that the PaaS polling threads are never blocked by the web-socket
+ * fan-out. Instance state events of a same instance are coalesced within a flush window (only the last state is sent). Every frame contains a JSON array
+ * of events.
+ */
+@Slf4j
+@Component
+public class TopicEventBuffer {
+    @Resource
+    private SimpMessagingTemplate template;
+
+    @Value("${websocket.events.flush_interval_ms:250}")
+    private long flushIntervalMs;
+    @Value("${websocket.events.max_batch_size:500}")
+    private int maxBatchSize;
+
+    private final Map<String, TopicBuffer> buffers = Maps.newConcurrentMap();
+    private ScheduledExecutorService flushExecutor;
+
+    private static class TopicBuffer {
+        /** Pending events in arrival order, instance state events are keyed by node and instance so that only the last state is kept. */
+        private final Map<Object, AbstractMonitorEvent> events = Maps.newLinkedHashMap();
+        /** A closed buffer has been removed from the buffers map and must not receive events anymore. */
+        private boolean closed = false;
+    }
+
+    @PostConstruct
+    public void init() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("websocket-events-flush-%d").setDaemon(true).build());
+        if (flushIntervalMs > 0) {
+            flushExecutor.scheduleWithFixedDelay(this::flushAll, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushExecutor.shutdownNow();
+    }
+
+    /**
+     * Add an event to the buffer of a topic.
+     *
+     * @param topic The topic on which to send the event.
+     * @param event The event to send.
+     */
+    public void send(String topic, AbstractMonitorEvent event) {
+        if (flushIntervalMs <= 0) {
+            // buffering is disabled
+            flushExecutor.execute(() -> doSend(topic, Collections.singletonList(event)));
+            return;
+        }
+        while (true) {
+            TopicBuffer buffer = buffers.computeIfAbsent(topic, key -> new TopicBuffer());
+            synchronized (buffer) {
+                if (buffer.closed) {
+                    continue;
+                }
+                Object key = getCoalescingKey(event);
+                // remove the previous state so the last one takes its place in the events order.
+                buffer.events.remove(key);
+                buffer.events.put(key, event);
+                if (buffer.events.size() == maxBatchSize) {
+                    flushExecutor.execute(() -> flush(topic, buffer));
+                }
+                return;
+            }
+        }
+    }
+
+    private Object getCoalescingKey(AbstractMonitorEvent event) {
+        if (event instanceof PaaSInstanceStateMonitorEvent) {
+            PaaSInstanceStateMonitorEvent instanceStateEvent = (PaaSInstanceStateMonitorEvent) event;
+            return instanceStateEvent.getNodeTemplateId() + "/" + instanceStateEvent.getInstanceId();
+        }
+        // other events are never coalesced
+        return new Object();
+    }
+
+    private void flushAll() {
+        for (Map.Entry<String, TopicBuffer> bufferEntry : buffers.entrySet()) {
+            flush(bufferEntry.getKey(), bufferEntry.getValue());
+        }
+    }
+
+    private void flush(String topic, TopicBuffer buffer) {
+        List<AbstractMonitorEvent> events;
+        synchronized (buffer) {
+            if (buffer.events.isEmpty()) {
+                // nothing has been sent on the topic since last flush, release the buffer.
+                buffer.closed = true;
+                buffers.remove(topic, buffer);
+                return;
+            }
+            events = Lists.newArrayList(buffer.events.values());
+            buffer.events.clear();
+        }
+        for (List<AbstractMonitorEvent> batch : Lists.partition(events, maxBatchSize)) {
+            doSend(topic, batch);
+        }
+    }
+
+    private void doSend(String topic, List<AbstractMonitorEvent> events) {
+        try {
+            log.debug("Send {} events to [{}]", events.size(), topic);
+            template.convertAndSend(topic, events);
+        } catch (MessagingException e) {
+            log.error("Failed to send {} events to [{}]", events.size(), topic, e);
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package alien4cloud.utils;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import com.google.common.io.ByteStreams;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public final class FileUploadUtil {
+    private static final int ZIP_MAGIC = 0x504b0304;
+
     private FileUploadUtil() {
     }
 
@@ -30,4 +36,36 @@ public final class FileUploadUtil {
             Files.copy(fileStream, targetPath, StandardCopyOption.REPLACE_EXISTING);
         }
     }
+
+    /**
+     * Transfer an uploaded archive to a temporary location. Zip archives are expanded while they are read from the upload stream (rather than being saved
+     * first and then read again to be expanded), other files are copied as is.
+     *
+     * @param tempDirPath The directory in which to create the temporary file or directory.
+     * @param multipartFile The uploaded archive.
+     * @param extension The extension of the temporary file if the archive is not a zip.
+     * @return The path of the directory that contains the expanded zip or the path of the copied file.
+     * @throws IOException In case we fail to copy or expand the archive.
+     */
+    public static Path transferArchive(Path tempDirPath, MultipartFile multipartFile, String extension) throws IOException {
+        try (InputStream fileStream = new BufferedInputStream(multipartFile.getInputStream())) {
+            byte[] header = new byte[4];
+            fileStream.mark(header.length);
+            int headerLength = ByteStreams.read(fileStream, header, 0, header.length);
+            fileStream.reset();
+            if (headerLength == header.length && ByteBuffer.wrap(header).getInt() == ZIP_MAGIC) {
+                Path expandedPath = Files.createTempDirectory(tempDirPath, null);
+                try {
+                    FileUtil.unzip(fileStream, expandedPath);
+                } catch (IOException e) {
+                    FileUtil.delete(expandedPath);
+                    throw e;
+                }
+                return expandedPath;
+            }
+            Path filePath = Files.createTempFile(tempDirPath, null, '.' + extension);
+            Files.copy(fileStream, filePath, StandardCopyOption.REPLACE_EXISTING);
+            return filePath;
+        }
+    }
 }
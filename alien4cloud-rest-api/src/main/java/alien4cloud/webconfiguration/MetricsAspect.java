@@ -0,0 +1,96 @@
+package alien4cloud.webconfiguration;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Maps;
+
+import alien4cloud.orchestrators.plugin.IOrchestratorPlugin;
+import lombok.AllArgsConstructor;
+
+/**
+ * Aspect that records timers of the elastic search DAOs operations (dao.[dao class].[operation]) and of the orchestrator plugins calls
+ * (orchestrators.[plugin class].[operation]).
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+    public static final String DAO_METRICS_PREFIX = "dao";
+    public static final String ORCHESTRATOR_METRICS_PREFIX = "orchestrators";
+
+    @Resource
+    private MetricRegistry metricRegistry;
+
+    /** Timed proxies of the registered orchestrator plugins by orchestrator id, removed when the orchestrator is unregistered. */
+    private final Map<String, TimedPlugin> timedPlugins = Maps.newConcurrentMap();
+
+    @AllArgsConstructor
+    private static class TimedPlugin {
+        private final IOrchestratorPlugin instance;
+        private final IOrchestratorPlugin proxy;
+    }
+
+    @Around("target(alien4cloud.dao.ESGenericIdDAO) && execution(public * *(..))")
+    public Object timeDaoOperation(ProceedingJoinPoint pjp) throws Throwable {
+        // internal calls of the dao are not intercepted, only the operation called by the service is timed.
+        Timer.Context context = metricRegistry
+                .timer(name(DAO_METRICS_PREFIX, ClassUtils.getUserClass(pjp.getTarget()).getSimpleName(), pjp.getSignature().getName())).time();
+        try {
+            return pjp.proceed();
+        } finally {
+            context.stop();
+        }
+    }
+
+    @Around("(execution(* alien4cloud.paas.OrchestratorPluginService.get(String)) "
+            + "|| execution(* alien4cloud.paas.OrchestratorPluginService.getOrFail(String))) && args(orchestratorId)")
+    public Object timeOrchestratorPlugin(ProceedingJoinPoint pjp, String orchestratorId) throws Throwable {
+        IOrchestratorPlugin instance = (IOrchestratorPlugin) pjp.proceed();
+        if (instance == null) {
+            return null;
+        }
+        TimedPlugin timedPlugin = timedPlugins.get(orchestratorId);
+        if (timedPlugin == null || timedPlugin.instance != instance) {
+            // the orchestrator has been registered again with a new plugin instance.
+            timedPlugin = new TimedPlugin(instance, newTimedProxy(instance));
+            timedPlugins.put(orchestratorId, timedPlugin);
+        }
+        return timedPlugin.proxy;
+    }
+
+    @AfterReturning("execution(* alien4cloud.paas.OrchestratorPluginService.unregister(String)) && args(orchestratorId)")
+    public void releaseOrchestratorPlugin(String orchestratorId) {
+        // release the plugin instance (and so its class loader and context) of disabled orchestrators.
+        timedPlugins.remove(orchestratorId);
+    }
+
+    private IOrchestratorPlugin newTimedProxy(IOrchestratorPlugin instance) {
+        String pluginName = instance.getClass().getSimpleName();
+        // the proxy implements all the interfaces of the plugin so that optional capabilities (ILocationAutoConfigurer etc.) are still detected.
+        return (IOrchestratorPlugin) Proxy.newProxyInstance(instance.getClass().getClassLoader(), ClassUtils.getAllInterfaces(instance),
+                (proxy, method, args) -> {
+                    Timer.Context context = metricRegistry.timer(name(ORCHESTRATOR_METRICS_PREFIX, pluginName, method.getName())).time();
+                    try {
+                        return method.invoke(instance, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        context.stop();
+                    }
+                });
+    }
+}
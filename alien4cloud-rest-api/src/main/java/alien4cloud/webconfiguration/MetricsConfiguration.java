@@ -14,6 +14,8 @@ import org.springframework.context.EnvironmentAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.MetricRegistry;
@@ -96,6 +98,16 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter implements En
         return new FilterRegistrationBean(new MetricsFilter(METRIC_REGISTRY));
     }
 
+    @Bean
+    public WebMvcConfigurerAdapter metricsInterceptorConfigurer(MetricRegistry metricRegistry) {
+        return new WebMvcConfigurerAdapter() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestMappingMetricsInterceptor(metricRegistry)).addPathPatterns("/rest/**");
+            }
+        };
+    }
+
     @Bean
     public ServletRegistrationBean metricsRegistration(MetricsServlet metricsServlet) {
         ServletRegistrationBean registration = new ServletRegistrationBean(metricsServlet);
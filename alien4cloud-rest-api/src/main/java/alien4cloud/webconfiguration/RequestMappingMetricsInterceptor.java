@@ -0,0 +1,51 @@
+package alien4cloud.webconfiguration;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Interceptor that records a timer (and so a latency histogram) and an error meter per handler, keyed by the http method and the request mapping pattern
+ * (rest.GET./rest/v1/applications/{applicationId}) rather than the actual url so that the number of metrics is bounded.
+ */
+public class RequestMappingMetricsInterceptor extends HandlerInterceptorAdapter {
+    public static final String METRICS_PREFIX = "rest";
+    private static final String START_TIME_ATTRIBUTE = RequestMappingMetricsInterceptor.class.getName() + ".startTime";
+
+    private final MetricRegistry metricRegistry;
+
+    public RequestMappingMetricsInterceptor(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_TIME_ATTRIBUTE) == null) {
+            // keep the first start time when an asynchronous request is dispatched again.
+            request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long startTime = (Long) request.getAttribute(START_TIME_ATTRIBUTE);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (startTime == null || pattern == null) {
+            return;
+        }
+        String metricName = name(METRICS_PREFIX, request.getMethod(), pattern.toString());
+        metricRegistry.timer(metricName).update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        if (ex != null || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+            metricRegistry.meter(name(metricName, "errors")).mark();
+        }
+    }
+}
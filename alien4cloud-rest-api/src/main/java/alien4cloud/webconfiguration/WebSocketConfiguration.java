@@ -1,14 +1,23 @@
 package alien4cloud.webconfiguration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.AbstractWebSocketMessageBrokerConfigurer;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfiguration extends AbstractWebSocketMessageBrokerConfigurer {
+    @Value("${websocket.outbound.threadpool_size:4}")
+    private int outboundThreadPoolSize;
+    @Value("${websocket.outbound.send_time_limit_ms:10000}")
+    private int sendTimeLimitMs;
+    @Value("${websocket.outbound.send_buffer_size_limit:524288}")
+    private int sendBufferSizeLimit;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
@@ -16,6 +25,18 @@ public class WebSocketConfiguration extends AbstractWebSocketMessageBrokerConfig
         registry.enableSimpleBroker("/topic");
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // frames are sent to the clients from a dedicated pool.
+        registration.taskExecutor().corePoolSize(outboundThreadPoolSize).maxPoolSize(outboundThreadPoolSize);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // per session back-pressure: a session that cannot keep up is closed instead of buffering frames indefinitely.
+        registration.setSendTimeLimit(sendTimeLimitMs).setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/rest/alienEndPoint").withSockJS().setSessionCookieNeeded(true);
@@ -28,6 +28,7 @@ import alien4cloud.git.SimpleGitHistoryEntry;
 import alien4cloud.rest.model.RestResponse;
 import alien4cloud.rest.model.RestResponseBuilder;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyDeltaDTO;
 import alien4cloud.topology.TopologyValidationResult;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -62,6 +63,21 @@ public class EditorController {
         return RestResponseBuilder.<TopologyDTO> builder().data(topologyDTO).build();
     }
 
+    /**
+     * Execute an operation on a topology and get only the changes of the topology.
+     *
+     * @param topologyId The id of the topology/archive under edition.
+     * @param operation The operation to execute
+     * @return The changes since the previous operation of the client or the full topology DTO if the client must resynchronize.
+     */
+    @ApiIgnore
+    @RequestMapping(value = "/{topologyId:.+}/execute/delta", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public RestResponse<TopologyDeltaDTO> executeDelta(@PathVariable String topologyId, @RequestBody @Valid AbstractEditorOperation operation) {
+        TopologyDeltaDTO topologyDeltaDTO = editorService.executeDelta(topologyId, operation);
+        return RestResponseBuilder.<TopologyDeltaDTO> builder().data(topologyDeltaDTO).build();
+    }
+
     /**
      * Undo or redo operations.
      *
@@ -0,0 +1,151 @@
+package alien4cloud.rest.websocket;
+
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.DeploymentStatus;
+import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
+import alien4cloud.paas.model.PaaSInstanceStateMonitorEvent;
+
+public class TopicEventBufferTest {
+    private static final String TOPIC = "/topic/deployment-events/deployment";
+
+    private TopicEventBuffer topicEventBuffer;
+    private SimpMessagingTemplate template;
+    private ScheduledExecutorService flushExecutor;
+
+    @Before
+    public void setup() {
+        template = mock(SimpMessagingTemplate.class);
+        // flushes are triggered by the test
+        flushExecutor = mock(ScheduledExecutorService.class);
+        topicEventBuffer = new TopicEventBuffer();
+        ReflectionTestUtils.setField(topicEventBuffer, "template", template);
+        ReflectionTestUtils.setField(topicEventBuffer, "flushIntervalMs", 250L);
+        ReflectionTestUtils.setField(topicEventBuffer, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(topicEventBuffer, "flushExecutor", flushExecutor);
+    }
+
+    private PaaSInstanceStateMonitorEvent instanceStateEvent(String nodeId, String instanceId, String state) {
+        PaaSInstanceStateMonitorEvent event = new PaaSInstanceStateMonitorEvent();
+        event.setNodeTemplateId(nodeId);
+        event.setInstanceId(instanceId);
+        event.setInstanceState(state);
+        return event;
+    }
+
+    private PaaSDeploymentStatusMonitorEvent statusEvent(DeploymentStatus status) {
+        PaaSDeploymentStatusMonitorEvent event = new PaaSDeploymentStatusMonitorEvent();
+        event.setDeploymentStatus(status);
+        return event;
+    }
+
+    private void flushAll() {
+        ReflectionTestUtils.invokeMethod(topicEventBuffer, "flushAll");
+    }
+
+    /** Get the frames sent on the topic. */
+    @SuppressWarnings("unchecked")
+    private List<List<AbstractMonitorEvent>> sentFrames(int expectedFrames) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(template, times(expectedFrames)).convertAndSend(eq(TOPIC), captor.capture());
+        return (List<List<AbstractMonitorEvent>>) (List<?>) captor.getAllValues();
+    }
+
+    @Test
+    public void instanceStatesShouldBeCoalescedPerNodeAndInstance() {
+        PaaSInstanceStateMonitorEvent otherInstance = instanceStateEvent("compute", "1", "started");
+        PaaSInstanceStateMonitorEvent otherNode = instanceStateEvent("database", "0", "starting");
+        PaaSInstanceStateMonitorEvent lastState = instanceStateEvent("compute", "0", "started");
+        topicEventBuffer.send(TOPIC, instanceStateEvent("compute", "0", "starting"));
+        topicEventBuffer.send(TOPIC, otherInstance);
+        topicEventBuffer.send(TOPIC, otherNode);
+        topicEventBuffer.send(TOPIC, lastState);
+        flushAll();
+
+        List<List<AbstractMonitorEvent>> frames = sentFrames(1);
+        // the last state takes the place of the previous one in the events order
+        Assert.assertEquals(3, frames.get(0).size());
+        Assert.assertSame(otherInstance, frames.get(0).get(0));
+        Assert.assertSame(otherNode, frames.get(0).get(1));
+        Assert.assertSame(lastState, frames.get(0).get(2));
+    }
+
+    @Test
+    public void otherEventsShouldBeSentInOrder() {
+        PaaSDeploymentStatusMonitorEvent deploying = statusEvent(DeploymentStatus.DEPLOYMENT_IN_PROGRESS);
+        PaaSDeploymentStatusMonitorEvent deployed = statusEvent(DeploymentStatus.DEPLOYED);
+        topicEventBuffer.send(TOPIC, deploying);
+        topicEventBuffer.send(TOPIC, deployed);
+        flushAll();
+
+        List<List<AbstractMonitorEvent>> frames = sentFrames(1);
+        Assert.assertEquals(2, frames.get(0).size());
+        Assert.assertSame(deploying, frames.get(0).get(0));
+        Assert.assertSame(deployed, frames.get(0).get(1));
+    }
+
+    @Test
+    public void fullBufferShouldBeFlushedEarly() {
+        topicEventBuffer.send(TOPIC, statusEvent(DeploymentStatus.DEPLOYMENT_IN_PROGRESS));
+        topicEventBuffer.send(TOPIC, statusEvent(DeploymentStatus.DEPLOYED));
+        verify(flushExecutor, never()).execute(anyObject());
+        topicEventBuffer.send(TOPIC, statusEvent(DeploymentStatus.UNDEPLOYMENT_IN_PROGRESS));
+
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(flushExecutor).execute(flushCaptor.capture());
+        flushCaptor.getValue().run();
+        Assert.assertEquals(3, sentFrames(1).get(0).size());
+    }
+
+    @Test
+    public void largeBufferShouldBePartitioned() {
+        // the early flush is not executed so the buffer keeps growing until the periodic flush
+        for (int i = 0; i < 7; i++) {
+            topicEventBuffer.send(TOPIC, instanceStateEvent("compute", String.valueOf(i), "started"));
+        }
+        flushAll();
+
+        List<List<AbstractMonitorEvent>> frames = sentFrames(3);
+        Assert.assertEquals(3, frames.get(0).size());
+        Assert.assertEquals(3, frames.get(1).size());
+        Assert.assertEquals(1, frames.get(2).size());
+        Assert.assertEquals("6", ((PaaSInstanceStateMonitorEvent) frames.get(2).get(0)).getInstanceId());
+    }
+
+    @Test
+    public void idleBufferShouldBeReleasedAndCreatedAgain() {
+        Map<?, ?> buffers = (Map<?, ?>) ReflectionTestUtils.getField(topicEventBuffer, "buffers");
+        topicEventBuffer.send(TOPIC, statusEvent(DeploymentStatus.DEPLOYED));
+        Object buffer = buffers.get(TOPIC);
+        flushAll();
+        Assert.assertSame(buffer, buffers.get(TOPIC));
+
+        // nothing sent since last flush, the buffer is released
+        flushAll();
+        Assert.assertTrue(buffers.isEmpty());
+        Assert.assertTrue((Boolean) ReflectionTestUtils.getField(buffer, "closed"));
+
+        topicEventBuffer.send(TOPIC, statusEvent(DeploymentStatus.UNDEPLOYED));
+        Assert.assertNotSame(buffer, buffers.get(TOPIC));
+        flushAll();
+        List<List<AbstractMonitorEvent>> frames = sentFrames(2);
+        Assert.assertEquals(DeploymentStatus.UNDEPLOYED, ((PaaSDeploymentStatusMonitorEvent) frames.get(1).get(0)).getDeploymentStatus());
+    }
+}
@@ -0,0 +1,153 @@
+package alien4cloud.webconfiguration;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.ESGenericIdDAO;
+import alien4cloud.dao.IGenericIdDAO;
+import alien4cloud.orchestrators.plugin.ILocationAutoConfigurer;
+import alien4cloud.orchestrators.plugin.IOrchestratorPlugin;
+import alien4cloud.paas.OrchestratorPluginService;
+
+public class MetricsAspectTest {
+    private MetricRegistry metricRegistry;
+    private MetricsAspect metricsAspect;
+    private IGenericIdDAO dao;
+    private TestOrchestratorPluginService orchestratorPlugins;
+    private OrchestratorPluginService orchestratorPluginService;
+
+    /** Dao that does not require an elastic search client. */
+    private static class TestDAO extends ESGenericIdDAO {
+        @Override
+        public <T> boolean exist(Class<T> clazz, String id) {
+            return "existing".equals(id);
+        }
+    }
+
+    /** Orchestrator plugin service that does not monitor the registered plugins (not private as it is proxied by cglib). */
+    static class TestOrchestratorPluginService extends OrchestratorPluginService {
+        private final Map<String, IOrchestratorPlugin> plugins = Maps.newHashMap();
+
+        @Override
+        public IOrchestratorPlugin unregister(String orchestratorId) {
+            return plugins.remove(orchestratorId);
+        }
+
+        @Override
+        public IOrchestratorPlugin get(String orchestratorId) {
+            return plugins.get(orchestratorId);
+        }
+
+        @Override
+        public IOrchestratorPlugin getOrFail(String orchestratorId) {
+            return plugins.get(orchestratorId);
+        }
+    }
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        metricsAspect = new MetricsAspect();
+        ReflectionTestUtils.setField(metricsAspect, "metricRegistry", metricRegistry);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new TestDAO());
+        proxyFactory.addAspect(metricsAspect);
+        dao = proxyFactory.getProxy();
+
+        orchestratorPlugins = new TestOrchestratorPluginService();
+        proxyFactory = new AspectJProxyFactory(orchestratorPlugins);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(metricsAspect);
+        orchestratorPluginService = proxyFactory.getProxy();
+    }
+
+    private IOrchestratorPlugin newPlugin() {
+        return mock(IOrchestratorPlugin.class, withSettings().extraInterfaces(ILocationAutoConfigurer.class));
+    }
+
+    private long orchestratorTimerCount(String operation) {
+        long count = 0;
+        for (Entry<String, Timer> timerEntry : metricRegistry.getTimers().entrySet()) {
+            if (timerEntry.getKey().startsWith(MetricsAspect.ORCHESTRATOR_METRICS_PREFIX + ".") && timerEntry.getKey().endsWith("." + operation)) {
+                count += timerEntry.getValue().getCount();
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void daoOperationShouldBeTimed() {
+        Assert.assertTrue(dao.exist(String.class, "existing"));
+        Assert.assertFalse(dao.exist(String.class, "missing"));
+
+        Timer timer = metricRegistry.getTimers().get(MetricRegistry.name(MetricsAspect.DAO_METRICS_PREFIX, "TestDAO", "exist"));
+        Assert.assertNotNull(timer);
+        Assert.assertEquals(2, timer.getCount());
+        Assert.assertEquals(1, metricRegistry.getTimers().size());
+    }
+
+    @Test
+    public void orchestratorPluginCallsShouldBeTimed() {
+        IOrchestratorPlugin plugin = newPlugin();
+        orchestratorPlugins.plugins.put("orchestrator", plugin);
+
+        IOrchestratorPlugin timedPlugin = orchestratorPluginService.getOrFail("orchestrator");
+        Assert.assertNotSame(plugin, timedPlugin);
+        // optional capabilities of the plugin are preserved
+        Assert.assertTrue(timedPlugin instanceof ILocationAutoConfigurer);
+        ((ILocationAutoConfigurer) timedPlugin).getLocations();
+        timedPlugin.pluginArchives();
+
+        verify((ILocationAutoConfigurer) plugin).getLocations();
+        verify(plugin).pluginArchives();
+        Assert.assertEquals(1, orchestratorTimerCount("getLocations"));
+        Assert.assertEquals(1, orchestratorTimerCount("pluginArchives"));
+    }
+
+    @Test
+    public void orchestratorPluginExceptionsShouldBeUnwrapped() {
+        IOrchestratorPlugin plugin = newPlugin();
+        doThrow(new IllegalStateException("init failed")).when(plugin).init(null);
+        orchestratorPlugins.plugins.put("orchestrator", plugin);
+
+        try {
+            orchestratorPluginService.get("orchestrator").init(null);
+            Assert.fail("The plugin exception should be thrown");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("init failed", e.getMessage());
+        }
+        Assert.assertEquals(1, orchestratorTimerCount("init"));
+    }
+
+    @Test
+    public void orchestratorPluginProxyShouldBeReleasedOnUnregister() {
+        Assert.assertNull(orchestratorPluginService.get("orchestrator"));
+        IOrchestratorPlugin plugin = newPlugin();
+        orchestratorPlugins.plugins.put("orchestrator", plugin);
+
+        IOrchestratorPlugin timedPlugin = orchestratorPluginService.get("orchestrator");
+        Assert.assertSame(timedPlugin, orchestratorPluginService.getOrFail("orchestrator"));
+
+        // a new instance registered for the same orchestrator gets a new proxy
+        orchestratorPlugins.plugins.put("orchestrator", newPlugin());
+        IOrchestratorPlugin reloadedPlugin = orchestratorPluginService.get("orchestrator");
+        Assert.assertNotSame(timedPlugin, reloadedPlugin);
+
+        Assert.assertNotNull(orchestratorPluginService.unregister("orchestrator"));
+        Assert.assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(metricsAspect, "timedPlugins")).isEmpty());
+    }
+}
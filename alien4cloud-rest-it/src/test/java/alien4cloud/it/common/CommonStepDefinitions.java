@@ -75,7 +75,8 @@ public class CommonStepDefinitions {
         indicesToClean.add(User.class.getSimpleName().toLowerCase());
         indicesToClean.add(MetaPropConfiguration.class.getSimpleName().toLowerCase());
         indicesToClean.add(CsarGitRepository.class.getSimpleName().toLowerCase());
-        indicesToClean.add(PaaSDeploymentLog.class.getSimpleName().toLowerCase());
+        // deployment logs are partitioned, clean all the partitions through their alias.
+        indicesToClean.add(PaaSDeploymentLog.class.getSimpleName().toLowerCase() + "-all");
         indicesToClean.add(AuditESDAO.ALIEN_AUDIT_INDEX);
         indicesToClean.add(ElasticSearchDAO.SUGGESTION_INDEX);
         indicesToClean.add(Repository.class.getSimpleName().toLowerCase());
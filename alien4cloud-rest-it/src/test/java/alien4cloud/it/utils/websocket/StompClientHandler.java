@@ -8,7 +8,6 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
 import alien4cloud.rest.utils.JsonUtil;
-import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
@@ -74,8 +73,15 @@ public class StompClientHandler extends SimpleChannelInboundHandler<Object> {
             if (String.class == callback.getExpectedDataType()) {
                 callback.onData(frame.headers().get(StompHeaders.DESTINATION).toString(), frame.content().toString(Charset.forName("UTF-8")));
             } else {
-                callback.onData(frame.headers().get(StompHeaders.DESTINATION).toString(),
-                        JsonUtil.readObject(new ByteBufInputStream(frame.content()), callback.getExpectedDataType()));
+                String content = frame.content().toString(Charset.forName("UTF-8"));
+                if (content.startsWith("[")) {
+                    // monitor events are sent in batches
+                    for (Object data : JsonUtil.toList(content, callback.getExpectedDataType())) {
+                        callback.onData(frame.headers().get(StompHeaders.DESTINATION).toString(), data);
+                    }
+                } else {
+                    callback.onData(frame.headers().get(StompHeaders.DESTINATION).toString(), JsonUtil.readObject(content, callback.getExpectedDataType()));
+                }
             }
             break;
         case ERROR:
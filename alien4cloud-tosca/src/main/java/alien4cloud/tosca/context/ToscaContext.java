@@ -22,6 +22,7 @@ import org.alien4cloud.tosca.model.types.RelationshipType;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import alien4cloud.component.ICSARRepositorySearchService;
 import alien4cloud.tosca.model.ArchiveRoot;
@@ -115,6 +116,21 @@ public class ToscaContext {
             this.dependencies = dependencies;
         }
 
+        /**
+         * Create a copy of this context that contains the archives and elements already cached. Contexts are not thread-safe, a copy must be used to
+         * perform operations in another thread.
+         *
+         * @return A copy of this context.
+         */
+        public Context copy() {
+            Context copy = new Context(Sets.newHashSet(dependencies));
+            copy.archivesMap.putAll(archivesMap);
+            for (Map.Entry<String, Map<String, AbstractToscaType>> typeElementsEntry : toscaTypesCache.entrySet()) {
+                copy.toscaTypesCache.put(typeElementsEntry.getKey(), new HashMap<>(typeElementsEntry.getValue()));
+            }
+            return copy;
+        }
+
         private CSARDependency getDependencyByName(String dependencyName) {
             for (CSARDependency d : dependencies) {
                 if (d.getName().equals(dependencyName)) {
@@ -236,7 +252,14 @@ public class ToscaContext {
             register(PolicyType.class, root.getPolicyTypes());
         }
 
-        private <T extends AbstractToscaType> void register(Class<T> elementClass, Map<String, T> elementMap) {
+        /**
+         * Register elements in the local-cache so they are not fetched again from ES. This allows to preload elements that have been fetched in batch.
+         *
+         * @param elementClass The class of the elements to register.
+         * @param elementMap The map of element id to element to register.
+         * @param <T> The type of elements.
+         */
+        public <T extends AbstractToscaType> void register(Class<T> elementClass, Map<String, T> elementMap) {
             String elementType = elementClass.getSimpleName();
             Map<String, AbstractToscaType> typeElements = toscaTypesCache.get(elementType);
             if (typeElements == null) {
@@ -14,8 +14,6 @@ import org.yaml.snakeyaml.nodes.Node;
 
 import alien4cloud.tosca.parser.impl.ErrorCode;
 
-import static org.aspectj.weaver.tools.cache.SimpleCacheFactory.path;
-
 /**
  * Abstract class to work with Type Node Parsing.
  */
@@ -35,7 +33,7 @@ public abstract class AbstractTypeNodeParser {
             // if the path is null, we just to do nothing with the stuff
             return;
         }
-        Entry<BeanWrapper, String> entry = findWrapperPropertyByPath(context.getRoot(), target, mappingTarget.getPath());
+        Entry<BeanWrapper, String> entry = findWrapperPropertyByPath(context.getRoot(), target, mappingTarget);
         BeanWrapper realTarget = entry.getKey();
         String propertyName = entry.getValue();
 
@@ -44,7 +42,7 @@ public abstract class AbstractTypeNodeParser {
         if (!propertyName.equals("void")) {
             // property named 'void' means : process the parsing but do not set anything
             try {
-                realTarget.setPropertyValue(propertyName, value);
+                PropertyAccessor.setPropertyValue(realTarget, propertyName, value);
             } catch (ConversionNotSupportedException e) {
                 context.getParsingErrors().add(new ParsingError(ParsingErrorLevel.ERROR, ErrorCode.SYNTAX_ERROR, "Invalid yaml type for property",
                         valueNode.getStartMark(), "", valueNode.getEndMark(), toscaType));
@@ -59,8 +57,8 @@ public abstract class AbstractTypeNodeParser {
             KeyValueMappingTarget kvmt = (KeyValueMappingTarget) mappingTarget;
             BeanWrapper keyBeanWrapper = realTarget;
             try {
-                if (!(keyBeanWrapper.getPropertyValue(kvmt.getKeyPath()) != null && propertyName.equals(key))) {
-                    keyBeanWrapper.setPropertyValue(kvmt.getKeyPath(), key);
+                if (!(PropertyAccessor.getPropertyValue(keyBeanWrapper, kvmt.getKeyPath()) != null && propertyName.equals(key))) {
+                    PropertyAccessor.setPropertyValue(keyBeanWrapper, kvmt.getKeyPath(), key);
                 }
             } catch (ConversionNotSupportedException e) {
                 context.getParsingErrors().add(new ParsingError(ParsingErrorLevel.ERROR, ErrorCode.SYNTAX_ERROR, "Invalid yaml type for property",
@@ -74,32 +72,19 @@ public abstract class AbstractTypeNodeParser {
     }
 
     /**
-     * For example:
-     * <ul>
-     * <li>.something : the value will be set to the property of root named 'something'
-     * <li>child1.child2.prop : the value will be mapped u getChild1().getChild2().setProp()
-     * </ul>
+     * Navigate the pre-split path of the mapping target (see {@link MappingTarget}) to find the object and the name of the property to set.
      */
-    private Entry<BeanWrapper, String> findWrapperPropertyByPath(BeanWrapper root, BeanWrapper current, String path) {
-        int dotIdx = path.indexOf(".");
-        if (dotIdx < 0) {
-            return new DefaultMapEntry<BeanWrapper, String>(current, path);
-        }
+    private Entry<BeanWrapper, String> findWrapperPropertyByPath(BeanWrapper root, BeanWrapper current, MappingTarget mappingTarget) {
         BeanWrapper base = current;
-        String nextPath = path;
-        if (path.startsWith("../")) {
-            base = new BeanWrapperImpl(ParsingContextExecution.getParent(current));
-            nextPath = path.substring(3);
-        } else if (path.startsWith(".")) {
-            base = root;
-            nextPath = path.substring(1);
-        } else {
-            String wrapperCandidateName = path.substring(0, path.indexOf("."));
-            Object wrapperCandidate = current.getPropertyValue(wrapperCandidateName);
-            base = new BeanWrapperImpl(wrapperCandidate);
-            nextPath = path.substring(path.indexOf(".") + 1);
+        for (String pathElement : mappingTarget.getPathElements()) {
+            if (MappingTarget.PARENT_PATH_ELEMENT.equals(pathElement)) {
+                base = new BeanWrapperImpl(ParsingContextExecution.getParent(base));
+            } else if (MappingTarget.ROOT_PATH_ELEMENT.equals(pathElement)) {
+                base = root;
+            } else {
+                base = new BeanWrapperImpl(PropertyAccessor.getPropertyValue(base, pathElement));
+            }
         }
-        return findWrapperPropertyByPath(root, base, nextPath);
+        return new DefaultMapEntry<BeanWrapper, String>(base, mappingTarget.getPropertyName());
     }
-
 }
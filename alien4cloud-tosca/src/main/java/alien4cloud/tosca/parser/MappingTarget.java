@@ -1,12 +1,25 @@
 package alien4cloud.tosca.parser;
 
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
 import lombok.Getter;
 
 @Getter
 public class MappingTarget {
+    /** Path element that navigates to the parent of the current object. */
+    public static final String PARENT_PATH_ELEMENT = "../";
+    /** Path element that navigates to the root object. */
+    public static final String ROOT_PATH_ELEMENT = ".";
+
     private boolean isRootPath;
     private String path;
     private INodeParser<?> parser;
+    /** The elements of the path to navigate before setting the property, split once rather than on every parsed value. */
+    private String[] pathElements;
+    /** The name of the property to set on the object at the end of the path. */
+    private String propertyName;
 
     public MappingTarget(String path, INodeParser<?> parser) {
         if (path == null) {
@@ -19,5 +32,33 @@ public class MappingTarget {
             this.path = path;
         }
         this.parser = parser;
+        splitPath();
+    }
+
+    /**
+     * For example:
+     * <ul>
+     * <li>.something : the value will be set to the property of root named 'something'
+     * <li>../something : the value will be set to the property of the parent named 'something'
+     * <li>child1.child2.prop : the value will be mapped u getChild1().getChild2().setProp()
+     * </ul>
+     */
+    private void splitPath() {
+        List<String> elements = Lists.newArrayList();
+        String nextPath = path;
+        while (nextPath.indexOf('.') >= 0) {
+            if (nextPath.startsWith(PARENT_PATH_ELEMENT)) {
+                elements.add(PARENT_PATH_ELEMENT);
+                nextPath = nextPath.substring(3);
+            } else if (nextPath.startsWith(ROOT_PATH_ELEMENT)) {
+                elements.add(ROOT_PATH_ELEMENT);
+                nextPath = nextPath.substring(1);
+            } else {
+                elements.add(nextPath.substring(0, nextPath.indexOf('.')));
+                nextPath = nextPath.substring(nextPath.indexOf('.') + 1);
+            }
+        }
+        this.pathElements = elements.toArray(new String[elements.size()]);
+        this.propertyName = nextPath;
     }
-}
\ No newline at end of file
+}
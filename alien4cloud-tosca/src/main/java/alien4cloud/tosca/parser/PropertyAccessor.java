@@ -0,0 +1,136 @@
+package alien4cloud.tosca.parser;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+
+/**
+ * Compiled accessor of a bean property used by the parser to set the parsed values.
+ *
+ * Accessors are method handles built once per class and property and shared by all the parsings, while a bean wrapper resolves the property and converts
+ * the value on every call. Values that are not of the property type (or nested property paths) still go through the bean wrapper so that conversions and
+ * conversion errors remain the same.
+ */
+public final class PropertyAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final Map<Class<?>, Map<String, Optional<PropertyAccessor>>> ACCESSORS = Maps.newConcurrentMap();
+
+    private final Class<?> propertyType;
+    private final boolean primitive;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private PropertyAccessor(PropertyDescriptor propertyDescriptor) {
+        this.primitive = propertyDescriptor.getPropertyType().isPrimitive();
+        this.propertyType = ClassUtils.resolvePrimitiveIfNecessary(propertyDescriptor.getPropertyType());
+        this.getter = toHandle(propertyDescriptor.getReadMethod(), GETTER_TYPE);
+        this.setter = toHandle(propertyDescriptor.getWriteMethod(), SETTER_TYPE);
+    }
+
+    private static MethodHandle toHandle(Method method, MethodType type) {
+        if (method == null) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(method);
+        try {
+            return MethodHandles.lookup().unreflect(method).asType(type);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the accessor of a property.
+     *
+     * @param clazz The class of the bean.
+     * @param propertyName The name of the property (not a nested path).
+     * @return The accessor or null if the class has no such property.
+     */
+    public static PropertyAccessor get(Class<?> clazz, String propertyName) {
+        Map<String, Optional<PropertyAccessor>> classAccessors = ACCESSORS.computeIfAbsent(clazz, key -> Maps.newConcurrentMap());
+        return classAccessors.computeIfAbsent(propertyName, key -> {
+            PropertyDescriptor propertyDescriptor = BeanUtils.getPropertyDescriptor(clazz, propertyName);
+            return propertyDescriptor == null ? Optional.<PropertyAccessor> absent() : Optional.of(new PropertyAccessor(propertyDescriptor));
+        }).orNull();
+    }
+
+    /**
+     * Get the value of a property of the wrapped bean.
+     *
+     * @param wrapper The wrapper of the bean.
+     * @param propertyName The name or path of the property.
+     * @return The value of the property.
+     */
+    public static Object getPropertyValue(BeanWrapper wrapper, String propertyName) {
+        PropertyAccessor accessor = get(wrapper.getWrappedClass(), propertyName);
+        if (accessor == null || accessor.getter == null) {
+            return wrapper.getPropertyValue(propertyName);
+        }
+        try {
+            return accessor.getter.invokeExact(wrapper.getWrappedInstance());
+        } catch (Throwable t) {
+            throw Throwables.propagate(t);
+        }
+    }
+
+    /**
+     * Set the value of a property of the wrapped bean.
+     *
+     * @param wrapper The wrapper of the bean.
+     * @param propertyName The name or path of the property.
+     * @param value The value to set.
+     */
+    public static void setPropertyValue(BeanWrapper wrapper, String propertyName, Object value) {
+        PropertyAccessor accessor = get(wrapper.getWrappedClass(), propertyName);
+        if (accessor == null || !accessor.canSet(value)) {
+            wrapper.setPropertyValue(propertyName, value);
+            return;
+        }
+        accessor.set(wrapper.getWrappedInstance(), value);
+    }
+
+    /**
+     * Set the value of a property of a bean.
+     *
+     * @param bean The bean.
+     * @param propertyName The name or path of the property.
+     * @param value The value to set.
+     */
+    public static void setPropertyValue(Object bean, String propertyName, Object value) {
+        PropertyAccessor accessor = get(bean.getClass(), propertyName);
+        if (accessor == null || !accessor.canSet(value)) {
+            new BeanWrapperImpl(bean).setPropertyValue(propertyName, value);
+            return;
+        }
+        accessor.set(bean, value);
+    }
+
+    private boolean canSet(Object value) {
+        if (setter == null) {
+            return false;
+        }
+        return value == null ? !primitive : propertyType.isInstance(value);
+    }
+
+    private void set(Object bean, Object value) {
+        try {
+            setter.invokeExact(bean, value);
+        } catch (Throwable t) {
+            throw Throwables.propagate(t);
+        }
+    }
+}
@@ -31,8 +31,9 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class ToscaArchiveParser {
     public static final String TOSCA_META_FOLDER_NAME = "TOSCA-Metadata";
+    public static final String TOSCA_META_FILE_NAME = "TOSCA.meta";
     public static final String TOSCA_META_FILE_LOCATION = FileSystems.getDefault().getSeparator() + TOSCA_META_FOLDER_NAME
-            + FileSystems.getDefault().getSeparator() + "TOSCA.meta";
+            + FileSystems.getDefault().getSeparator() + TOSCA_META_FILE_NAME;
 
     @Resource
     private ToscaMetaMapping toscaMetaMapping;
@@ -67,19 +68,19 @@ public class ToscaArchiveParser {
     }
 
     /**
-     * Parse an archive file from a zip.
+     * Parse an archive file from a zip or from a directory.
      *
-     * @param archiveFile The archive file currently zipped.
+     * @param archiveFile The archive file currently zipped or the directory that contains the archive.
      * @return A parsing result that contains the Archive Root and eventual errors and/or warnings.
      * @throws ParsingException In case of a severe issue while parsing (incorrect yaml, no tosca file etc.)
      */
     @ToscaContextual(requiresNew = true)
     public ParsingResult<ArchiveRoot> parse(Path archiveFile, boolean allowYamlFile) throws ParsingException {
+        if (Files.isDirectory(archiveFile)) {
+            return parseArchive(archiveFile);
+        }
         try (FileSystem csarFS = FileSystems.newFileSystem(archiveFile, null)) {
-            if (Files.exists(csarFS.getPath(TOSCA_META_FILE_LOCATION))) {
-                return parseFromToscaMeta(csarFS);
-            }
-            return parseFromRootDefinitions(csarFS, toscaParser);
+            return parseArchive(csarFS.getPath(csarFS.getSeparator()));
         } catch (IOException e) {
             log.error("Unable to read uploaded archive [" + archiveFile + "]", e);
             throw new ParsingException("Archive",
@@ -115,16 +116,20 @@ public class ToscaArchiveParser {
         return parseFromRootDefinitions(archiveDir);
     }
 
+    /**
+     * Parse only the meta and the imports of an archive file from a zip or from a directory.
+     *
+     * @param archiveFile The archive file currently zipped or the directory that contains the archive.
+     * @return A parsing result that contains the resulting {@link CsarDependenciesBean} and eventual errors and/or warnings.
+     * @throws ParsingException In case of a severe issue while parsing (incorrect yaml, no tosca file etc.)
+     */
     @ToscaContextual(requiresNew = true)
     public ParsingResult<CsarDependenciesBean> parseImports(Path archiveFile) throws ParsingException {
+        if (Files.isDirectory(archiveFile)) {
+            return parseArchiveImports(archiveFile);
+        }
         try (FileSystem csarFS = FileSystems.newFileSystem(archiveFile, null)) {
-            if (Files.exists(csarFS.getPath(TOSCA_META_FILE_LOCATION))) {
-                YamlSimpleParser<ToscaMeta> parser = new YamlSimpleParser<ToscaMeta>(toscaMetaMapping.getParser());
-                ParsingResult<ToscaMeta> parsingResult = parser.parseFile(csarFS.getPath(TOSCA_META_FILE_LOCATION));
-                CsarDependenciesBean csarDependenciesBean = initDependencyBeanFromToscaMeta(parsingResult.getResult());
-                return parseFromToscaMeta(csarFS, parsingResult.getResult(), TOSCA_META_FILE_LOCATION, csarDependenciesBean, toscaImportParser);
-            }
-            return parseFromRootDefinitions(csarFS, toscaImportParser);
+            return parseArchiveImports(csarFS.getPath(csarFS.getSeparator()));
         } catch (IOException e) {
             log.error("Unable to read uploaded archive [" + archiveFile + "]", e);
             throw new ParsingException("Archive",
@@ -137,6 +142,36 @@ public class ToscaArchiveParser {
         }
     }
 
+    /**
+     * Get the path of the TOSCA meta file of an archive. Note that the meta file location cannot be resolved as is from a directory as it is absolute.
+     */
+    private Path getToscaMetaPath(Path archiveRoot) {
+        return archiveRoot.resolve(TOSCA_META_FOLDER_NAME).resolve(TOSCA_META_FILE_NAME);
+    }
+
+    private ParsingResult<ArchiveRoot> parseArchive(Path archiveRoot) throws ParsingException {
+        Path toscaMetaPath = getToscaMetaPath(archiveRoot);
+        if (Files.exists(toscaMetaPath)) {
+            YamlSimpleParser<ToscaMeta> parser = new YamlSimpleParser<ToscaMeta>(toscaMetaMapping.getParser());
+            ParsingResult<ToscaMeta> parsingResult = parser.parseFile(toscaMetaPath);
+            // FIXME shouldn't we check here if the meta parsing went well?
+            ArchiveRoot archive = initFromToscaMeta(parsingResult);
+            return parseFromToscaMeta(archiveRoot, parsingResult.getResult(), TOSCA_META_FILE_LOCATION, archive, toscaParser);
+        }
+        return parseFromRootDefinitions(archiveRoot, toscaParser);
+    }
+
+    private ParsingResult<CsarDependenciesBean> parseArchiveImports(Path archiveRoot) throws ParsingException {
+        Path toscaMetaPath = getToscaMetaPath(archiveRoot);
+        if (Files.exists(toscaMetaPath)) {
+            YamlSimpleParser<ToscaMeta> parser = new YamlSimpleParser<ToscaMeta>(toscaMetaMapping.getParser());
+            ParsingResult<ToscaMeta> parsingResult = parser.parseFile(toscaMetaPath);
+            CsarDependenciesBean csarDependenciesBean = initDependencyBeanFromToscaMeta(parsingResult.getResult());
+            return parseFromToscaMeta(archiveRoot, parsingResult.getResult(), TOSCA_META_FILE_LOCATION, csarDependenciesBean, toscaImportParser);
+        }
+        return parseFromRootDefinitions(archiveRoot, toscaImportParser);
+    }
+
     private CsarDependenciesBean initDependencyBeanFromToscaMeta(ToscaMeta toscaMeta) {
         CsarDependenciesBean csarDependenciesBean = new CsarDependenciesBean();
         csarDependenciesBean.setSelf(new CSARDependency(toscaMeta.getName(), toscaMeta.getVersion()));
@@ -150,14 +185,6 @@ public class ToscaArchiveParser {
         return parseFromToscaMeta(csarPath, parsingResult.getResult(), TOSCA_META_FILE_LOCATION, archiveRoot);
     }
 
-    private ParsingResult<ArchiveRoot> parseFromToscaMeta(FileSystem csarFS) throws ParsingException {
-        YamlSimpleParser<ToscaMeta> parser = new YamlSimpleParser<ToscaMeta>(toscaMetaMapping.getParser());
-        ParsingResult<ToscaMeta> parsingResult = parser.parseFile(csarFS.getPath(TOSCA_META_FILE_LOCATION));
-        // FIXME shouldn't we check here if the meta parsing went well?
-        ArchiveRoot archiveRoot = initFromToscaMeta(parsingResult);
-        return parseFromToscaMeta(csarFS, parsingResult.getResult(), TOSCA_META_FILE_LOCATION, archiveRoot, toscaParser);
-    }
-
     private ArchiveRoot initFromToscaMeta(ParsingResult<ToscaMeta> toscaMeta) {
         ArchiveRoot archiveRoot = new ArchiveRoot();
         archiveRoot.getArchive().setName(toscaMeta.getResult().getName());
@@ -179,10 +206,10 @@ public class ToscaArchiveParser {
                 new ParsingError(ErrorCode.ENTRY_DEFINITION_NOT_FOUND, "No entry definitions found in the meta file.", null, null, null, null));
     }
 
-    private <T> ParsingResult<T> parseFromToscaMeta(FileSystem csarFS, ToscaMeta toscaMeta, String metaFileName, T instance, YamlParser<T> parser)
+    private <T> ParsingResult<T> parseFromToscaMeta(Path archiveRoot, ToscaMeta toscaMeta, String metaFileName, T instance, YamlParser<T> parser)
             throws ParsingException {
         if (toscaMeta.getEntryDefinitions() != null) {
-            return parser.parseFile(csarFS.getPath(toscaMeta.getEntryDefinitions()), instance);
+            return parser.parseFile(archiveRoot.resolve(toscaMeta.getEntryDefinitions()), instance);
         }
         throw new ParsingException(metaFileName,
                 new ParsingError(ErrorCode.ENTRY_DEFINITION_NOT_FOUND, "No entry definitions found in the meta file.", null, null, null, null));
@@ -202,20 +229,20 @@ public class ToscaArchiveParser {
         }
     }
 
-    private <T> ParsingResult<T> parseFromRootDefinitions(FileSystem csarFS, YamlParser<T> parser) throws ParsingException {
+    private <T> ParsingResult<T> parseFromRootDefinitions(Path archiveRoot, YamlParser<T> parser) throws ParsingException {
         // load definitions from the archive root
         try {
-            DefinitionVisitor visitor = new DefinitionVisitor(csarFS);
-            Files.walkFileTree(csarFS.getPath(csarFS.getSeparator()), EnumSet.noneOf(FileVisitOption.class), 1, visitor);
+            DefinitionVisitor visitor = new DefinitionVisitor(archiveRoot.getFileSystem());
+            Files.walkFileTree(archiveRoot, EnumSet.noneOf(FileVisitOption.class), 1, visitor);
             if (visitor.getDefinitionFiles().size() == 1) {
                 return parser.parseFile(visitor.getDefinitionFiles().get(0));
             }
             throw new ParsingException("Archive",
                     new ParsingError(ErrorCode.SINGLE_DEFINITION_SUPPORTED, "Alien only supports archives with a single root definition.", null, null, null,
-                            "Matching file count in root of " + csarFS + ": " + visitor.getDefinitionFiles().size()));
+                            "Matching file count in root of " + archiveRoot + ": " + visitor.getDefinitionFiles().size()));
         } catch (IOException e) {
             throw new ParsingException("Archive",
-                    new ParsingError(ErrorCode.FAILED_TO_READ_FILE, "Failed to list root definitions", null, null, null, "Error reading " + csarFS + ": " + e));
+                    new ParsingError(ErrorCode.FAILED_TO_READ_FILE, "Failed to list root definitions", null, null, null, "Error reading " + archiveRoot + ": " + e));
         }
     }
 }
\ No newline at end of file
@@ -2,8 +2,6 @@ package alien4cloud.tosca.parser.impl.base;
 
 import java.util.Collection;
 
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.nodes.NodeTuple;
@@ -13,6 +11,7 @@ import org.yaml.snakeyaml.nodes.SequenceNode;
 import alien4cloud.tosca.parser.INodeParser;
 import alien4cloud.tosca.parser.ParserUtils;
 import alien4cloud.tosca.parser.ParsingContextExecution;
+import alien4cloud.tosca.parser.PropertyAccessor;
 import lombok.AllArgsConstructor;
 import lombok.Setter;
 
@@ -89,8 +88,7 @@ public abstract class CollectionParser<T> implements INodeParser<Collection<T>>
         T value;
         value = valueParser.parse(tuple.getValueNode(), context);
         if (value != null) {
-            BeanWrapper valueWrapper = new BeanWrapperImpl(value);
-            valueWrapper.setPropertyValue(keyPath, key);
+            PropertyAccessor.setPropertyValue(value, keyPath, key);
         }
         return value;
     }
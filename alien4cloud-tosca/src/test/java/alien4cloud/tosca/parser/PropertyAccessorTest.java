@@ -0,0 +1,75 @@
+package alien4cloud.tosca.parser;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.NotWritablePropertyException;
+
+import com.google.common.collect.Lists;
+
+import lombok.Getter;
+import lombok.Setter;
+
+public class PropertyAccessorTest {
+    @Getter
+    @Setter
+    public static class Bean {
+        private String name;
+        private int count;
+        private List<String> tags;
+        private Bean child;
+    }
+
+    @Test
+    public void valuesOfThePropertyTypeShouldBeSetDirectly() {
+        Bean bean = new Bean();
+        BeanWrapper wrapper = new BeanWrapperImpl(bean);
+        PropertyAccessor.setPropertyValue(wrapper, "name", "value");
+        PropertyAccessor.setPropertyValue(wrapper, "count", 3);
+        PropertyAccessor.setPropertyValue(bean, "tags", Lists.newArrayList("a", "b"));
+
+        Assert.assertEquals("value", bean.getName());
+        Assert.assertEquals(3, bean.getCount());
+        Assert.assertEquals(Lists.newArrayList("a", "b"), bean.getTags());
+        Assert.assertEquals("value", PropertyAccessor.getPropertyValue(wrapper, "name"));
+    }
+
+    @Test
+    public void otherValuesShouldBeConvertedByTheBeanWrapper() {
+        Bean bean = new Bean();
+        bean.setChild(new Bean());
+        BeanWrapper wrapper = new BeanWrapperImpl(bean);
+        PropertyAccessor.setPropertyValue(wrapper, "count", "5");
+        PropertyAccessor.setPropertyValue(wrapper, "child.name", "child");
+
+        Assert.assertEquals(5, bean.getCount());
+        Assert.assertEquals("child", bean.getChild().getName());
+    }
+
+    @Test(expected = NotWritablePropertyException.class)
+    public void unknownPropertyShouldFail() {
+        PropertyAccessor.setPropertyValue(new Bean(), "unknown", "value");
+    }
+
+    @Test
+    public void mappingTargetPathShouldBeSplit() {
+        MappingTarget nested = new MappingTarget("child1.child2.prop", null);
+        Assert.assertArrayEquals(new String[] { "child1", "child2" }, nested.getPathElements());
+        Assert.assertEquals("prop", nested.getPropertyName());
+
+        MappingTarget root = new MappingTarget(".child.prop", null);
+        Assert.assertArrayEquals(new String[] { MappingTarget.ROOT_PATH_ELEMENT, "child" }, root.getPathElements());
+        Assert.assertEquals("prop", root.getPropertyName());
+
+        MappingTarget parent = new MappingTarget("../dependencies", null);
+        Assert.assertArrayEquals(new String[] { MappingTarget.PARENT_PATH_ELEMENT }, parent.getPathElements());
+        Assert.assertEquals("dependencies", parent.getPropertyName());
+
+        MappingTarget simple = new MappingTarget("name", null);
+        Assert.assertEquals(0, simple.getPathElements().length);
+        Assert.assertEquals("name", simple.getPropertyName());
+    }
+}